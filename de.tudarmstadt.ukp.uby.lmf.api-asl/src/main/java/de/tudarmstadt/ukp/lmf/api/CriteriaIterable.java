@@ -35,16 +35,29 @@ public class CriteriaIterable<T> implements Iterable<T> {
 	private int bufferSize;
 	private DetachedCriteria criteria;
 	private SessionFactory sessionFactory;
+	private boolean keyset;
 
 	public CriteriaIterable(DetachedCriteria criteria, SessionFactory sessionFactory, int bufferSize){
+		this(criteria, sessionFactory, bufferSize, false);
+	}
+
+	/**
+	 * Note that in keyset mode, only one iterator should be created from this
+	 * {@link Iterable}, since the iterator modifies the consumed criteria.
+	 *
+	 * @see CriteriaIterator#CriteriaIterator(DetachedCriteria, SessionFactory, int, boolean)
+	 */
+	public CriteriaIterable(DetachedCriteria criteria, SessionFactory sessionFactory, int bufferSize,
+			boolean keyset){
 		this.criteria = criteria;
 		this.sessionFactory = sessionFactory;
 		this.bufferSize = bufferSize;
+		this.keyset = keyset;
 	}
 	
 	@Override
 	public Iterator<T> iterator() {		
-		return new CriteriaIterator<T>(criteria, sessionFactory, bufferSize);
+		return new CriteriaIterator<T>(criteria, sessionFactory, bufferSize, keyset);
 	}
 	
 }
@@ -21,14 +21,27 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
 import org.hibernate.SessionFactory;
 import org.hibernate.Session;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.engine.spi.TypedValue;
+import org.hibernate.internal.CriteriaImpl;
 
 /**
  * Universal {@link Iterator} that can be used for iteration over any UBY-LMF element.
  *  
  * Needs a Hibernate-Criteria object with predefined selection/filtering settings
+ * <p>
+ * By default, the iterator pages through the results using offsets. In keyset mode,
+ * the results are ordered by the identifier of the iterated element and each page
+ * resumes after the last identifier seen so far. Keyset mode avoids scanning all
+ * previous rows for every page and should be used for iterating over large tables.
+ * Note that the iterator adds its ordering and restriction to the consumed criteria
+ * in keyset mode, so the criteria should not be shared with other iterators.
  * 
  * @author Yevgen Chebotar
  * 
@@ -43,6 +56,9 @@ public class CriteriaIterator<T>  implements Iterator<T> {
 	private int firstResult;	// Current result number
 	private Session session;	// Current hibernate session
 	private SessionFactory sessionFactory; // Hibernate session factory
+	private boolean keyset;		// True if pages are fetched by identifier instead of offset
+	private KeysetRestriction keysetRestriction; // Lower bound for the identifiers of the next page
+	private boolean exhausted;	// True if the last page has been loaded
 	
 	
 	/**
@@ -50,10 +66,22 @@ public class CriteriaIterator<T>  implements Iterator<T> {
 	 * @param bufferSize Max. number of objects to load into memory
 	 */
 	public CriteriaIterator(DetachedCriteria criteria, SessionFactory sessionFactory, int bufferSize){
+		this(criteria, sessionFactory, bufferSize, false);
+	}
+
+	/**
+	 * @param criteria   Criteria which holds selection settings for the iterated element
+	 * @param bufferSize Max. number of objects to load into memory
+	 * @param keyset     If true, pages are fetched ordered by identifier, starting after the
+	 *                   last identifier of the previous page. Otherwise, offset paging is used.
+	 */
+	public CriteriaIterator(DetachedCriteria criteria, SessionFactory sessionFactory, int bufferSize,
+			boolean keyset){
 		this.bufferSize = bufferSize;
 		this.criteria = criteria;	
 		this.sessionFactory = sessionFactory;
 		this.firstResult = 0;		
+		this.keyset = keyset;
 	}
 	
 	@Override
@@ -76,12 +104,31 @@ public class CriteriaIterator<T>  implements Iterator<T> {
 	private boolean fillBuffer(){
 		if(session != null && session.isOpen())
 			session.close();
+		if(exhausted)
+			return false;
 		session = sessionFactory.openSession();		
 		Criteria execCriteria = criteria.getExecutableCriteria(session);
 		
 		@SuppressWarnings("rawtypes")
-		List result = execCriteria.setFirstResult(firstResult)
-			.setMaxResults(bufferSize).list();		
+		List result;
+		if(keyset){
+			if(keysetRestriction == null){
+				String entityName = ((CriteriaImpl) execCriteria).getEntityOrClassName();
+				String idProperty = sessionFactory.getClassMetadata(entityName)
+						.getIdentifierPropertyName();
+				keysetRestriction = new KeysetRestriction(idProperty);
+				execCriteria.add(keysetRestriction).addOrder(Order.asc(idProperty));
+			}
+			result = execCriteria.setMaxResults(bufferSize).list();
+			if(result.size() < bufferSize)
+				exhausted = true;
+			else
+				keysetRestriction.lastValue = session.getIdentifier(result.get(result.size() - 1));
+		}
+		else{
+			result = execCriteria.setFirstResult(firstResult)
+				.setMaxResults(bufferSize).list();		
+		}
 		
 		if(result.size() == 0){
 			if(session != null)
@@ -96,4 +143,44 @@ public class CriteriaIterator<T>  implements Iterator<T> {
 	public void remove() {				
 	}
 	
+	/**
+	 * Restricts the identifier of the iterated element to be greater than the last identifier
+	 * of the previous page. The restriction is attached to the criteria only once and renders
+	 * as a tautology until the first page has been loaded.
+	 */
+	private static class KeysetRestriction implements Criterion {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String propertyName;
+		private Object lastValue;
+
+		KeysetRestriction(String propertyName){
+			this.propertyName = propertyName;
+		}
+
+		@Override
+		public String toSqlString(Criteria criteria, CriteriaQuery criteriaQuery)
+				throws HibernateException {
+			if(lastValue == null)
+				return "1=1";
+			String[] columns = criteriaQuery.getColumnsUsingProjection(criteria, propertyName);
+			return columns[0] + " > ?";
+		}
+
+		@Override
+		public TypedValue[] getTypedValues(Criteria criteria, CriteriaQuery criteriaQuery)
+				throws HibernateException {
+			if(lastValue == null)
+				return new TypedValue[0];
+			return new TypedValue[] {
+					criteriaQuery.getTypedValue(criteria, propertyName, lastValue) };
+		}
+
+		@Override
+		public String toString(){
+			return propertyName + " > " + lastValue;
+		}
+	}
+	
 }
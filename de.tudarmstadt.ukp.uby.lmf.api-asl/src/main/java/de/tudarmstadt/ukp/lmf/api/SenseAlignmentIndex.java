@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.model.multilingual.SenseAxis;
+
+/**
+ * This class represents an in-memory index of all {@link Sense} alignments stored as
+ * {@link SenseAxis} instances in a database.
+ * <p>
+ * Every aligned sense is identified by a dense integer index. The alignments are kept in
+ * compressed sparse row form: the neighbours of the sense with index <code>i</code> are
+ * stored at the positions {@link #getNeighbourStart(int)} (inclusive) to
+ * {@link #getNeighbourEnd(int)} (exclusive) of the neighbour array and can be read by
+ * {@link #getNeighbour(int)}. Following an alignment does neither query the database nor
+ * allocate any objects.
+ * <p>
+ * The index is a snapshot of the database at the time it was built. Alignments are
+ * undirected, the alignment of a sense with itself is stored once.
+ *
+ * @since 0.8.0
+ */
+public class SenseAlignmentIndex
+{
+	private final Map<String, Integer> senseIndices;
+	private final String[] senseIds;
+	private final int[] offsets;
+	private final int[] neighbours;
+
+	private SenseAlignmentIndex(Map<String, Integer> senseIndices, String[] senseIds,
+			int[] offsets, int[] neighbours)
+	{
+		this.senseIndices = senseIndices;
+		this.senseIds = senseIds;
+		this.offsets = offsets;
+		this.neighbours = neighbours;
+	}
+
+	/**
+	 * Builds an index of all sense alignments which are accessible by the consumed
+	 * {@link Session}. The sense axes are read with a single forward-only query.
+	 *
+	 * @param session
+	 *            the session used for reading the {@link SenseAxis} table
+	 *
+	 * @return an index of all alignments between senses
+	 */
+	public static SenseAlignmentIndex build(Session session)
+	{
+		Map<String, Integer> senseIndices = new HashMap<String, Integer>();
+		List<String> senseIds = new ArrayList<String>();
+		int[] sources = new int[1024];
+		int[] targets = new int[1024];
+		int edges = 0;
+
+		ScrollableResults results = session
+				.createSQLQuery("Select senseOneId, senseTwoId from SenseAxis")
+				.setFetchSize(1000).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			while (results.next()) {
+				String senseOne = (String) results.get(0);
+				String senseTwo = (String) results.get(1);
+				if (senseOne == null || senseTwo == null) {
+					continue;
+				}
+				int one = intern(senseOne, senseIndices, senseIds);
+				int two = intern(senseTwo, senseIndices, senseIds);
+				if (edges + 2 > sources.length) {
+					sources = Arrays.copyOf(sources, sources.length * 2);
+					targets = Arrays.copyOf(targets, targets.length * 2);
+				}
+				sources[edges] = one;
+				targets[edges++] = two;
+				if (one != two) {
+					sources[edges] = two;
+					targets[edges++] = one;
+				}
+			}
+		}
+		finally {
+			results.close();
+		}
+
+		// counting sort of the edges by their source
+		int senseCount = senseIds.size();
+		int[] offsets = new int[senseCount + 1];
+		for (int i = 0; i < edges; i++) {
+			offsets[sources[i] + 1]++;
+		}
+		for (int i = 0; i < senseCount; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] neighbours = new int[edges];
+		int[] positions = Arrays.copyOf(offsets, senseCount);
+		for (int i = 0; i < edges; i++) {
+			neighbours[positions[sources[i]]++] = targets[i];
+		}
+
+		return new SenseAlignmentIndex(senseIndices, senseIds.toArray(new String[senseCount]),
+				offsets, neighbours);
+	}
+
+	private static int intern(String senseId, Map<String, Integer> senseIndices,
+			List<String> senseIds)
+	{
+		Integer index = senseIndices.get(senseId);
+		if (index == null) {
+			index = senseIds.size();
+			senseIndices.put(senseId, index);
+			senseIds.add(senseId);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of senses contained in at least one alignment
+	 */
+	public int getSenseCount()
+	{
+		return senseIds.length;
+	}
+
+	/**
+	 * Returns the index of the sense with the consumed identifier.
+	 *
+	 * @param senseId
+	 *            the identifier of a sense
+	 *
+	 * @return the index of the sense or -1 if the sense is not aligned
+	 */
+	public int getSenseIndex(String senseId)
+	{
+		Integer index = senseIndices.get(senseId);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param senseIndex
+	 *            the index of a sense
+	 *
+	 * @return the identifier of the sense with the consumed index
+	 */
+	public String getSenseId(int senseIndex)
+	{
+		return senseIds[senseIndex];
+	}
+
+	/**
+	 * @param senseIndex
+	 *            the index of a sense
+	 *
+	 * @return the position of the first neighbour of the sense
+	 */
+	public int getNeighbourStart(int senseIndex)
+	{
+		return offsets[senseIndex];
+	}
+
+	/**
+	 * @param senseIndex
+	 *            the index of a sense
+	 *
+	 * @return the position after the last neighbour of the sense
+	 */
+	public int getNeighbourEnd(int senseIndex)
+	{
+		return offsets[senseIndex + 1];
+	}
+
+	/**
+	 * @param position
+	 *            a position between {@link #getNeighbourStart(int)} and
+	 *            {@link #getNeighbourEnd(int)} of a sense
+	 *
+	 * @return the index of the aligned sense at the consumed position
+	 */
+	public int getNeighbour(int position)
+	{
+		return neighbours[position];
+	}
+
+	/**
+	 * Returns the identifiers of all senses aligned with the sense with the consumed
+	 * identifier.
+	 *
+	 * @param senseId
+	 *            the identifier of a sense
+	 *
+	 * @return a list of the identifiers of all aligned senses. If the sense is not
+	 *         aligned, this method returns an empty list.
+	 */
+	public List<String> getAlignedSenseIds(String senseId)
+	{
+		int senseIndex = getSenseIndex(senseId);
+		if (senseIndex < 0) {
+			return new ArrayList<String>();
+		}
+		List<String> result = new ArrayList<String>(offsets[senseIndex + 1] - offsets[senseIndex]);
+		for (int i = offsets[senseIndex]; i < offsets[senseIndex + 1]; i++) {
+			result.add(senseIds[neighbours[i]]);
+		}
+		return result;
+	}
+}
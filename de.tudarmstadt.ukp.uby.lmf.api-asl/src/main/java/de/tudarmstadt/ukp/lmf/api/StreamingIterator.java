@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.api;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.internal.CriteriaImpl;
+
+/**
+ * {@link Iterator} that streams UBY-LMF elements from a forward-only database cursor.
+ * <p>
+ * In contrast to {@link CriteriaIterator}, all elements are read by a single query
+ * on one {@link StatelessSession}. A stateless session does not keep loaded elements,
+ * so the memory consumption stays constant while iterating over large tables.
+ * <p>
+ * The returned elements are detached: only their own attributes are initialized,
+ * lazy collections and associations cannot be loaded. The iterator closes its session
+ * as soon as all elements have been read; call {@link #close()} if the iteration
+ * is stopped early.
+ *
+ * @param <T> Class of the object that is iterated
+ */
+@SuppressWarnings("unchecked")
+public class StreamingIterator<T> implements Iterator<T>, Closeable {
+
+	private StatelessSession session;	// Session holding the cursor
+	private ScrollableResults results;	// Forward-only cursor
+	private T nextElement;				// Element to be returned by next()
+
+	/**
+	 * @param criteria       Criteria which holds selection settings for the iterated element
+	 * @param sessionFactory Hibernate session factory
+	 * @param fetchSize      Number of rows fetched by the JDBC driver at once. For MySQL,
+	 *                       {@link Integer#MIN_VALUE} makes the driver stream the results.
+	 */
+	public StreamingIterator(DetachedCriteria criteria, SessionFactory sessionFactory, int fetchSize){
+		session = sessionFactory.openStatelessSession();
+		CriteriaImpl execCriteria = (CriteriaImpl) criteria.getExecutableCriteria(null);
+		execCriteria.setSession((SessionImplementor) session);
+		results = execCriteria.setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(nextElement == null && results != null){
+			if(results.next())
+				nextElement = (T) results.get(0);
+			else
+				close();
+		}
+		return nextElement != null;
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		T result = nextElement;
+		nextElement = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Closes the database cursor and the session of this iterator.
+	 */
+	@Override
+	public void close() {
+		if(results != null){
+			results.close();
+			results = null;
+		}
+		if(session != null){
+			session.close();
+			session = null;
+		}
+		nextElement = null;
+	}
+
+}
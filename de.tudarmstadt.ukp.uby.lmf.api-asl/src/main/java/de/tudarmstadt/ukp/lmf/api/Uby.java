@@ -20,8 +20,12 @@ package de.tudarmstadt.ukp.lmf.api;
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Criteria;
 import org.hibernate.SQLQuery;
@@ -29,11 +33,17 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.service.ServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
 
 import de.tudarmstadt.ukp.lmf.hibernate.HibernateConnect;
+import de.tudarmstadt.ukp.lmf.hibernate.ThreadLocalSessionHandler;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
@@ -41,6 +51,7 @@ import de.tudarmstadt.ukp.lmf.model.core.Sense;
 import de.tudarmstadt.ukp.lmf.model.enums.ELanguageIdentifier;
 import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
 import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
+import de.tudarmstadt.ukp.lmf.model.morphology.FormRepresentation;
 import de.tudarmstadt.ukp.lmf.model.multilingual.PredicateArgumentAxis;
 import de.tudarmstadt.ukp.lmf.model.multilingual.SenseAxis;
 import de.tudarmstadt.ukp.lmf.model.semantics.MonolingualExternalRef;
@@ -72,6 +83,14 @@ public class Uby
 	protected Configuration cfg;
 	protected SessionFactory sessionFactory;
 	protected Session session;
+	protected int iteratorBufferSize = 500;
+	private volatile Boolean caseInsensitive;
+
+	/**
+	 * Maximum number of words looked up by a single query in
+	 * {@link #getLexicalEntries(Collection, EPartOfSpeech, Lexicon)}.
+	 */
+	public static final int LEXICAL_ENTRY_BATCH_SIZE = 500;
 
     /**
      * Constructor for a {@link Uby} instance used for searching of different elements in a database
@@ -94,7 +113,12 @@ public class Uby
 		ServiceRegistryBuilder serviceRegistryBuilder = new ServiceRegistryBuilder()
 				.applySettings(cfg.getProperties());
 		sessionFactory = cfg.buildSessionFactory(serviceRegistryBuilder.buildServiceRegistry());
-		openSession();
+		if (dbConfig.isConcurrent()) {
+			session = ThreadLocalSessionHandler.createSession(sessionFactory);
+		}
+		else {
+			openSession();
+		}
 	}
 
     /**
@@ -152,26 +176,99 @@ public class Uby
 	}
 
     /**
-     * Closes Hibernate database session
+     * Closes Hibernate database session. If concurrent access is enabled in the
+     * {@link DBConfig}, the sessions of all threads are closed.
      *
      * @deprecated marked for deletion
      */
 	@Deprecated
 	public void closeSession()
 	{
-		session.close();
+		ThreadLocalSessionHandler.closeAll(session);
 	}
 
     /**
      * Returns the Hibernate {@link Session} of this {@link Uby} instance.
+     * <p>
+     * If concurrent access is enabled in the {@link DBConfig}, the returned session delegates
+     * to a read-only session of the calling thread.
      *
      * @return the session created by this Uby instance
+     *
+     * @see DBConfig#setConcurrent(boolean)
      */
 	public Session getSession()
 	{
 		return session;
 	}
 
+    /**
+     * Releases all UBY-LMF elements loaded by the calling thread, which become detached from the
+     * database afterwards. This should be called after each unit of work, e.g. a request of a
+     * server, to keep the memory consumption constant.
+     * <p>
+     * If concurrent access is enabled in the {@link DBConfig}, the session of the calling thread
+     * is closed and a new one is opened on the next call. Otherwise, the session is cleared.
+     *
+     * @see DBConfig#setConcurrent(boolean)
+     */
+	public void releaseSession()
+	{
+		if (dbConfig != null && dbConfig.isConcurrent()) {
+			session.close();
+		}
+		else {
+			session.clear();
+		}
+	}
+
+    /**
+     * Returns the Hibernate {@link Statistics} of this {@link Uby} instance. If the second-level
+     * cache or the query cache is enabled in the {@link DBConfig}, the statistics contain the
+     * hit and miss counts of the caches, e.g. {@link Statistics#getSecondLevelCacheHitCount()}
+     * and {@link Statistics#getQueryCacheMissCount()}.
+     *
+     * @return the statistics of the session factory used by this Uby instance
+     *
+     * @see DBConfig#setCacheEnabled(boolean)
+     * @see DBConfig#setQueryCacheEnabled(boolean)
+     */
+	public Statistics getStatistics()
+	{
+		return sessionFactory.getStatistics();
+	}
+
+    /**
+     * Returns the maximum number of elements loaded into memory at once by the iterators
+     * returned from this {@link Uby} instance.
+     *
+     * @return the page size of the iterators created by this Uby instance
+     *
+     * @see #getLexicalEntryIterator(EPartOfSpeech, Lexicon)
+     * @see #getSenseIterator(Lexicon)
+     */
+	public int getIteratorBufferSize()
+	{
+		return iteratorBufferSize;
+	}
+
+    /**
+     * Sets the maximum number of elements loaded into memory at once by the iterators returned
+     * from this {@link Uby} instance. The default value is 500.
+     *
+     * @param iteratorBufferSize
+     *            the page size of the iterators created by this Uby instance
+     * @throws IllegalArgumentException
+     *             if the specified size is not positive
+     */
+	public void setIteratorBufferSize(int iteratorBufferSize) throws IllegalArgumentException
+	{
+		if (iteratorBufferSize <= 0) {
+			throw new IllegalArgumentException("iterator buffer size must be positive");
+		}
+		this.iteratorBufferSize = iteratorBufferSize;
+	}
+
     /**
      * Fetches a {@link LexicalResource} from the UBY-Database by its name.
      *
@@ -217,7 +314,7 @@ public class Uby
      */
     public List<String> getLexiconNames()
     {
-        Criteria criteria = session.createCriteria(Lexicon.class);
+        Criteria criteria = session.createCriteria(Lexicon.class).setCacheable(true);
         criteria = criteria.setProjection(Property.forName("name"));
         @SuppressWarnings("unchecked")
         List<String> result = criteria.list();
@@ -253,7 +350,7 @@ public class Uby
      */
 	public Lexicon getLexiconByName(String lexiconName) throws IllegalArgumentException
 	{
-		Criteria criteria = session.createCriteria(Lexicon.class);
+		Criteria criteria = session.createCriteria(Lexicon.class).setCacheable(true);
 		criteria = criteria.add(Restrictions.eq("name", lexiconName));
 		Lexicon result = (Lexicon) criteria.uniqueResult();
 		if (result==null) {
@@ -276,7 +373,7 @@ public class Uby
      */
 	public Lexicon getLexiconById(String lexiconId) throws IllegalArgumentException
 	{
-		Criteria criteria = session.createCriteria(Lexicon.class);
+		Criteria criteria = session.createCriteria(Lexicon.class).setCacheable(true);
 		criteria = criteria.add(Restrictions.eq("id", lexiconId));
 		Lexicon result = (Lexicon) criteria.uniqueResult();
 		if (result==null) {
@@ -328,7 +425,7 @@ public class Uby
      */
 	public List<LexicalEntry> getLexicalEntries(String word, EPartOfSpeech pos, Lexicon lexicon)
 	{
-		Criteria criteria = session.createCriteria(LexicalEntry.class);
+		Criteria criteria = session.createCriteria(LexicalEntry.class).setCacheable(true);
 		if (pos != null) {
 			criteria = criteria.add(Restrictions.eq("partOfSpeech", pos));
 		}
@@ -351,6 +448,205 @@ public class Uby
 		return result;
 	}
 
+    /**
+     * Fetches the {@link LexicalEntry} instances for each of the specified words at once.
+     * <p>
+     * In contrast to calling {@link #getLexicalEntries(String, EPartOfSpeech, Lexicon)} for every
+     * word, the lexical entries are fetched with one query per {@value #LEXICAL_ENTRY_BATCH_SIZE}
+     * words. The senses of the returned lexical entries are loaded in batches when accessed.
+     *
+     * @param words
+     *            the written representations of the lexical entries to be fetched
+     * @param pos
+     *            the part-of-speech of the lexical entries to be fetched. Set to null in order to
+     *            skip part-of-speech filtering.
+     * @param lexicon
+     *            If not null, filters lexical entries by the specified lexicon. Note that the
+     *            Lexicon instance has to be obtained beforehand.
+     * @return A map from each of the specified words to the list of lexical entries matching the
+     *         specified criteria. Every word is mapped to the same lexical entries as returned by
+     *         {@link #getLexicalEntries(String, EPartOfSpeech, Lexicon)}: if the database compares
+     *         written forms case-insensitively (e.g. the default collation of MySQL), a lexical
+     *         entry is returned for all words differing from its written form only in case. If no
+     *         lexical entry matches a word, the word is mapped to an empty list.
+     *
+     * @see #getLexicalEntries(String, EPartOfSpeech, Lexicon)
+     */
+	public Map<String, List<LexicalEntry>> getLexicalEntries(Collection<String> words,
+			EPartOfSpeech pos, Lexicon lexicon)
+	{
+		Map<String, List<LexicalEntry>> result = new LinkedHashMap<String, List<LexicalEntry>>();
+		for (String word : words) {
+			result.put(word, new ArrayList<LexicalEntry>());
+		}
+
+		List<String> distinctWords = new ArrayList<String>(result.keySet());
+		for (int i = 0; i < distinctWords.size(); i += LEXICAL_ENTRY_BATCH_SIZE) {
+			List<String> batch = distinctWords.subList(i,
+					Math.min(i + LEXICAL_ENTRY_BATCH_SIZE, distinctWords.size()));
+
+			Criteria criteria = session.createCriteria(LexicalEntry.class);
+			if (pos != null) {
+				criteria = criteria.add(Restrictions.eq("partOfSpeech", pos));
+			}
+			if (lexicon != null) {
+				criteria = criteria.add(Restrictions.eq("lexicon", lexicon));
+			}
+			criteria = criteria.createAlias("lemma", "lemma")
+					.createAlias("lemma.formRepresentations", "formRepresentation")
+					.add(Restrictions.in("formRepresentation.writtenForm", batch))
+					.setResultTransformer(Criteria.ALIAS_TO_ENTITY_MAP);
+
+			for (Object row : criteria.list()) {
+				Map<?, ?> aliases = (Map<?, ?>) row;
+				LexicalEntry lexicalEntry = (LexicalEntry) aliases.get(Criteria.ROOT_ALIAS);
+				String writtenForm = ((FormRepresentation) aliases.get("formRepresentation"))
+						.getWrittenForm();
+
+				for (String word : getMatchingWords(writtenForm, batch)) {
+					List<LexicalEntry> lexicalEntries = result.get(word);
+					if (!lexicalEntries.contains(lexicalEntry)) {
+						lexicalEntries.add(lexicalEntry);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the words of the batch which the database considers equal to the specified written
+	 * form, i.e. the words whose single-word query would return a row with this written form.
+	 */
+	private List<String> getMatchingWords(String writtenForm, List<String> batch)
+	{
+		List<String> result = new ArrayList<String>();
+		for (String word : batch) {
+			if (word.equals(writtenForm) || (word.equalsIgnoreCase(writtenForm)
+					&& isCaseInsensitive(word, writtenForm))) {
+				result.add(word);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks once whether the database compares written forms case-insensitively by querying
+	 * an existing written form with a word differing only in case.
+	 */
+	private boolean isCaseInsensitive(String word, String writtenForm)
+	{
+		if (caseInsensitive == null) {
+			Number count = (Number) session.createCriteria(LexicalEntry.class)
+					.createAlias("lemma", "lemma")
+					.createAlias("lemma.formRepresentations", "formRepresentation")
+					.add(Restrictions.eq("formRepresentation.writtenForm", word))
+					.add(Restrictions.eq("formRepresentation.writtenForm", writtenForm))
+					.setProjection(Projections.rowCount())
+					.uniqueResult();
+			caseInsensitive = count.longValue() > 0;
+		}
+		return caseInsensitive;
+	}
+
+    /**
+     * Fetches the most frequent sense of the specified word, i.e. the sense with index 1 of a
+     * {@link LexicalEntry} of the word. In WordNet, this is the most frequent sense in SemCor.
+     * <p>
+     * In contrast to searching the senses of the result of
+     * {@link #getLexicalEntries(String, EPartOfSpeech, Lexicon)}, the sense is fetched with a
+     * single query, without loading the lexical entries and all their senses.
+     *
+     * @param word
+     *            the written representation of the lexical entry
+     * @param pos
+     *            the part-of-speech of the lexical entry. Set to null in order to skip
+     *            part-of-speech filtering.
+     * @param lexicon
+     *            If not null, filters lexical entries by the specified lexicon. Note that the
+     *            Lexicon instance has to be obtained beforehand.
+     * @return the sense with index 1 of a matching lexical entry or null if there is no such
+     *         sense. If several lexical entries match, the sense with the smallest id is
+     *         returned.
+     *
+     * @see #getMostFrequentSenses(Collection, EPartOfSpeech, Lexicon)
+     */
+	public Sense getMostFrequentSense(String word, EPartOfSpeech pos, Lexicon lexicon)
+	{
+		Criteria criteria = createMostFrequentSenseCriteria(pos, lexicon)
+				.add(Restrictions.eq("formRepresentation.writtenForm", word))
+				.setCacheable(true)
+				.setMaxResults(1);
+		return (Sense) criteria.uniqueResult();
+	}
+
+    /**
+     * Fetches the most frequent sense of each of the specified words at once. The senses are
+     * fetched with one query per {@value #LEXICAL_ENTRY_BATCH_SIZE} words.
+     *
+     * @param words
+     *            the written representations of the lexical entries
+     * @param pos
+     *            the part-of-speech of the lexical entries. Set to null in order to skip
+     *            part-of-speech filtering.
+     * @param lexicon
+     *            If not null, filters lexical entries by the specified lexicon. Note that the
+     *            Lexicon instance has to be obtained beforehand.
+     * @return A map from each of the specified words that has a most frequent sense to this
+     *         sense. Words without a sense with index 1 are not contained in the map. As in
+     *         {@link #getMostFrequentSense(String, EPartOfSpeech, Lexicon)}, the sense with the
+     *         smallest id is chosen if several lexical entries match. Words differing only in
+     *         case are matched as in {@link #getLexicalEntries(Collection, EPartOfSpeech, Lexicon)},
+     *         i.e. a sense of "bush" is only returned for "Bush" if the database compares written
+     *         forms case-insensitively.
+     *
+     * @see #getMostFrequentSense(String, EPartOfSpeech, Lexicon)
+     */
+	public Map<String, Sense> getMostFrequentSenses(Collection<String> words,
+			EPartOfSpeech pos, Lexicon lexicon)
+	{
+		Map<String, Sense> result = new LinkedHashMap<String, Sense>();
+		List<String> distinctWords = new ArrayList<String>(new LinkedHashSet<String>(words));
+		for (int i = 0; i < distinctWords.size(); i += LEXICAL_ENTRY_BATCH_SIZE) {
+			List<String> batch = distinctWords.subList(i,
+					Math.min(i + LEXICAL_ENTRY_BATCH_SIZE, distinctWords.size()));
+
+			Criteria criteria = createMostFrequentSenseCriteria(pos, lexicon)
+					.add(Restrictions.in("formRepresentation.writtenForm", batch))
+					.setResultTransformer(Criteria.ALIAS_TO_ENTITY_MAP);
+
+			for (Object row : criteria.list()) {
+				Map<?, ?> aliases = (Map<?, ?>) row;
+				Sense sense = (Sense) aliases.get(Criteria.ROOT_ALIAS);
+				String writtenForm = ((FormRepresentation) aliases.get("formRepresentation"))
+						.getWrittenForm();
+				for (String word : getMatchingWords(writtenForm, batch)) {
+					if (!result.containsKey(word)) {
+						result.put(word, sense);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private Criteria createMostFrequentSenseCriteria(EPartOfSpeech pos, Lexicon lexicon)
+	{
+		Criteria criteria = session.createCriteria(Sense.class)
+				.add(Restrictions.eq("index", 1))
+				.createAlias("lexicalEntry", "lexicalEntry")
+				.createAlias("lexicalEntry.lemma", "lemma")
+				.createAlias("lemma.formRepresentations", "formRepresentation")
+				.addOrder(Order.asc("id"));
+		if (pos != null) {
+			criteria = criteria.add(Restrictions.eq("lexicalEntry.partOfSpeech", pos));
+		}
+		if (lexicon != null) {
+			criteria = criteria.add(Restrictions.eq("lexicalEntry.lexicon", lexicon));
+		}
+		return criteria;
+	}
+
     /**
      * Returns an {@link Iterator} over {@link LexicalEntry} instances which written representation
      * is the specified word.
@@ -400,7 +696,7 @@ public class Uby
 		}
 
 		CriteriaIterator<LexicalEntry> lexEntryIterator = new CriteriaIterator<LexicalEntry>(
-				criteria, sessionFactory, 500);
+				criteria, sessionFactory, iteratorBufferSize, true);
 		return lexEntryIterator;
 	}
 
@@ -414,7 +710,7 @@ public class Uby
 		DetachedCriteria criteria = DetachedCriteria.forClass(SenseAxis.class);
 
 		CriteriaIterator<SenseAxis> senseAxisIterator = new CriteriaIterator<SenseAxis>(
-				criteria, sessionFactory, 500);
+				criteria, sessionFactory, iteratorBufferSize, true);
 		return senseAxisIterator;
 	}
 
@@ -429,7 +725,7 @@ public class Uby
      */
 	public LexicalEntry getLexicalEntryById(String lexicalEntryId)
 			throws IllegalArgumentException {
-		Criteria criteria = session.createCriteria(LexicalEntry.class).add(
+		Criteria criteria = session.createCriteria(LexicalEntry.class).setCacheable(true).add(
 				Restrictions.eq("id", lexicalEntryId));
 		LexicalEntry ret = null;
 		if (criteria.list() != null && criteria.list().size() > 0) {
@@ -493,7 +789,7 @@ public class Uby
      */
 	public List<Lexicon> getLexicons()
 	{
-		Criteria criteria = session.createCriteria(Lexicon.class);
+		Criteria criteria = session.createCriteria(Lexicon.class).setCacheable(true);
 		@SuppressWarnings("unchecked")
 		List<Lexicon> result = criteria.list();
 		if(result == null) {
@@ -550,7 +846,7 @@ public class Uby
 					Restrictions.eq("lexicon", lexicon));
 		}
 		CriteriaIterator<Sense> senseIterator = new CriteriaIterator<Sense>(
-				criteria, sessionFactory, 500);
+				criteria, sessionFactory, iteratorBufferSize, true);
 		return senseIterator;
 	}
 
@@ -572,7 +868,7 @@ public class Uby
 			criteria = criteria.add(Restrictions.eq("lexicon", lexicon));
 		}
 		CriteriaIterator<Synset> synsetIterator = new CriteriaIterator<Synset>(
-				criteria, sessionFactory, 500);
+				criteria, sessionFactory, iteratorBufferSize, true);
 		return synsetIterator;
 	}
 
@@ -710,7 +1006,8 @@ public class Uby
      */
 	public List<SenseAxis> getSenseAxesByIdPattern(String senseAxisId){
 		Criteria criteria= session.createCriteria(SenseAxis.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("senseAxisId like '%"+ senseAxisId+"%'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("senseAxisId like ?",
+				"%" + senseAxisId + "%", StandardBasicTypes.STRING));
 
 		@SuppressWarnings("unchecked")
 		List<SenseAxis> result =  criteria.list();
@@ -765,12 +1062,13 @@ public class Uby
 				&& sense1.getId().length() > 0 && sense2.getId() != null
 				&& sense2.getId().length() > 0) {
 			String sql = "Select senseOneId, senseTwoId from SenseAxis where "
-					+ "(senseOneId='" + sense1.getId() + "' and senseTwoId='"
-					+ sense2.getId() + "')" + "or(senseOneId='"
-					+ sense2.getId() + "' and senseTwoId='" + sense1.getId()
-					+ "')";
+					+ "(senseOneId = :senseOne and senseTwoId = :senseTwo)"
+					+ " or (senseOneId = :senseTwo and senseTwoId = :senseOne)";
 
-			List<?> query = session.createSQLQuery(sql).list();
+			List<?> query = session.createSQLQuery(sql)
+					.setString("senseOne", sense1.getId())
+					.setString("senseTwo", sense2.getId())
+					.list();
 			if (query.size() > 0) {
 				ret = true;
 			}
@@ -792,8 +1090,8 @@ public class Uby
      */
 	public List<Sense> getSensesbyIdPattern(String idPattern) {
 		Criteria criteria = session.createCriteria(Sense.class);
-		criteria = criteria.add(Restrictions.sqlRestriction("senseId like '%"
-				+ idPattern + "%'"));
+		criteria = criteria.add(Restrictions.sqlRestriction("senseId like ?",
+				"%" + idPattern + "%", StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<Sense> result = criteria.list();
 		return result;
@@ -810,7 +1108,7 @@ public class Uby
      */
 	public Sense getSenseById(String senseId)
 			throws IllegalArgumentException {
-		Criteria criteria = session.createCriteria(Sense.class).add(
+		Criteria criteria = session.createCriteria(Sense.class).setCacheable(true).add(
 				Restrictions.eq("id", senseId));
 		List<?> result = criteria.list();
 		if (result.size() < 0) {
@@ -831,7 +1129,7 @@ public class Uby
      *             if a synset with this identifier does not exist
      */
 	public Synset getSynsetById(String synsetId) throws IllegalArgumentException{
-		Criteria criteria = session.createCriteria(Synset.class).add(
+		Criteria criteria = session.createCriteria(Synset.class).setCacheable(true).add(
 				Restrictions.eq("id", synsetId));
 		List<?> result = criteria.list();
 		if (result.size() < 0) {
@@ -865,8 +1163,9 @@ public class Uby
 		/*
 		 * This direct query avoids the joining huge table done by using normal hibernate, while we just need the ID
 		 */
-		String sqlQueryString="SELECT synsetId FROM MonolingualExternalRef WHERE externalReference = '"+refId.trim() +"'";
+		String sqlQueryString="SELECT synsetId FROM MonolingualExternalRef WHERE externalReference = :externalReference";
 		SQLQuery query = session.createSQLQuery(sqlQueryString);
+		query.setString("externalReference", refId.trim());
 		@SuppressWarnings("rawtypes")
 		Iterator iter = query.list().iterator();
 		String ss_id ="";
@@ -875,7 +1174,7 @@ public class Uby
 		}
 
 		Criteria criteria=session.createCriteria(Sense.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("synsetId='"+ss_id.trim()+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("synsetId=?", ss_id.trim(), StandardBasicTypes.STRING));
 		return criteria.list();
 	}
 
@@ -910,7 +1209,7 @@ public class Uby
 
 
 		Criteria criteria=session.createCriteria(Sense.class);
-		criteria=criteria.createCriteria("monolingualExternalRefs").add(Restrictions.sqlRestriction("externalReference='"+refId.trim()+"'"));
+		criteria=criteria.createCriteria("monolingualExternalRefs").add(Restrictions.sqlRestriction("externalReference=?", refId.trim(), StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<Sense> result = criteria.list();
 		return result;
@@ -948,7 +1247,7 @@ public class Uby
 
 		refId=refId+temp[0];
 		Criteria criteria=session.createCriteria(Sense.class);
-		criteria=criteria.createCriteria("synset").createCriteria("monolingualExternalRefs").add(Restrictions.sqlRestriction("externalReference='"+refId.trim()+"'"));
+		criteria=criteria.createCriteria("synset").createCriteria("monolingualExternalRefs").add(Restrictions.sqlRestriction("externalReference=?", refId.trim(), StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<Sense> result = criteria.list();
 		return result;
@@ -1011,15 +1310,16 @@ public class Uby
 		/*
 		 * This direct query avoids the joining huge table done by using normal hibernate, while we just need the ID
 		 */
-		String sqlQueryString="SELECT synsetId FROM MonolingualExternalRef WHERE externalReference = '"+refId.trim() +"'";
+		String sqlQueryString="SELECT synsetId FROM MonolingualExternalRef WHERE externalReference = :externalReference";
 		SQLQuery query = session.createSQLQuery(sqlQueryString);
+		query.setString("externalReference", refId.trim());
 		String ss_id = (String) query.uniqueResult();
 		if(ss_id == null) {
 			return new ArrayList<Sense>(0);
 		}
 
 		Criteria criteria=session.createCriteria(Sense.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("synsetId='"+ss_id.trim()+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("synsetId=?", ss_id.trim(), StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<Sense> result = criteria.list();
 		return result;
@@ -1083,15 +1383,16 @@ public class Uby
 		/*
 		 * This direct query avoids the joining huge table done by using normal hibernate, while we just need the ID
 		 */
-		String sqlQueryString="SELECT senseId FROM MonolingualExternalRef WHERE externalReference = '"+refId.trim() +"'";
+		String sqlQueryString="SELECT senseId FROM MonolingualExternalRef WHERE externalReference = :externalReference";
 		SQLQuery query = session.createSQLQuery(sqlQueryString);
+		query.setString("externalReference", refId.trim());
 		String ss_id = (String) query.uniqueResult();
 		if(ss_id == null) {
 			return null;
 		}
 
 		Criteria criteria=session.createCriteria(Sense.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("senseId='"+ss_id.trim()+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("senseId=?", ss_id.trim(), StandardBasicTypes.STRING));
 
 		Sense result = (Sense) criteria.uniqueResult();
 		return result;
@@ -1140,7 +1441,7 @@ public class Uby
      */
 	public List<SemanticLabel> getSemanticLabelsbySenseId(String senseId){
 		Criteria criteria= session.createCriteria(SemanticLabel.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("senseId='"+ senseId+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("senseId=?", senseId, StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<SemanticLabel> result = criteria.list();
 		return result;
@@ -1162,7 +1463,9 @@ public class Uby
      */
 	public List<SemanticLabel> getSemanticLabelsbySenseIdbyType(String senseId, String type){
 		Criteria criteria= session.createCriteria(SemanticLabel.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("senseId='"+ senseId +"' and type ='"+type+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("senseId=? and type=?",
+				new Object[] { senseId, type },
+				new Type[] { StandardBasicTypes.STRING, StandardBasicTypes.STRING }));
 		@SuppressWarnings("unchecked")
 		List<SemanticLabel> result = criteria.list();
 		return result;
@@ -1177,7 +1480,7 @@ public class Uby
      */
 	public SemanticPredicate getSemanticPredicateById(String predicateId){
 		Criteria criteria = session.createCriteria(SemanticPredicate.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("semanticPredicateId='"+predicateId+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("semanticPredicateId=?", predicateId, StandardBasicTypes.STRING));
 		return (SemanticPredicate) criteria.uniqueResult();
 
 	}
@@ -1227,8 +1530,8 @@ public class Uby
 		Criteria criteria = session.createCriteria(SemanticPredicate.class);
 		if (lexicon != null) {
 			String lexId = lexicon.getId();
-			criteria = criteria.add(Restrictions.sqlRestriction("lexiconId='"
-					+ lexId + "'"));
+			criteria = criteria.add(Restrictions.sqlRestriction("lexiconId=?",
+					lexId, StandardBasicTypes.STRING));
 		}
 		@SuppressWarnings("unchecked")
 		List<SemanticPredicate> result = criteria.list();
@@ -1253,14 +1556,135 @@ public class Uby
 		DetachedCriteria criteria = DetachedCriteria.forClass(SemanticPredicate.class);
 		if (lexicon != null) {
 			String lexId = lexicon.getId();
-			criteria = criteria.add(Restrictions.sqlRestriction("lexiconId='"
-					+ lexId + "'"));
+			criteria = criteria.add(Restrictions.sqlRestriction("lexiconId=?",
+					lexId, StandardBasicTypes.STRING));
 		}
 		CriteriaIterator<SemanticPredicate> predicateIterator = new CriteriaIterator<SemanticPredicate>(
-				criteria, sessionFactory, 500);
+				criteria, sessionFactory, iteratorBufferSize, true);
 		return predicateIterator;
 	}
 
+	/**
+	 * Returns a {@link StreamingIterator} over {@link LexicalEntry} instances, optionally
+	 * filtered by part-of-speech and {@link Lexicon}.
+	 * <p>
+	 * The lexical entries are read with a single forward-only query, so that memory
+	 * consumption stays constant while scanning all lexical entries. The returned
+	 * lexical entries are detached, i.e. their lemmas, senses and other associated
+	 * elements are not available.
+	 *
+	 * @param pos
+	 *            If not null, filters lexical entries by the specified part-of-speech
+	 * @param lexicon
+	 *            If not null, filters lexical entries by the specified lexicon
+	 * @return a streaming iterator over lexical entries matching the specified criteria
+	 *
+	 * @see #getLexicalEntryIterator(EPartOfSpeech, Lexicon)
+	 */
+	public StreamingIterator<LexicalEntry> getLexicalEntryStreamingIterator(EPartOfSpeech pos,
+			Lexicon lexicon)
+	{
+		DetachedCriteria criteria = DetachedCriteria.forClass(LexicalEntry.class);
+		if (pos != null) {
+			criteria = criteria.add(Restrictions.eq("partOfSpeech", pos));
+		}
+		if (lexicon != null) {
+			criteria = criteria.add(Restrictions.eq("lexicon.id", lexicon.getId()));
+		}
+		return new StreamingIterator<LexicalEntry>(criteria, sessionFactory, getStreamingFetchSize());
+	}
+
+	/**
+	 * Returns a {@link StreamingIterator} over {@link Sense} instances, optionally filtered by
+	 * {@link Lexicon}. The returned senses are detached.
+	 *
+	 * @param lexicon
+	 *            If not null, senses are filtered by the given lexicon
+	 * @return a streaming iterator over all senses filtered by the given lexicon if not null
+	 *
+	 * @see #getSenseIterator(Lexicon)
+	 * @see #getLexicalEntryStreamingIterator(EPartOfSpeech, Lexicon)
+	 */
+	public StreamingIterator<Sense> getSenseStreamingIterator(Lexicon lexicon)
+	{
+		DetachedCriteria criteria = DetachedCriteria.forClass(Sense.class);
+		if (lexicon != null) {
+			criteria = criteria.createCriteria("lexicalEntry").add(
+					Restrictions.eq("lexicon.id", lexicon.getId()));
+		}
+		return new StreamingIterator<Sense>(criteria, sessionFactory, getStreamingFetchSize());
+	}
+
+	/**
+	 * Returns a {@link StreamingIterator} over {@link Synset} instances, optionally filtered by
+	 * {@link Lexicon}. The returned synsets are detached.
+	 *
+	 * @param lexicon
+	 *            If not null, synsets are filtered by the given lexicon
+	 * @return a streaming iterator over all synsets filtered by the given lexicon if not null
+	 *
+	 * @see #getSynsetIterator(Lexicon)
+	 * @see #getLexicalEntryStreamingIterator(EPartOfSpeech, Lexicon)
+	 */
+	public StreamingIterator<Synset> getSynsetStreamingIterator(Lexicon lexicon)
+	{
+		DetachedCriteria criteria = DetachedCriteria.forClass(Synset.class);
+		if (lexicon != null) {
+			criteria = criteria.add(Restrictions.eq("lexicon.id", lexicon.getId()));
+		}
+		return new StreamingIterator<Synset>(criteria, sessionFactory, getStreamingFetchSize());
+	}
+
+	/**
+	 * Returns a {@link StreamingIterator} over all {@link SenseAxis} instances. The returned
+	 * sense axes are detached.
+	 *
+	 * @return a streaming iterator over all sense axes
+	 *
+	 * @see #getSenseAxisIterator()
+	 * @see #getLexicalEntryStreamingIterator(EPartOfSpeech, Lexicon)
+	 */
+	public StreamingIterator<SenseAxis> getSenseAxisStreamingIterator()
+	{
+		DetachedCriteria criteria = DetachedCriteria.forClass(SenseAxis.class);
+		return new StreamingIterator<SenseAxis>(criteria, sessionFactory, getStreamingFetchSize());
+	}
+
+	/**
+	 * Returns a {@link StreamingIterator} over {@link SemanticPredicate} instances, optionally
+	 * filtered by {@link Lexicon}. The returned semantic predicates are detached.
+	 *
+	 * @param lexicon
+	 *            If not null, semantic predicates are filtered by the given lexicon
+	 * @return a streaming iterator over all semantic predicates filtered by the given lexicon
+	 *         if not null
+	 *
+	 * @see #getSemanticPredicateIterator(Lexicon)
+	 * @see #getLexicalEntryStreamingIterator(EPartOfSpeech, Lexicon)
+	 */
+	public StreamingIterator<SemanticPredicate> getSemanticPredicateStreamingIterator(
+			Lexicon lexicon)
+	{
+		DetachedCriteria criteria = DetachedCriteria.forClass(SemanticPredicate.class);
+		if (lexicon != null) {
+			criteria = criteria.add(Restrictions.eq("lexicon.id", lexicon.getId()));
+		}
+		return new StreamingIterator<SemanticPredicate>(criteria, sessionFactory,
+				getStreamingFetchSize());
+	}
+
+	/**
+	 * Returns the JDBC fetch size used by streaming iterators. MySQL only streams result sets
+	 * if the fetch size is set to {@link Integer#MIN_VALUE}.
+	 */
+	private int getStreamingFetchSize()
+	{
+		if (dbConfig != null && DBConfig.MYSQL.equals(dbConfig.getDBType())) {
+			return Integer.MIN_VALUE;
+		}
+		return 1000;
+	}
+
     /**
      * Returns the {@link SemanticArgument} instance with the specified unique identifier.
      *
@@ -1274,7 +1698,7 @@ public class Uby
      */
 	public SemanticArgument getSemanticArgumentById(String argumentId){
 		Criteria criteria = session.createCriteria(SemanticArgument.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("semanticArgumentId='"+argumentId+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("semanticArgumentId=?", argumentId, StandardBasicTypes.STRING));
 		return (SemanticArgument) criteria.uniqueResult();
 	}
 
@@ -1342,7 +1766,7 @@ public class Uby
 	public List<SemanticPredicate> getSemanticPredicatesBySenseId(
 			String senseId) {
 		Criteria criteria= session.createCriteria(PredicativeRepresentation.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("senseId='"+ senseId+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("senseId=?", senseId, StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<PredicativeRepresentation> representations = criteria.list();
 		List<SemanticPredicate> result = new ArrayList<>();
@@ -1362,7 +1786,7 @@ public class Uby
 	public List<Sense> getSensesBySemanticPredicateId(
 			String semanticPredicateId) {
 		Criteria criteria= session.createCriteria(PredicativeRepresentation.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("predicate='"+ semanticPredicateId+"'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("predicate=?", semanticPredicateId, StandardBasicTypes.STRING));
 		@SuppressWarnings("unchecked")
 		List<PredicativeRepresentation> representations = criteria.list();
 		List<Sense> result = new ArrayList<>();
@@ -1405,7 +1829,8 @@ public class Uby
      */
 	public List<PredicateArgumentAxis> getPredicateArgumentAxesByIdPattern(String axisId){
 		Criteria criteria= session.createCriteria(PredicateArgumentAxis.class);
-		criteria=criteria.add(Restrictions.sqlRestriction("predicateArgumentAxisId like '%"+ axisId+"%'"));
+		criteria=criteria.add(Restrictions.sqlRestriction("predicateArgumentAxisId like ?",
+				"%" + axisId + "%", StandardBasicTypes.STRING));
 
 		@SuppressWarnings("unchecked")
 		List<PredicateArgumentAxis> result =  criteria.list();
@@ -1460,12 +1885,13 @@ public class Uby
 				&& pred1.getId().length() > 0 && pred2.getId() != null
 				&& pred2.getId().length() > 0) {
 			String sql = "Select semanticPredicateOne, semanticPredicateTwo from PredicateArgumentAxis where "
-					+ "(semanticPredicateOne='" + pred1.getId() + "' and semanticPredicateTwo='"
-					+ pred2.getId() + "')" + "or(semanticPredicateOne='"
-					+ pred2.getId() + "' and semanticPredicateTwo='" + pred1.getId()
-					+ "')";
+					+ "(semanticPredicateOne = :predicateOne and semanticPredicateTwo = :predicateTwo)"
+					+ " or (semanticPredicateOne = :predicateTwo and semanticPredicateTwo = :predicateOne)";
 
-			List<?> query = session.createSQLQuery(sql).list();
+			List<?> query = session.createSQLQuery(sql)
+					.setString("predicateOne", pred1.getId())
+					.setString("predicateTwo", pred2.getId())
+					.list();
 			if (query.size() > 0) {
 				ret = true;
 			}
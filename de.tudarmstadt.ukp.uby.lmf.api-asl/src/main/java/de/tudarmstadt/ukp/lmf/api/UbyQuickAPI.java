@@ -20,8 +20,12 @@ package de.tudarmstadt.ukp.lmf.api;
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
@@ -48,6 +52,16 @@ import de.tudarmstadt.ukp.lmf.transform.DBConfig;
  */
 public class UbyQuickAPI extends Uby
 {
+	/**
+	 * Maximum number of identifiers bound to a single IN list.
+	 */
+	protected static final int IN_LIST_CHUNK_SIZE = 100;
+
+	private static final String ALIGNED_SENSES_SQL = "Select senseOneId, senseTwoId from SenseAxis"
+			+ " where senseOneId = :senseId or senseTwoId = :senseId";
+
+	private SenseAlignmentIndex alignmentIndex;
+
     /**
      * Using this constructor, you have to call setDbConfig before using any method.
      * 
@@ -164,6 +178,32 @@ public class UbyQuickAPI extends Uby
 		return lexicons;
 	}
 
+	/**
+	 * Reads all {@link SenseAxis} instances of the database into an in-memory
+	 * {@link SenseAlignmentIndex}. Afterwards, {@link #alignedSenseIDs(Sense)} and
+	 * {@link #alignedSenseIDs(String)} are answered from the index without accessing
+	 * the database. Alignments added to the database later on are not visible until
+	 * this method is called again.
+	 *
+	 * @return the loaded index of all alignments between senses
+	 *
+	 * @since 0.8.0
+	 */
+	public SenseAlignmentIndex loadAlignmentIndex() {
+		alignmentIndex = SenseAlignmentIndex.build(session);
+		return alignmentIndex;
+	}
+
+	/**
+	 * @return the alignment index loaded by {@link #loadAlignmentIndex()} or null if
+	 *         no index has been loaded
+	 *
+	 * @since 0.8.0
+	 */
+	public SenseAlignmentIndex getAlignmentIndex() {
+		return alignmentIndex;
+	}
+
 	/**
 	 * This method fetches a {@link List} of all identifiers of {@link Sense}
 	 * instances which are aligned by a {@link SenseAxis} with the specified
@@ -189,13 +229,13 @@ public class UbyQuickAPI extends Uby
 		List<String> list = new ArrayList<String>();
 
 		String id = sense.getId();
+		if (alignmentIndex != null && id != null) {
+			return alignmentIndex.getAlignedSenseIds(id);
+		}
 		if (id != null && !id.equals("")) {
-			// Select senseOneId, senseTwoId from SenseAxis where
-			// senseOneId='WN_Sense_100' or senseTwoId='WN_Sense_100'
-			String sql = "Select senseOneId, senseTwoId from SenseAxis where senseOneId='"
-					+ id + "' or senseTwoId='" + id + "'";
 			// use Hibernate query
-			SQLQuery query = session.createSQLQuery(sql);
+			SQLQuery query = session.createSQLQuery(ALIGNED_SENSES_SQL);
+			query.setString("senseId", id);
 
 			@SuppressWarnings("rawtypes")
 			Iterator iter = query.list().iterator();
@@ -203,7 +243,7 @@ public class UbyQuickAPI extends Uby
 				Object[] row = (Object[]) iter.next();
 				String sense1 = (String) row[0];
 				String sense2 = (String) row[1];
-				if (sense1.matches(id)) {
+				if (sense1.equals(id)) {
 					list.add(sense2);
 				} else {
 					list.add(sense1);
@@ -237,21 +277,21 @@ public class UbyQuickAPI extends Uby
 	 *
 	 */
 	public List<String> alignedSenseIDs(String senseId) {
+		if (alignmentIndex != null && senseId != null) {
+			return alignmentIndex.getAlignedSenseIds(senseId);
+		}
 		List<String> list = new ArrayList<String>();
 		if (senseId != null && !senseId.equals("")) {
-			// Select senseOneId, senseTwoId from SenseAxis where
-			// senseOneId='WN_Sense_100' or senseTwoId='WN_Sense_100'
-			String sql = "Select senseOneId, senseTwoId from SenseAxis where senseOneId='"
-					+ senseId + "' or senseTwoId='" + senseId + "'";
 			@SuppressWarnings("rawtypes")
-			List query = session.createSQLQuery(sql).list();
+			List query = session.createSQLQuery(ALIGNED_SENSES_SQL)
+					.setString("senseId", senseId).list();
 			@SuppressWarnings("rawtypes")
 			Iterator iter = query.iterator();
 			while (iter.hasNext()) {
 				Object[] row = (Object[]) iter.next();
 				String sense1 = (String) row[0];
 				String sense2 = (String) row[1];
-				if (sense1.matches(senseId)) {
+				if (sense1.equals(senseId)) {
 					list.add(sense2);
 				} else {
 					list.add(sense1);
@@ -288,29 +328,16 @@ public class UbyQuickAPI extends Uby
 	 * 
 	 */
 	public List<SenseAxis> lightSenseAxes(List<Sense> listSense) {
-		String list = "";
 		List<SenseAxis> senseAxes = new ArrayList<SenseAxis>();
 
+		Map<String, Sense> senses = new HashMap<String, Sense>();
 		for (Sense sense : listSense) {
-			list += "'" + sense.getId() + "',";
-		}
-		if (list.endsWith(",")) {
-			list = list.substring(0, list.length() - 1);
+			senses.put(sense.getId(), sense);
 		}
-		String sql = "Select senseOneId,senseTwoId from SenseAxis where senseOneId in ("
-				+ list + ") and senseTwoId in (" + list + ")";
-
-		Query query = session.createSQLQuery(sql);
-		Iterator<?> iter = query.list().iterator();
-		while (iter.hasNext()) {
-			Object[] rows = (Object[]) iter.next();
-
+		for (Object[] rows : senseAxisIDs(senses.keySet())) {
 			SenseAxis sa = new SenseAxis();
-			Sense sense1 = getSenseFromList(listSense, (String) rows[0]);
-			Sense sense2 = getSenseFromList(listSense, (String) rows[1]);
-			sa.setSenseOne(sense1);
-			sa.setSenseTwo(sense2);
-
+			sa.setSenseOne(senses.get(rows[0]));
+			sa.setSenseTwo(senses.get(rows[1]));
 			senseAxes.add(sa);
 		}
 		return senseAxes;
@@ -341,22 +368,9 @@ public class UbyQuickAPI extends Uby
 	 * @see #lightSenseAxes(List)
 	 */
 	public List<SenseAxis> lightSenseAxesBySenseIDs(List<String> listSenseId) {
-		String list = "";
 		List<SenseAxis> senseAxes = new ArrayList<SenseAxis>();
 
-		for (String senseId : listSenseId) {
-			list += "'" + senseId + "',";
-		}
-		if (list.endsWith(",")) {
-			list = list.substring(0, list.length() - 1);
-		}
-		String sql = "Select senseOneId,senseTwoId from SenseAxis where senseOneId in ("
-				+ list + ") and senseTwoId in (" + list + ")";
-
-		Query query = session.createSQLQuery(sql);
-		Iterator<?> iter = query.list().iterator();
-		while (iter.hasNext()) {
-			Object[] rows = (Object[]) iter.next();
+		for (Object[] rows : senseAxisIDs(new HashSet<String>(listSenseId))) {
 			SenseAxis sa = new SenseAxis();
 			Sense sense1 = new Sense();
 			Sense sense2 = new Sense();
@@ -369,6 +383,45 @@ public class UbyQuickAPI extends Uby
 		return senseAxes;
 	}
 	
+	/**
+	 * Returns the identifiers of both senses of all {@link SenseAxis} instances
+	 * which align two senses from the consumed set of identifiers.
+	 * <p>
+	 * The sense axes are fetched by one prepared query per chunk of
+	 * {@value #IN_LIST_CHUNK_SIZE} identifiers. Every chunk is padded to the
+	 * same size, so that the database can reuse the statement for all chunks.
+	 *
+	 * @param senseIds
+	 *            the identifiers of the senses to be aligned
+	 *
+	 * @return a list of pairs of sense identifiers, one pair per sense axis
+	 */
+	protected List<Object[]> senseAxisIDs(Set<String> senseIds) {
+		List<Object[]> result = new ArrayList<Object[]>();
+		List<String> ids = new ArrayList<String>(senseIds);
+		for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK_SIZE) {
+			List<String> chunk = new ArrayList<String>(ids.subList(i,
+					Math.min(i + IN_LIST_CHUNK_SIZE, ids.size())));
+			String padding = chunk.get(chunk.size() - 1);
+			while (chunk.size() < IN_LIST_CHUNK_SIZE) {
+				chunk.add(padding);
+			}
+
+			// The second sense may be in another chunk, so filter it here
+			Query query = session.createSQLQuery(
+					"Select senseOneId,senseTwoId from SenseAxis where senseOneId in (:senseIds)")
+					.setParameterList("senseIds", chunk);
+			Iterator<?> iter = query.list().iterator();
+			while (iter.hasNext()) {
+				Object[] rows = (Object[]) iter.next();
+				if (senseIds.contains(rows[1])) {
+					result.add(rows);
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Consumes a {@link List} of {@link Sense} instances and a {@link String}
 	 * representing the unique identifier of a sense. It returns the sense from
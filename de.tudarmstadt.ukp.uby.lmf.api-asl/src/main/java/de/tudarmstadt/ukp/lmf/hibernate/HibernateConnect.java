@@ -20,12 +20,16 @@ package de.tudarmstadt.ukp.lmf.hibernate;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Properties;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.PersistentClass;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 
@@ -75,9 +79,75 @@ public class HibernateConnect
 			e.printStackTrace();
 		}
 
+		cfg.setProperty("hibernate.c3p0.min_size", String.valueOf(dbConfig.getMinPoolSize()));
+		cfg.setProperty("hibernate.c3p0.max_size", String.valueOf(dbConfig.getMaxPoolSize()));
+		cfg.setProperty("hibernate.c3p0.max_statements", String.valueOf(dbConfig.getMaxStatements()));
+		cfg.setProperty("hibernate.jdbc.batch_size", String.valueOf(dbConfig.getBatchSize()));
+		if (dbConfig.getFetchSize() > 0) {
+			cfg.setProperty("hibernate.jdbc.fetch_size", String.valueOf(dbConfig.getFetchSize()));
+		}
+		if (dbConfig.isBulkLoad()) {
+			Dialect dialect = Dialect.getDialect(cfg.getProperties());
+			if (dialect instanceof UBYDialect) {
+				cfg.setProperty("hibernate.connection.url", ((UBYDialect) dialect)
+						.getBulkLoadURL(cfg.getProperty("hibernate.connection.url")));
+			}
+		}
+		if (dbConfig.isConcurrent()) {
+			// Return connections to the pool, so that they can be shared by all threads
+			cfg.setProperty("hibernate.connection.release_mode", "after_statement");
+			if (dbConfig.getMaxPoolSize() < 2) {
+				logger.warn("Concurrent access with a single pooled connection, threads will "
+						+ "wait for each other. Increase the maximum pool size of the DBConfig.");
+			}
+		}
+
+		if (dbConfig.isCacheEnabled() || dbConfig.isQueryCacheEnabled()) {
+			configureCache(cfg, dbConfig);
+		}
+
 		return cfg;
 	}
 
+    /**
+     * Configures the second-level and query cache of the consumed Hibernate {@link Configuration}
+     * as specified by the {@link DBConfig}. If the second-level cache is enabled, all entities and
+     * collections are cached read-only.
+     *
+     * @param cfg
+     *            the Hibernate Configuration with all mappings added
+     * @param dbConfig
+     *            database configuration holder
+     */
+    private static void configureCache(Configuration cfg, DBConfig dbConfig)
+    {
+        cfg.setProperty("hibernate.cache.region.factory_class", dbConfig.getCacheRegionFactory());
+        cfg.setProperty("net.sf.ehcache.configurationResourceName",
+                dbConfig.getCacheConfiguration());
+        cfg.setProperty("hibernate.cache.use_second_level_cache",
+                String.valueOf(dbConfig.isCacheEnabled()));
+        cfg.setProperty("hibernate.cache.use_query_cache",
+                String.valueOf(dbConfig.isQueryCacheEnabled()));
+        cfg.setProperty("hibernate.generate_statistics", "true");
+
+        if (dbConfig.isCacheEnabled()) {
+            cfg.buildMappings();
+            Iterator<PersistentClass> classes = cfg.getClassMappings();
+            while (classes.hasNext()) {
+                PersistentClass persistentClass = classes.next();
+                if (persistentClass.isInherited()) {
+                    continue;
+                }
+                cfg.setCacheConcurrencyStrategy(persistentClass.getEntityName(), "read-only");
+            }
+            Iterator<Collection> collections = cfg.getCollectionMappings();
+            while (collections.hasNext()) {
+                cfg.setCollectionCacheConcurrencyStrategy(collections.next().getRole(),
+                        "read-only");
+            }
+        }
+    }
+
 
     /**
      * This method creates and returns Hibernate Properties.
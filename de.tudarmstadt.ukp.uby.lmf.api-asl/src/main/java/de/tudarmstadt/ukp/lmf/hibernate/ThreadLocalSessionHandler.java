@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.hibernate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+
+/**
+ * This class provides a {@link Session} which can be shared by multiple threads. Every call
+ * is delegated to a read-only session of the calling thread, which is opened on first use.
+ * <p>
+ * Closing the shared session only closes the session of the calling thread. The next call of
+ * this thread opens a new session. Use {@link #closeAll(Session)} to close the sessions of all
+ * threads.
+ * <p>
+ * The shared session also implements {@link SessionImplementor}, so it can be passed to code
+ * which casts the session, e.g. {@code DetachedCriteria.getExecutableCriteria(Session)}.
+ */
+public class ThreadLocalSessionHandler implements InvocationHandler
+{
+	private final SessionFactory sessionFactory;
+	private final ThreadLocal<Session> sessions = new ThreadLocal<Session>();
+	private final Set<Session> openSessions =
+			Collections.newSetFromMap(new ConcurrentHashMap<Session, Boolean>());
+
+	private ThreadLocalSessionHandler(SessionFactory sessionFactory)
+	{
+		this.sessionFactory = sessionFactory;
+	}
+
+    /**
+     * Creates a {@link Session} delegating to a session of the calling thread.
+     *
+     * @param sessionFactory
+     *            the session factory used to open the sessions of the threads
+     *
+     * @return a session which can be shared by multiple threads
+     */
+	public static Session createSession(SessionFactory sessionFactory)
+	{
+		return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+				new Class<?>[] { Session.class, SessionImplementor.class },
+				new ThreadLocalSessionHandler(sessionFactory));
+	}
+
+    /**
+     * Closes the sessions of all threads which used the given session. If the session was not
+     * created by {@link #createSession(SessionFactory)}, it is simply closed.
+     *
+     * @param session
+     *            the session to close
+     */
+	public static void closeAll(Session session)
+	{
+		if (Proxy.isProxyClass(session.getClass())
+				&& Proxy.getInvocationHandler(session) instanceof ThreadLocalSessionHandler) {
+			((ThreadLocalSessionHandler) Proxy.getInvocationHandler(session)).closeAll();
+		}
+		else if (session.isOpen()) {
+			session.close();
+		}
+	}
+
+	private void closeAll()
+	{
+		sessions.remove();
+		List<Session> toClose = new ArrayList<Session>(openSessions);
+		openSessions.removeAll(toClose);
+		for (Session session : toClose) {
+			if (session.isOpen()) {
+				session.close();
+			}
+		}
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+		throws Throwable
+	{
+		String methodName = method.getName();
+		boolean noArgs = args == null || args.length == 0;
+		if (methodName.equals("equals") && args != null && args.length == 1) {
+			return proxy == args[0];
+		}
+		else if (methodName.equals("hashCode") && noArgs) {
+			return System.identityHashCode(proxy);
+		}
+		else if (methodName.equals("toString") && noArgs) {
+			return "ThreadLocalSession(" + sessions.get() + ")";
+		}
+		else if (methodName.equals("close") && noArgs) {
+			Session session = sessions.get();
+			sessions.remove();
+			if (session != null) {
+				openSessions.remove(session);
+			}
+			if (session != null && session.isOpen()) {
+				return session.close();
+			}
+			return null;
+		}
+
+		Session session = sessions.get();
+		if (session == null || !session.isOpen()) {
+			session = sessionFactory.openSession();
+			session.setDefaultReadOnly(true);
+			sessions.set(session);
+			openSessions.add(session);
+		}
+		try {
+			return method.invoke(session, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.hibernate;
+
+/**
+ * Settings shared by the Hibernate dialects of UBY.
+ */
+public interface UBYDialect {
+
+	/**
+	 * Returns the number of identifiers that {@link UBYIdGenerator} reserves at once
+	 * in the shared identifier table. Several processes can write to the same database
+	 * at the same time, each of them using its own blocks of identifiers.
+	 * <p>
+	 * If the size is zero or negative, the identifiers are generated as
+	 * <code>max(id)+1</code> by the generating process, which does not allow
+	 * concurrent imports.
+	 *
+	 * @return the number of identifiers reserved at once
+	 */
+	int getIdBlockSize();
+
+	/**
+	 * Returns the given JDBC URL extended by settings that speed up loading large amounts
+	 * of data into a newly created database, e.g., by relaxing integrity checks. The
+	 * settings are only applied in bulk-load mode.
+	 *
+	 * @param url the JDBC URL of the database
+	 * @return the JDBC URL for importing data
+	 * @see de.tudarmstadt.ukp.lmf.transform.DBConfig#setBulkLoad(boolean)
+	 */
+	String getBulkLoadURL(String url);
+
+}
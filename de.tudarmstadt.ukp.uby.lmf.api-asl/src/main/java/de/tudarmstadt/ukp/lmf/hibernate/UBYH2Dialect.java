@@ -25,7 +25,19 @@ import org.hibernate.dialect.H2Dialect;
  * VARCHAR(maxint). This is necessary since Hibernate's schema validator
  * fails for fields typed "text" otherwise.
  */
-public class UBYH2Dialect extends H2Dialect {
+public class UBYH2Dialect extends H2Dialect implements UBYDialect {
+	
+	@Override
+	public int getIdBlockSize() {
+		return 100;
+	}
+	
+	/** Disables the undo log of the connections. A failed import can 
+	 *  therefore not be rolled back. */
+	@Override
+	public String getBulkLoadURL(String url) {
+		return url + ";UNDO_LOG=0";
+	}
 	
 	@Override
 	public String getTypeName(int code, long length, int precision, int scale)
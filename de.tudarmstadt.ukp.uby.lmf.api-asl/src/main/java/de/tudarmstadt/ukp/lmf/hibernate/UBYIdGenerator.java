@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.hibernate;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IncrementGenerator;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.type.Type;
+
+/**
+ * Generates the numeric identifiers of UBY-LMF elements without an own identifier, e.g.
+ * FormRepresentations. In contrast to Hibernate's <code>increment</code> generator,
+ * several processes can import into the same database at the same time.
+ * <p>
+ * Each process reserves blocks of identifiers per table in the shared table
+ * {@value #BLOCK_TABLE} and assigns them without accessing the database. The size of
+ * the blocks is taken from the {@link UBYDialect}. For other dialects, or if the size
+ * is not positive, the identifiers are generated by Hibernate's {@link IncrementGenerator}.
+ * <p>
+ * The first block of a table starts after the largest identifier of the table, so the
+ * generator can be used for databases created with the <code>increment</code> generator.
+ */
+public class UBYIdGenerator implements PersistentIdentifierGenerator, Configurable {
+
+	/** Name of the table holding the next free identifier of each table. */
+	public static final String BLOCK_TABLE = "UBY_ID_BLOCKS";
+
+	private static final int MAX_ATTEMPTS = 10;
+
+	private IncrementGenerator incrementGenerator;
+	private Class<?> returnedClass;
+	private String table;
+	private String column;
+	private int blockSize;
+	private String createTableSql;
+
+	private boolean tableCreated;
+	private long nextId;
+	private long blockEnd;
+
+	@Override
+	public void configure(Type type, Properties params, Dialect dialect)
+		throws MappingException {
+		blockSize = dialect instanceof UBYDialect ? ((UBYDialect) dialect).getIdBlockSize() : 0;
+		if (blockSize <= 0) {
+			incrementGenerator = new IncrementGenerator();
+			incrementGenerator.configure(type, params, dialect);
+			return;
+		}
+		returnedClass = type.getReturnedClass();
+		table = params.getProperty(TABLE);
+		column = params.getProperty(PK);
+		createTableSql = dialect.getCreateTableString() + " if not exists " + BLOCK_TABLE
+				+ createTableColumns(dialect);
+	}
+
+	@Override
+	public synchronized Serializable generate(SessionImplementor session, Object object)
+		throws HibernateException {
+		if (incrementGenerator != null) {
+			return incrementGenerator.generate(session, object);
+		}
+		if (nextId >= blockEnd) {
+			nextId = reserveBlock(session);
+			blockEnd = nextId + blockSize;
+		}
+		IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnedClass);
+		return value.initialize(nextId++).makeValue();
+	}
+
+	/** Reserves the next block of identifiers in a separate transaction and returns
+	 *  its first identifier. */
+	private long reserveBlock(SessionImplementor session) {
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			try {
+				Long start = session.getTransactionCoordinator().getTransaction()
+						.createIsolationDelegate().delegateWork(new AbstractReturningWork<Long>() {
+					@Override
+					public Long execute(Connection connection) throws SQLException {
+						return reserveBlock(connection);
+					}
+				}, true);
+				if (start != null) {
+					return start;
+				}
+			}
+			catch (HibernateException e) {
+				// Another process created the row of the table at the same time
+				if (attempt == MAX_ATTEMPTS) {
+					throw e;
+				}
+			}
+		}
+		throw new HibernateException("Unable to reserve identifiers for " + table);
+	}
+
+	/**
+	 * Reserves the given number of consecutive identifiers of a table in the shared table
+	 * {@value #BLOCK_TABLE}, e.g. for rows which are inserted without Hibernate. The
+	 * identifiers are not assigned by any generator afterwards. For other dialects, or if the
+	 * block size of the dialect is not positive, the identifiers following the largest
+	 * identifier of the table are returned without reserving them.
+	 *
+	 * @param connection
+	 *            the connection to the database
+	 * @param dialect
+	 *            the dialect of the database
+	 * @param table
+	 *            the table whose identifiers are reserved
+	 * @param column
+	 *            the identifier column of the table
+	 * @param count
+	 *            the number of identifiers to reserve
+	 * @return the first reserved identifier
+	 * @throws SQLException
+	 *             if the identifiers cannot be reserved
+	 */
+	public static long reserveIds(Connection connection, Dialect dialect, String table,
+			String column, long count) throws SQLException {
+		if (!(dialect instanceof UBYDialect) || ((UBYDialect) dialect).getIdBlockSize() <= 0) {
+			return maxId(connection, table, column) + 1;
+		}
+		String createTableSql = dialect.getCreateTableString() + " if not exists " + BLOCK_TABLE
+				+ createTableColumns(dialect);
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			try {
+				Long start = reserveBlock(connection, createTableSql, table, column, count);
+				if (start != null) {
+					return start;
+				}
+			}
+			catch (SQLException e) {
+				// Another process created the row of the table at the same time
+				if (attempt == MAX_ATTEMPTS) {
+					throw e;
+				}
+			}
+		}
+		throw new SQLException("Unable to reserve identifiers for " + table);
+	}
+
+	/** Returns the first identifier of the reserved block or null if the block has
+	 *  been taken by another process. */
+	private Long reserveBlock(Connection connection) throws SQLException {
+		Long start = reserveBlock(connection, tableCreated ? null : createTableSql, table,
+				column, blockSize);
+		tableCreated = true;
+		return start;
+	}
+
+	private static Long reserveBlock(Connection connection, String createTableSql,
+			String table, String column, long size) throws SQLException {
+		if (createTableSql != null) {
+			Statement statement = connection.createStatement();
+			try {
+				statement.executeUpdate(createTableSql);
+			}
+			finally {
+				statement.close();
+			}
+		}
+
+		Long start = null;
+		PreparedStatement select = connection.prepareStatement(
+				"select nextId from " + BLOCK_TABLE + " where tableName = ?");
+		try {
+			select.setString(1, table);
+			ResultSet result = select.executeQuery();
+			if (result.next()) {
+				start = result.getLong(1);
+			}
+			result.close();
+		}
+		finally {
+			select.close();
+		}
+
+		if (start == null) {
+			start = maxId(connection, table, column) + 1;
+			PreparedStatement insert = connection.prepareStatement(
+					"insert into " + BLOCK_TABLE + " (tableName, nextId) values (?, ?)");
+			try {
+				insert.setString(1, table);
+				insert.setLong(2, start + size);
+				insert.executeUpdate();
+			}
+			finally {
+				insert.close();
+			}
+			return start;
+		}
+
+		PreparedStatement update = connection.prepareStatement(
+				"update " + BLOCK_TABLE + " set nextId = ? where tableName = ? and nextId = ?");
+		try {
+			update.setLong(1, start + size);
+			update.setString(2, table);
+			update.setLong(3, start);
+			return update.executeUpdate() == 1 ? start : null;
+		}
+		finally {
+			update.close();
+		}
+	}
+
+	private static long maxId(Connection connection, String table, String column)
+			throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			ResultSet result = statement.executeQuery("select max(" + column + ") from " + table);
+			long max = result.next() ? result.getLong(1) : 0;
+			result.close();
+			return max;
+		}
+		finally {
+			statement.close();
+		}
+	}
+
+	private static String createTableColumns(Dialect dialect) {
+		return " (tableName varchar(255) not null, nextId " + dialect.getTypeName(Types.BIGINT)
+				+ " not null, primary key (tableName))" + dialect.getTableTypeString();
+	}
+
+	@Override
+	public String[] sqlCreateStrings(Dialect dialect) throws HibernateException {
+		if (incrementGenerator != null) {
+			return new String[0];
+		}
+		return new String[] { dialect.getCreateTableString() + " " + BLOCK_TABLE
+				+ createTableColumns(dialect) };
+	}
+
+	@Override
+	public String[] sqlDropStrings(Dialect dialect) throws HibernateException {
+		if (incrementGenerator != null) {
+			return new String[0];
+		}
+		StringBuilder sql = new StringBuilder("drop table ");
+		if (dialect.supportsIfExistsBeforeTableName()) {
+			sql.append("if exists ");
+		}
+		sql.append(BLOCK_TABLE).append(dialect.getCascadeConstraintsString());
+		if (dialect.supportsIfExistsAfterTableName()) {
+			sql.append(" if exists");
+		}
+		return new String[] { sql.toString() };
+	}
+
+	@Override
+	public Object generatorKey() {
+		return BLOCK_TABLE;
+	}
+
+}
@@ -28,7 +28,7 @@ import org.hibernate.dialect.MySQL5InnoDBDialect;
  * @author Yevgen Chebotar
  *
  */
-public class UBYMySQLDialect extends MySQL5InnoDBDialect {
+public class UBYMySQLDialect extends MySQL5InnoDBDialect implements UBYDialect {
 
 	public String getTableTypeString() {
         return " ENGINE=InnoDB default character set = \"UTF8\" default collate = \"utf8_general_ci\"";
@@ -42,5 +42,17 @@ public class UBYMySQLDialect extends MySQL5InnoDBDialect {
 			return "bit";
 		return result;
 	}
+
+	@Override
+	public int getIdBlockSize() {
+		return 1000;
+	}
+
+	/** Disables the unique and foreign key checks of the connections. */
+	@Override
+	public String getBulkLoadURL(String url) {
+		return url + (url.indexOf('?') < 0 ? "?" : "&")
+				+ "sessionVariables=unique_checks=0,foreign_key_checks=0";
+	}
 	
 }
@@ -17,6 +17,7 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.lmf.transform;
 
+import de.tudarmstadt.ukp.lmf.hibernate.UBYDialect;
 import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
 
 /**
@@ -36,6 +37,17 @@ public class DBConfig
 	private String password; // Password for accessing the database
 	private boolean showSQL = false; // If true all SQL queries are printed on
 										// the console
+	private boolean cacheEnabled = false; // If true entities are kept in a second-level cache
+	private boolean queryCacheEnabled = false; // If true query results are cached
+	private String cacheRegionFactory = DEFAULT_CACHE_REGION_FACTORY;
+	private String cacheConfiguration = DEFAULT_CACHE_CONFIGURATION;
+	private boolean concurrent = false; // If true the API can be used by multiple threads
+	private int minPoolSize = 1; // Min. number of pooled database connections
+	private int maxPoolSize = 0; // Max. number of pooled database connections, 0 for the default
+	private int maxStatements = 0; // Max. number of cached prepared statements
+	private int fetchSize = 0; // Number of rows fetched at once, 0 for the driver default
+	private int batchSize = 100; // Number of statements sent to the database at once
+	private boolean bulkLoad = false; // If true integrity checks are relaxed for imports
 
 	/*
 	 * true if the user wants to load Hibernate mapping files used only for reading LMF database
@@ -249,6 +261,285 @@ public class DBConfig
         this.host = host;
     }
     
+    /**
+     * Returns true if the entities and collections read from the database, accessed using this
+     * {@link DBConfig} instance, are kept in a second-level cache.
+     * 
+     * @return true if the second-level cache is enabled, false otherwise
+     */
+    public boolean isCacheEnabled()
+    {
+        return cacheEnabled;
+    }
+
+    /**
+     * Specifies if the entities and collections read from the database, accessed using this
+     * {@link DBConfig} instance, should be kept in a read-only second-level cache. The cache is
+     * shared by all sessions of one session factory and bounded by the cache configuration.
+     * <p>
+     * 
+     * Since the cached elements are read-only, the cache should only be enabled for databases
+     * which are not modified while they are accessed. By default, the cache is disabled.
+     * 
+     * @param cacheEnabled
+     *            set to true if the second-level cache should be used, set to false otherwise
+     * 
+     * @see #setCacheConfiguration(String)
+     */
+    public void setCacheEnabled(boolean cacheEnabled)
+    {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * Returns true if the results of queries to the database, accessed using this
+     * {@link DBConfig} instance, are cached.
+     * 
+     * @return true if the query cache is enabled, false otherwise
+     */
+    public boolean isQueryCacheEnabled()
+    {
+        return queryCacheEnabled;
+    }
+
+    /**
+     * Specifies if the results of queries to the database, accessed using this {@link DBConfig}
+     * instance, should be cached. The query cache only stores identifiers, so it should be used
+     * together with the second-level cache. By default, the query cache is disabled.
+     * 
+     * @param queryCacheEnabled
+     *            set to true if query results should be cached, set to false otherwise
+     * 
+     * @see #setCacheEnabled(boolean)
+     */
+    public void setQueryCacheEnabled(boolean queryCacheEnabled)
+    {
+        this.queryCacheEnabled = queryCacheEnabled;
+    }
+
+    /**
+     * Returns the name of the Hibernate region factory class implementing the caches.
+     * 
+     * @return the name of the cache region factory class
+     */
+    public String getCacheRegionFactory()
+    {
+        return cacheRegionFactory;
+    }
+
+    /**
+     * Sets the name of the Hibernate region factory class implementing the caches. By default,
+     * an EhCache region factory is used.
+     * 
+     * @param cacheRegionFactory
+     *            the name of the cache region factory class to set
+     */
+    public void setCacheRegionFactory(String cacheRegionFactory)
+    {
+        this.cacheRegionFactory = cacheRegionFactory;
+    }
+
+    /**
+     * Returns the classpath resource holding the configuration of the caches.
+     * 
+     * @return the cache configuration resource
+     */
+    public String getCacheConfiguration()
+    {
+        return cacheConfiguration;
+    }
+
+    /**
+     * Sets the classpath resource holding the configuration of the caches. The default
+     * configuration bounds every cache region to 10,000 elements and evicts the least recently
+     * used elements.
+     * 
+     * @param cacheConfiguration
+     *            the cache configuration resource to set
+     */
+    public void setCacheConfiguration(String cacheConfiguration)
+    {
+        this.cacheConfiguration = cacheConfiguration;
+    }
+
+    /**
+     * Returns true if the UBY API, accessing the database using this {@link DBConfig} instance,
+     * can be used by multiple threads at once.
+     * 
+     * @return true if concurrent access is enabled, false otherwise
+     */
+    public boolean isConcurrent()
+    {
+        return concurrent;
+    }
+
+    /**
+     * Specifies if the UBY API, accessing the database using this {@link DBConfig} instance,
+     * should be usable by multiple threads at once. In concurrent mode, every thread reads from
+     * its own read-only session, and database connections are returned to the pool after each
+     * statement. Unless set explicitly, the connection pool holds one connection per available
+     * processor in concurrent mode.
+     * <p>
+     * 
+     * By default, concurrent access is disabled.
+     * 
+     * @param concurrent
+     *            set to true if multiple threads should access the database at once, set to
+     *            false otherwise
+     * 
+     * @see #setMaxPoolSize(int)
+     */
+    public void setConcurrent(boolean concurrent)
+    {
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Returns the minimum number of database connections kept in the connection pool.
+     * 
+     * @return the minimum size of the connection pool
+     */
+    public int getMinPoolSize()
+    {
+        return minPoolSize;
+    }
+
+    /**
+     * Sets the minimum number of database connections kept in the connection pool. By default,
+     * the pool holds at least one connection.
+     * 
+     * @param minPoolSize
+     *            the minimum size of the connection pool to set
+     */
+    public void setMinPoolSize(int minPoolSize)
+    {
+        this.minPoolSize = minPoolSize;
+    }
+
+    /**
+     * Returns the maximum number of database connections kept in the connection pool. If the
+     * size is not set, this is the number of available processors in concurrent mode and one
+     * otherwise.
+     * 
+     * @return the maximum size of the connection pool
+     */
+    public int getMaxPoolSize()
+    {
+        if (maxPoolSize > 0) {
+            return maxPoolSize;
+        }
+        return concurrent ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    /**
+     * Sets the maximum number of database connections kept in the connection pool. By default,
+     * the pool holds a single connection, or one connection per available processor if concurrent
+     * access is enabled. Set to 0 in order to use the default.
+     * 
+     * @param maxPoolSize
+     *            the maximum size of the connection pool to set
+     */
+    public void setMaxPoolSize(int maxPoolSize)
+    {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * Returns the maximum number of prepared statements cached by the connection pool.
+     * 
+     * @return the size of the statement cache, 0 if statements are not cached
+     */
+    public int getMaxStatements()
+    {
+        return maxStatements;
+    }
+
+    /**
+     * Sets the maximum number of prepared statements cached by the connection pool. Cached
+     * statements are reused by identical queries, which saves parsing and planning them again.
+     * By default, statements are not cached.
+     * 
+     * @param maxStatements
+     *            the size of the statement cache to set, 0 to disable the statement cache
+     */
+    public void setMaxStatements(int maxStatements)
+    {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Returns the number of rows fetched from the database at once.
+     * 
+     * @return the JDBC fetch size, 0 if the default of the JDBC driver is used
+     */
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the number of rows fetched from the database at once. By default, the fetch size of
+     * the JDBC driver is used.
+     * 
+     * @param fetchSize
+     *            the JDBC fetch size to set, 0 to use the default of the JDBC driver
+     */
+    public void setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Returns the number of statements sent to the database at once when writing.
+     * 
+     * @return the JDBC batch size
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of statements sent to the database at once when writing. The default
+     * batch size is 100.
+     * 
+     * @param batchSize
+     *            the JDBC batch size to set
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns true if the database connections are configured for loading large amounts of
+     * data.
+     * 
+     * @return true if bulk-load mode is enabled, false otherwise
+     */
+    public boolean isBulkLoad()
+    {
+        return bulkLoad;
+    }
+
+    /**
+     * Specifies if the database connections should be configured for loading large amounts of
+     * data. In bulk-load mode, the JDBC URL is extended by the settings of the
+     * {@link UBYDialect}, which relax the integrity checks of the database, e.g., the unique
+     * and foreign key checks of MySQL. Use this mode only for importing into a newly created
+     * database and disable it for reading.
+     * <p>
+     * 
+     * By default, bulk-load mode is disabled.
+     * 
+     * @param bulkLoad
+     *            set to true if large amounts of data are imported, set to false otherwise
+     */
+    public void setBulkLoad(boolean bulkLoad)
+    {
+        this.bulkLoad = bulkLoad;
+    }
+
     public String getDBType()
     {
     	if (db_vendor.equals("h2") || db_vendor.equals(UBYH2Dialect.class.getName())) {
@@ -261,4 +552,7 @@ public class DBConfig
     
     public static final String H2 = "h2";
     public static final String MYSQL = "mysql";
+
+    public static final String DEFAULT_CACHE_REGION_FACTORY = "org.hibernate.cache.ehcache.EhCacheRegionFactory";
+    public static final String DEFAULT_CACHE_CONFIGURATION = "/ehcache-uby.xml";
 }
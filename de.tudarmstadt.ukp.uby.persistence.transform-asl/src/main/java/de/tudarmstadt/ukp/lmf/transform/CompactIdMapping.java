@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open addressing hash table mapping original IDs to long values. The keys
+ * are stored as UTF-8 bytes followed by their value in a sequence of key
+ * pages. The table only holds the addresses of the keys, i.e., eight bytes
+ * per slot, and is probed linearly. Both the key pages and the table pages
+ * are {@link ByteBuffer}s provided by the subclasses, which decide whether
+ * the mapping resides in the heap or in a file.
+ */
+public abstract class CompactIdMapping implements IdMapping {
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int SLOT_SIZE = 8;
+	private static final long MIN_CAPACITY = 1 << 10;
+
+	protected final int pageShift;
+	protected final int pageSize;
+
+	private final List<ByteBuffer> keyPages = new ArrayList<ByteBuffer>();
+	private long keyEnd;
+	private List<ByteBuffer> tablePages;
+	private int tableGeneration;
+	private long capacity;
+	private long size;
+
+	/** Initialize a new mapping whose pages have a size of 2^pageShift
+	 *  bytes. Original IDs must fit into a single page. */
+	protected CompactIdMapping(int pageShift) {
+		if (pageShift < 4 || pageShift > 30) {
+            throw new IllegalArgumentException("Invalid page shift " + pageShift);
+        }
+		this.pageShift = pageShift;
+		this.pageSize = 1 << pageShift;
+	}
+
+	/** Returns a new, empty page for storing the keys. */
+	protected abstract ByteBuffer newKeyPage(int page, int size);
+
+	/** Returns a new page filled with zeros for the table of the given
+	 *  generation. The table is replaced by a new generation whenever it
+	 *  grows. */
+	protected abstract ByteBuffer newTablePage(int generation, int page, int size);
+
+	/** Releases the pages of the given table generation. */
+	protected abstract void releaseTable(int generation);
+
+	@Override
+	public long get(final String originalId) {
+		if (tablePages == null) {
+            return -1;
+        }
+		byte[] key = originalId.getBytes(UTF8);
+		long address = getSlot(tablePages, findSlot(key, hash(key)));
+		if (address == 0) {
+            return -1;
+        }
+		return getValue(address - 1);
+	}
+
+	@Override
+	public boolean containsKey(final String originalId) {
+		return get(originalId) >= 0;
+	}
+
+	@Override
+	public void put(final String originalId, long value) {
+		if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value + " for " + originalId);
+        }
+		if (tablePages == null) {
+            createTable(MIN_CAPACITY);
+        }
+		byte[] key = originalId.getBytes(UTF8);
+		long slot = findSlot(key, hash(key));
+		long address = getSlot(tablePages, slot);
+		if (address != 0) {
+			setValue(address - 1, value);
+			return;
+		}
+
+		setSlot(tablePages, slot, appendKey(key, value) + 1);
+		size++;
+		if (size * 2 > capacity) {
+            resize(capacity * 2);
+        }
+	}
+
+	@Override
+	public long size() {
+		return size;
+	}
+
+	/** Releases all pages. The mapping is empty afterwards. */
+	@Override
+	public void close() {
+		if (tablePages != null) {
+            releaseTable(tableGeneration);
+        }
+		tablePages = null;
+		keyPages.clear();
+		keyEnd = 0;
+		capacity = 0;
+		size = 0;
+	}
+
+	// Returns the slot holding the given key or the empty slot where it
+	// should be inserted.
+	private long findSlot(final byte[] key, long hash) {
+		long mask = capacity - 1;
+		long slot = hash & mask;
+		while (true) {
+			long address = getSlot(tablePages, slot);
+			if (address == 0 || keyEquals(address - 1, key)) {
+                return slot;
+            }
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private void createTable(long newCapacity) {
+		tableGeneration++;
+		long bytes = newCapacity * SLOT_SIZE;
+		tablePages = new ArrayList<ByteBuffer>();
+		for (int page = 0; (long) page << pageShift < bytes; page++) {
+            tablePages.add(newTablePage(tableGeneration, page, (int) Math.min(bytes, pageSize)));
+        }
+		capacity = newCapacity;
+	}
+
+	private void resize(long newCapacity) {
+		List<ByteBuffer> oldPages = tablePages;
+		long oldCapacity = capacity;
+		int oldGeneration = tableGeneration;
+		createTable(newCapacity);
+		long mask = capacity - 1;
+		for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+			long address = getSlot(oldPages, oldSlot);
+			if (address == 0) {
+                continue;
+            }
+			long slot = hash(getKey(address - 1)) & mask;
+			while (getSlot(tablePages, slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+			setSlot(tablePages, slot, address);
+		}
+		releaseTable(oldGeneration);
+	}
+
+	private long getSlot(final List<ByteBuffer> pages, long slot) {
+		long position = slot * SLOT_SIZE;
+		return pages.get((int) (position >>> pageShift)).getLong((int) (position & (pageSize - 1)));
+	}
+
+	private void setSlot(final List<ByteBuffer> pages, long slot, long address) {
+		long position = slot * SLOT_SIZE;
+		pages.get((int) (position >>> pageShift)).putLong((int) (position & (pageSize - 1)), address);
+	}
+
+	// Each key is stored as its length, its bytes, and its value. Keys do
+	// not span pages.
+	private long appendKey(final byte[] key, long value) {
+		int recordSize = 4 + key.length + 8;
+		if (recordSize > pageSize) {
+            throw new IllegalArgumentException("Original ID of " + key.length + " bytes exceeds the page size");
+        }
+		if ((keyEnd & (pageSize - 1)) + recordSize > pageSize) {
+            keyEnd = ((keyEnd >>> pageShift) + 1) << pageShift;
+        }
+		int page = (int) (keyEnd >>> pageShift);
+		if (page == keyPages.size()) {
+            keyPages.add(newKeyPage(page, pageSize));
+        }
+		ByteBuffer buffer = keyPages.get(page);
+		int offset = (int) (keyEnd & (pageSize - 1));
+		buffer.putInt(offset, key.length);
+		for (int i = 0; i < key.length; i++) {
+            buffer.put(offset + 4 + i, key[i]);
+        }
+		buffer.putLong(offset + 4 + key.length, value);
+		long result = keyEnd;
+		keyEnd += recordSize;
+		return result;
+	}
+
+	private boolean keyEquals(long address, final byte[] key) {
+		ByteBuffer buffer = keyPages.get((int) (address >>> pageShift));
+		int offset = (int) (address & (pageSize - 1));
+		if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+		for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+		return true;
+	}
+
+	private byte[] getKey(long address) {
+		ByteBuffer buffer = keyPages.get((int) (address >>> pageShift));
+		int offset = (int) (address & (pageSize - 1));
+		byte[] result = new byte[buffer.getInt(offset)];
+		for (int i = 0; i < result.length; i++) {
+            result[i] = buffer.get(offset + 4 + i);
+        }
+		return result;
+	}
+
+	private long getValue(long address) {
+		ByteBuffer buffer = keyPages.get((int) (address >>> pageShift));
+		int offset = (int) (address & (pageSize - 1));
+		return buffer.getLong(offset + 4 + buffer.getInt(offset));
+	}
+
+	private void setValue(long address, long value) {
+		ByteBuffer buffer = keyPages.get((int) (address >>> pageShift));
+		int offset = (int) (address & (pageSize - 1));
+		buffer.putLong(offset + 4 + buffer.getInt(offset), value);
+	}
+
+	// 64 bit FNV-1a hash with a final avalanche step, since the lower bits
+	// select the slot.
+	private static long hash(final byte[] key) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
@@ -17,22 +17,31 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.lmf.transform;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.Query;
-import org.hibernate.ScrollMode;
-import org.hibernate.ScrollableResults;
-import org.hibernate.Session;
-import org.hibernate.criterion.DetachedCriteria;
-import org.hibernate.criterion.Restrictions;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
-import de.tudarmstadt.ukp.lmf.api.CriteriaIterator;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
@@ -56,8 +65,12 @@ public class DBToXMLTransformer extends UBYHibernateTransformer {
 
 	private static final Log logger = LogFactory.getLog(DBToXMLTransformer.class);
 
+	/** Number of lexicon children or axes read at once. */
+	protected static final int WINDOW_SIZE = BATCH_FETCH_SIZE;
+
 	protected LexicalResource lexicalResource;
 	protected DBConfig dbConfig;
+	protected int threads = 1;
 
 	/** Constructs a new {@link DBToXMLTransformer} instance which is used to
 	 *  convert UBY from a database to an XML file.
@@ -78,10 +91,35 @@ public class DBToXMLTransformer extends UBYHibernateTransformer {
 	public DBToXMLTransformer(final DBConfig dbConfig,
 			final OutputStream outputStream, final String dtdPath)
 			throws SAXException {
-		super(dbConfig);
+		this(dbConfig, outputStream, dtdPath, 1);
+	}
+
+	/** Constructs a new {@link DBToXMLTransformer} instance which is used to
+	 *  convert UBY from a database to an XML file. The lexicons are read 
+	 *  and converted by the given number of threads in parallel.
+	 *  @param dbConfig {@link DBConfig} instance used to access the database.
+	 *  @param outputStream the (file) stream of the resulting XML data.
+	 *  @param dtdPath the file path of the DTD file.
+	 *  @param threads the number of lexicons converted at once. */
+	public DBToXMLTransformer(final DBConfig dbConfig,
+			final OutputStream outputStream, final String dtdPath,
+			int threads) throws SAXException {
+		super(dbConfig, threads);
+		this.dbConfig = dbConfig;
+		this.threads = threads;
 		writeStartDocument(outputStream, dtdPath);
 	}
 
+	/** Constructs a new {@link DBToXMLTransformer} instance writing a 
+	 *  fragment of the XML file of the given transformer. */
+	protected DBToXMLTransformer(final DBToXMLTransformer parent,
+			final OutputStream outputStream) throws SAXException {
+		super(parent.sessionFactory);
+		this.dbConfig = parent.dbConfig;
+		this.lexicalResource = parent.lexicalResource;
+		writeStartDocument(outputStream, null);
+	}
+
 	/**
 	 * Transforms a {@link LexicalResource} instance retrieved from a database
 	 * to a XML file.
@@ -171,13 +209,13 @@ public class DBToXMLTransformer extends UBYHibernateTransformer {
 	// lexicons = null (all lexicons), lexicons.length = 0 (no lexicons).
 	protected void doTransform(boolean includeAxes, 
 			final Lexicon... includeLexicons) throws SAXException {
-		final int bufferSize = 100;
 		commitCounter = 1;
 
 		writeStartElement(lexicalResource);
 
 		// Iterate over all lexicons
 		if (includeLexicons == null || includeLexicons.length > 0) {
+			List<Lexicon> lexicons = new ArrayList<Lexicon>();
 			for (Lexicon lexicon : lexicalResource.getLexicons()) {
 				String lexiconName = lexicon.getName();
 
@@ -194,72 +232,16 @@ public class DBToXMLTransformer extends UBYHibernateTransformer {
                         continue;
                     }
 				}
+				lexicons.add(lexicon);
+			}
 
-				logger.info("Processing lexicon: " + lexiconName);
-				writeStartElement(lexicon);
-
-				// Iterate over all possible sub-elements of this Lexicon and
-				// write them to the XML
-				Class<?>[] lexiconClassesToSave = {
-						LexicalEntry.class,
-						SubcategorizationFrame.class,
-						SubcategorizationFrameSet.class,
-						SemanticPredicate.class,
-						Synset.class,
-						SynSemCorrespondence.class,
-						//ConstraintSet.class
-				};
-
-				//  "Unfortunately, MySQL does not treat large offset values efficiently by default and will still read all the rows prior to an offset value. It is common to see a query with an offset above 100,000 take over 20 times longer than an offset of zero!"
-				// http://www.numerati.com/2012/06/26/reading-large-result-sets-with-hibernate-and-mysql/
-				for(Class<?> clazz : lexiconClassesToSave) {
-					/*DetachedCriteria criteria = DetachedCriteria.forClass(clazz)
-							.add(Restrictions.sqlRestriction("lexiconId = '" + lexicon.getId() + "'"));
-					CriteriaIterator<Object> iter = new CriteriaIterator<Object>(criteria, sessionFactory, bufferSize);
-					while (iter.hasNext()) {
-						Object obj = iter.next();
-						writeElement(obj);
-						session.evict(obj);
-						commitCounter++;
-						if (commitCounter % 1000 == 0)
-							logger.info("progress: " + commitCounter  + " class instances written to file");
-					}*/
-					Session lookupSession = sessionFactory.openSession();
-					Query query = lookupSession.createQuery("FROM " + clazz.getSimpleName()
-							+ " WHERE lexiconId = '" + lexicon.getId() + "' ORDER BY id");
-					query.setReadOnly(true);
-					if (DBConfig.MYSQL.equals(dbConfig.getDBType())) {
-                        query.setFetchSize(Integer.MIN_VALUE); // MIN_VALUE gives hint to JDBC driver to stream results
-                    }
-                    else {
-                        query.setFetchSize(1000);
-                    }
-					ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
-					while (results.next()) {
-						// For streamed query results, no further queries are allowed (incl. lazy proxy queries!)
-						// Detach the object from the lookup session and reload it using the "official" session.
-						Object[] rows = results.get();
-						Object row = rows[0];
-						lookupSession.evict(row);
-						lookupSession.evict(rows);
-						rows = null;
-						row = session.get(row.getClass(), ((IHasID) row).getId());
-						writeElement(row);
-						session.evict(row);
-						row = null;
-						commitCounter++;
-						if (commitCounter % 1000 == 0) {
-                            logger.info("progress: " + commitCounter  + " class instances written to file");
-                        }
-						if (commitCounter % 10000 == 0) {
-							closeSession();
-							openSession();
-						}
-				  }
-				  results.close();
-				  lookupSession.close();
-				}
-				writeEndElement(lexicon);
+			if (threads > 1 && lexicons.size() > 1) {
+                writeLexiconsInParallel(lexicons);
+            }
+            else {
+				for (Lexicon lexicon : lexicons) {
+                    writeLexicon(lexicon);
+                }
 			}
 		}
 
@@ -267,37 +249,162 @@ public class DBToXMLTransformer extends UBYHibernateTransformer {
 		// lexicons should be converted
 		if (includeAxes) {
 			logger.info("Processing sense axes");
-			DetachedCriteria criteria = DetachedCriteria.forClass(SenseAxis.class)
-					.add(Restrictions.sqlRestriction("lexicalResourceId = '" + lexicalResource.getName() + "'"));
-			CriteriaIterator<Object> iter = new CriteriaIterator<Object>(criteria, sessionFactory, bufferSize);
-			while (iter.hasNext()) {
-				Object obj = iter.next();
-				writeElement(obj);
-				session.evict(obj);
-				commitCounter++;
-				if (commitCounter % 1000 == 0) {
-                    logger.info("progress: " + commitCounter  + " class instances written to file");
-                }
-			}
-			
+			writeElements(SenseAxis.class, "lexicalResourceId", lexicalResource.getName());
+
 			logger.info("Processing predicateargument axes");
-			DetachedCriteria criteria2 = DetachedCriteria.forClass(PredicateArgumentAxis.class)
-					.add(Restrictions.sqlRestriction("lexicalResourceId = '" + lexicalResource.getName() + "'"));
-			CriteriaIterator<Object> iter2 = new CriteriaIterator<Object>(criteria2, sessionFactory, bufferSize);
-			while (iter2.hasNext()) {
-				Object obj = iter2.next();
+			writeElements(PredicateArgumentAxis.class, "lexicalResourceId", lexicalResource.getName());
+		}
+		writeEndElement(lexicalResource);
+
+		writeEndDocument();
+	}
+
+	/** Writes the given lexicon and all its children to the XML. */
+	protected void writeLexicon(final Lexicon lexicon) throws SAXException {
+		logger.info("Processing lexicon: " + lexicon.getName());
+		writeStartElement(lexicon);
+
+		// Iterate over all possible sub-elements of this Lexicon and
+		// write them to the XML
+		Class<?>[] lexiconClassesToSave = {
+				LexicalEntry.class,
+				SubcategorizationFrame.class,
+				SubcategorizationFrameSet.class,
+				SemanticPredicate.class,
+				Synset.class,
+				SynSemCorrespondence.class,
+				//ConstraintSet.class
+		};
+
+		for (Class<?> clazz : lexiconClassesToSave) {
+            writeElements(clazz, "lexiconId", lexicon.getId());
+        }
+		writeEndElement(lexicon);
+	}
+
+	/** Writes all instances of the given class whose parent column refers
+	 *  to the given parent ID. The instances are read in windows of
+	 *  {@link #WINDOW_SIZE} instances, whose lazy collections (e.g., the
+	 *  SenseAxisRelations of a SenseAxis) are loaded in batches. */
+	protected void writeElements(final Class<?> clazz, final String parentColumn,
+			final String parentId) throws SAXException {
+		//  "Unfortunately, MySQL does not treat large offset values efficiently by default and will still read all the rows prior to an offset value. It is common to see a query with an offset above 100,000 take over 20 times longer than an offset of zero!"
+		// http://www.numerati.com/2012/06/26/reading-large-result-sets-with-hibernate-and-mysql/
+		// Therefore, each window continues after the last ID of the previous one.
+		String lastId = null;
+		List<?> window;
+		do {
+			Query query = session.createQuery("FROM " + clazz.getSimpleName()
+					+ " WHERE " + parentColumn + " = :parentId"
+					+ (lastId != null ? " AND id > :lastId" : "") + " ORDER BY id");
+			query.setParameter("parentId", parentId);
+			if (lastId != null) {
+                query.setParameter("lastId", lastId);
+            }
+			query.setMaxResults(WINDOW_SIZE);
+			window = query.list();
+			for (Object obj : window) {
 				writeElement(obj);
-				session.evict(obj);
 				commitCounter++;
 				if (commitCounter % 1000 == 0) {
                     logger.info("progress: " + commitCounter  + " class instances written to file");
                 }
+			}
+			if (!window.isEmpty()) {
+                lastId = ((IHasID) window.get(window.size() - 1)).getId();
+            }
+			session.clear();
+		} while (window.size() == WINDOW_SIZE);
+	}
+
+	/** Writes each of the given lexicons to a separate fragment using 
+	 *  {@link #threads} threads and copies the fragments to the XML in the
+	 *  original order. */
+	protected void writeLexiconsInParallel(final List<Lexicon> lexicons)
+			throws SAXException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<File>> fragments = new ArrayList<Future<File>>();
+		try {
+			for (Lexicon lexicon : lexicons) {
+				final String lexiconId = lexicon.getId();
+				fragments.add(executor.submit(new Callable<File>() {
+					@Override
+					public File call() throws Exception {
+						return writeFragment(lexiconId);
+					}
+				}));
+			}
+
+			for (Future<File> fragment : fragments) {
+				File fragmentFile;
+				try {
+					fragmentFile = fragment.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new SAXException(e);
+				} catch (ExecutionException e) {
+					throw new SAXException("Unable to write lexicon", (Exception) e.getCause());
+				}
+				try {
+					copyFragment(fragmentFile);
+				} finally {
+					fragmentFile.delete();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
 		}
+	}
 
+	/** Writes the lexicon with the given ID to a temporary file using a
+	 *  separate session. */
+	protected File writeFragment(final String lexiconId) throws IOException, SAXException {
+		File result = File.createTempFile("lexicon", ".xml");
+		result.deleteOnExit();
+		OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(result));
+		try {
+			DBToXMLTransformer fragmentWriter = new DBToXMLTransformer(this, outputStream);
+			fragmentWriter.openSession();
+			try {
+				fragmentWriter.writeLexicon((Lexicon) fragmentWriter.session.get(Lexicon.class, lexiconId));
+				fragmentWriter.writeEndDocument();
+			} finally {
+				fragmentWriter.closeSession();
+			}
+		} finally {
+			outputStream.close();
 		}
-		writeEndElement(lexicalResource);
+		return result;
+	}
 
-		writeEndDocument();
+	/** Copies the elements of the given fragment to the XML. */
+	protected void copyFragment(final File fragment) throws SAXException {
+		try {
+			SAXParserFactory.newInstance().newSAXParser().parse(fragment, new DefaultHandler() {
+				@Override
+				public void startElement(String uri, String localName,
+						String qName, Attributes attributes) throws SAXException {
+					th.startElement("", "", qName, attributes);
+				}
+
+				@Override
+				public void endElement(String uri, String localName,
+						String qName) throws SAXException {
+					th.endElement("", "", qName);
+				}
+			});
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		} catch (IOException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	/** Opens a read-only Hibernate session. */
+	@Override
+	protected void openSession() {
+		super.openSession();
+		session.setDefaultReadOnly(true);
 	}
 
 	@Override
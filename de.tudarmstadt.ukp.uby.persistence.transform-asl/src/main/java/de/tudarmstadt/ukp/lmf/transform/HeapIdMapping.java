@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact mapping of original IDs residing in the Java heap. Instead of a
+ * map of boxed strings, the keys are stored as UTF-8 bytes in large byte
+ * arrays. This is the default {@link IdMapping} of a {@link UBYTransformer}.
+ */
+public class HeapIdMapping extends CompactIdMapping {
+
+	/** Initialize a new mapping using pages of 1 MB. */
+	public HeapIdMapping() {
+		this(20);
+	}
+
+	/** Initialize a new mapping using pages of 2^pageShift bytes. */
+	public HeapIdMapping(int pageShift) {
+		super(pageShift);
+	}
+
+	@Override
+	protected ByteBuffer newKeyPage(int page, int size) {
+		return ByteBuffer.allocate(size);
+	}
+
+	@Override
+	protected ByteBuffer newTablePage(int generation, int page, int size) {
+		return ByteBuffer.allocate(size);
+	}
+
+	@Override
+	protected void releaseTable(int generation) {
+		// The pages are garbage collected.
+	}
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.Closeable;
+
+/**
+ * Mapping of the unique IDs of an original resource to the numbers of the
+ * LMF IDs created by a {@link UBYTransformer}. Implementations may keep the
+ * mapping in a compact form or outside of the Java heap.
+ */
+public interface IdMapping extends Closeable {
+
+	/** Returns the value mapped to the given original ID or -1 if the ID
+	 *  has not been mapped yet. */
+	long get(String originalId);
+
+	/** Returns true if the given original ID has been mapped. */
+	boolean containsKey(String originalId);
+
+	/** Maps the given original ID to the given non-negative value. */
+	void put(String originalId, long value);
+
+	/** Returns the number of mapped original IDs. */
+	long size();
+
+}
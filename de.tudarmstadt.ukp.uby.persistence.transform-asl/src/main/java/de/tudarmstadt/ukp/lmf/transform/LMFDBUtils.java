@@ -18,8 +18,25 @@
 
 package de.tudarmstadt.ukp.lmf.transform;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -28,14 +45,31 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Environment;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.jdbc.Work;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.ForeignKey;
+import org.hibernate.mapping.Index;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.SimpleValue;
 import org.hibernate.mapping.Table;
+import org.hibernate.mapping.ToOne;
+import org.hibernate.mapping.Value;
 import org.hibernate.service.ServiceRegistryBuilder;
 import org.hibernate.tool.hbm2ddl.SchemaExport;
 import org.hibernate.tool.hbm2ddl.SchemaUpdate;
 
 import de.tudarmstadt.ukp.lmf.hibernate.HibernateConnect;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYIdGenerator;
 
 public class LMFDBUtils {
+
+	/** Name of the file holding the number of generated ids per table, 
+	 *  which is written along with the delimited files. */
+	public static final String ID_COUNT_FILE = "ids.properties";
 	
 	/**
 	 * Create all LMF Tables in the database based on the hibernate mapping
@@ -57,6 +91,327 @@ public class LMFDBUtils {
 	}
 	
 	
+	/**
+	 * Create all LMF Tables in the database based on the hibernate mapping,
+	 * but without secondary indexes and foreign keys. This speeds up
+	 * importing large resources, since the database does not need to 
+	 * maintain the indexes and check the constraints for each insert.
+	 * After the import, call {@link #createIndexes(DBConfig)}. 
+	 * Use {@link DBConfig#setBulkLoad(boolean)} to further relax the 
+	 * integrity checks during the import.
+	 * @param dbConfig
+	 */
+	public static void createTablesForBulkLoad(DBConfig dbConfig) {
+		System.out.println("CREATE TABLES FOR BULK LOAD");
+		Configuration cfg = HibernateConnect.getConfiguration(dbConfig);
+		cfg.setProperty("hibernate.hbm2ddl.auto", "none");
+		Dialect dialect = Dialect.getDialect(cfg.getProperties());
+		Set<String> indexSQL = new HashSet<String>(getIndexScript(cfg, dialect));
+		List<String> createSQL = new ArrayList<String>();
+		for (String sql : cfg.generateSchemaCreationScript(dialect))
+			if (!indexSQL.contains(sql))
+				createSQL.add(sql);
+
+		execute(cfg, Arrays.asList(cfg.generateDropSchemaScript(dialect)), true);
+		execute(cfg, createSQL, false);
+	}
+
+	/**
+	 * Create the secondary indexes and foreign keys of all LMF tables, 
+	 * which have been omitted by {@link #createTablesForBulkLoad(DBConfig)}.
+	 * The statements are derived from the hibernate mapping.
+	 * @param dbConfig
+	 */
+	public static void createIndexes(DBConfig dbConfig) {
+		System.out.println("CREATE INDEXES");
+		Configuration cfg = HibernateConnect.getConfiguration(dbConfig);
+		cfg.setProperty("hibernate.hbm2ddl.auto", "none");
+		execute(cfg, getIndexScript(cfg, Dialect.getDialect(cfg.getProperties())), false);
+	}
+
+	/** Returns the statements creating the secondary indexes and the 
+	 *  foreign keys of all tables in the same form as they are contained in
+	 *  the schema creation script. */
+	private static List<String> getIndexScript(Configuration cfg, Dialect dialect) {
+		cfg.buildMappings();
+		Mapping mapping = cfg.buildMapping();
+		String defaultCatalog = cfg.getProperty(Environment.DEFAULT_CATALOG);
+		String defaultSchema = cfg.getProperty(Environment.DEFAULT_SCHEMA);
+		List<String> indexSQL = new ArrayList<String>();
+		List<String> foreignKeySQL = new ArrayList<String>();
+		Iterator<Table> iter = cfg.getTableMappings();
+		while (iter.hasNext()) {
+			Table table = iter.next();
+			if (!table.isPhysicalTable())
+				continue;
+
+			Iterator<?> indexIter = table.getIndexIterator();
+			while (indexIter.hasNext())
+				indexSQL.add(((Index) indexIter.next()).sqlCreateString(
+						dialect, mapping, defaultCatalog, defaultSchema));
+
+			if (!dialect.hasAlterTable())
+				continue;
+			Iterator<?> fkIter = table.getForeignKeyIterator();
+			while (fkIter.hasNext()) {
+				ForeignKey fk = (ForeignKey) fkIter.next();
+				if (fk.isPhysicalConstraint())
+					foreignKeySQL.add(fk.sqlCreateString(
+							dialect, mapping, defaultCatalog, defaultSchema));
+			}
+		}
+		indexSQL.addAll(foreignKeySQL);
+		return indexSQL;
+	}
+
+	/**
+	 * Load the delimited files written by {@link XMLToCSVTransformer} into
+	 * the LMF tables of a MySQL or H2 database using LOAD DATA or CSVREAD.
+	 * The foreign key checks are disabled while loading.
+	 * <p>
+	 * The generated ids of the files start at 1. Their number per table is
+	 * read from {@value #ID_COUNT_FILE}, and the ids are reserved in the
+	 * database like by {@link UBYIdGenerator}. The ids and the foreign keys
+	 * referencing them are shifted to the reserved ids while loading. Thus,
+	 * the files can be loaded into tables already containing other resources,
+	 * and Hibernate can continue to import into the database afterwards.
+	 * @param dbConfig
+	 * @param directory
+	 * @throws IOException if the number of generated ids cannot be read
+	 */
+	public static void loadTables(DBConfig dbConfig, File directory) 
+			throws IOException {
+		System.out.println("LOAD TABLES");
+		final boolean h2 = DBConfig.H2.equals(dbConfig.getDBType());
+		Configuration cfg = HibernateConnect.getConfiguration(dbConfig);
+		cfg.setProperty("hibernate.hbm2ddl.auto", "none");
+		cfg.buildMappings();
+		final Dialect dialect = Dialect.getDialect(cfg.getProperties());
+		final Mapping mapping = cfg.buildMapping();
+		final Map<String, File> tableFiles = new LinkedHashMap<String, File>();
+		final Map<String, Table> tables = new HashMap<String, Table>();
+		Iterator<Table> iter = cfg.getTableMappings();
+		while (iter.hasNext()) {
+			Table table = iter.next();
+			File file = getTableFile(directory, table);
+			if (table.isPhysicalTable() && file.exists()) {
+				tableFiles.put(table.getName(), file);
+				tables.put(table.getName(), table);
+			}
+		}
+		final Map<String, Map<String, String>> idReferences = getGeneratedIdReferences(cfg);
+
+		final Properties idCounts = new Properties();
+		File idCountFile = new File(directory, ID_COUNT_FILE);
+		if (idCountFile.exists()) {
+			InputStream in = new FileInputStream(idCountFile);
+			try {
+				idCounts.load(in);
+			} finally {
+				in.close();
+			}
+		}
+
+		execute(cfg, new Work() {
+			@Override
+			public void execute(Connection connection) throws SQLException {
+				// Reserve the generated ids of the files.
+				Map<String, Long> idOffsets = new HashMap<String, Long>();
+				for (String tableName : idCounts.stringPropertyNames()) {
+					long count = Long.parseLong(idCounts.getProperty(tableName));
+					Table table = tables.get(tableName);
+					if (count > 0 && table != null && table.hasPrimaryKey())
+						idOffsets.put(tableName, UBYIdGenerator.reserveIds(connection, dialect,
+								table.getQuotedName(dialect), table.getPrimaryKey().getColumn(0)
+								.getQuotedName(dialect), count) - 1);
+				}
+
+				List<String> loadSQL = new ArrayList<String>();
+				loadSQL.add(h2 ? "SET REFERENTIAL_INTEGRITY FALSE" : "SET FOREIGN_KEY_CHECKS=0");
+				for (Map.Entry<String, File> tableFile : tableFiles.entrySet()) {
+					Map<String, String> references = idReferences.get(tableFile.getKey());
+					Map<String, Long> offsets = new HashMap<String, Long>();
+					if (references != null)
+						for (Map.Entry<String, String> reference : references.entrySet())
+							if (idOffsets.containsKey(reference.getValue()))
+								offsets.put(reference.getKey(), idOffsets.get(reference.getValue()));
+					loadSQL.add(getLoadStatement(tables.get(tableFile.getKey()),
+							tableFile.getValue(), offsets, h2, dialect, mapping));
+				}
+				loadSQL.add(h2 ? "SET REFERENTIAL_INTEGRITY TRUE" : "SET FOREIGN_KEY_CHECKS=1");
+				LMFDBUtils.execute(connection, loadSQL, false);
+			}
+		});
+	}
+
+	/** Returns the statement loading the given file into the table. The 
+	 *  given offsets are added to the values of the respective columns. */
+	private static String getLoadStatement(Table table, File file, 
+			Map<String, Long> offsets, boolean h2, Dialect dialect, Mapping mapping) {
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		StringBuilder conversions = new StringBuilder();
+		Iterator<?> columnIter = table.getColumnIterator();
+		while (columnIter.hasNext()) {
+			Column column = (Column) columnIter.next();
+			String name = column.getQuotedName(dialect);
+			Long offset = offsets.get(column.getName());
+			if (columns.length() > 0) {
+				columns.append(", ");
+				values.append(", ");
+			}
+			if (h2) {
+				columns.append(name);
+				// CSVREAD converts the column names of the header to upper case.
+				String csvColumn = "\"" + column.getName().toUpperCase(Locale.ROOT) + "\"";
+				if (offset == null)
+					values.append(csvColumn);
+				else
+					values.append("CAST(").append(csvColumn).append(" AS BIGINT) + ").append(offset);
+				continue;
+			}
+			if (offset == null && !isBoolean(column, mapping)) {
+				columns.append(name);
+				continue;
+			}
+
+			// MySQL does not convert strings to bits.
+			String variable = "@" + column.getName();
+			columns.append(variable);
+			conversions.append(conversions.length() == 0 ? " SET " : ", ").append(name);
+			if (offset == null)
+				conversions.append(" = CAST(").append(variable).append(" AS UNSIGNED)");
+			else
+				conversions.append(" = ").append(variable).append(" + ").append(offset);
+		}
+
+		String tableName = table.getQuotedName(dialect);
+		if (h2)
+			return "INSERT INTO " + tableName + " (" + columns + ") SELECT " + values 
+					+ " FROM CSVREAD(" + quote(file) + ", NULL, 'UTF-8', ',', '\"', '\"', 'NULL')";
+		else
+			return "LOAD DATA LOCAL INFILE " + quote(file) + " INTO TABLE " + tableName
+					+ " CHARACTER SET utf8 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+					+ " ESCAPED BY '' LINES TERMINATED BY '\\n' IGNORE 1 LINES (" 
+					+ columns + ")" + conversions;
+	}
+
+	/** Returns the columns holding generated ids for each table, i.e., the 
+	 *  ids, foreign keys, and collection keys referencing entities with 
+	 *  generated ids, mapped to the name of the referenced table. */
+	private static Map<String, Map<String, String>> getGeneratedIdReferences(Configuration cfg) {
+		Map<String, Map<String, String>> result = new HashMap<String, Map<String, String>>();
+		Iterator<PersistentClass> classIter = cfg.getClassMappings();
+		while (classIter.hasNext()) {
+			PersistentClass persistentClass = classIter.next();
+			if (isGeneratedId(persistentClass))
+				addReferences(result, persistentClass.getTable(), 
+						persistentClass.getIdentifier(), persistentClass);
+			Iterator<?> propertyIter = persistentClass.getPropertyIterator();
+			while (propertyIter.hasNext()) {
+				Value value = ((Property) propertyIter.next()).getValue();
+				if (!(value instanceof ToOne))
+					continue;
+				PersistentClass referenced = cfg.getClassMapping(
+						((ToOne) value).getReferencedEntityName());
+				if (isGeneratedId(referenced))
+					addReferences(result, persistentClass.getTable(), value, referenced);
+			}
+		}
+		Iterator<org.hibernate.mapping.Collection> collectionIter = cfg.getCollectionMappings();
+		while (collectionIter.hasNext()) {
+			org.hibernate.mapping.Collection collection = collectionIter.next();
+			if (isGeneratedId(collection.getOwner()))
+				addReferences(result, collection.getCollectionTable(), 
+						collection.getKey(), collection.getOwner());
+		}
+		return result;
+	}
+
+	private static void addReferences(Map<String, Map<String, String>> references,
+			Table table, Value value, PersistentClass referenced) {
+		Map<String, String> columns = references.get(table.getName());
+		if (columns == null) {
+			columns = new HashMap<String, String>();
+			references.put(table.getName(), columns);
+		}
+		Iterator<?> columnIter = value.getColumnIterator();
+		while (columnIter.hasNext())
+			columns.put(((Column) columnIter.next()).getName(), 
+					referenced.getTable().getName());
+	}
+
+	/** Returns true if the ids of the given entity are generated by 
+	 *  {@link UBYIdGenerator}. */
+	static boolean isGeneratedId(PersistentClass persistentClass) {
+		return persistentClass != null && UBYIdGenerator.class.getName().equals(
+				((SimpleValue) persistentClass.getIdentifier()).getIdentifierGeneratorStrategy());
+	}
+
+	static File getTableFile(File directory, Table table) {
+		return new File(directory, table.getName() + ".csv");
+	}
+
+	private static boolean isBoolean(Column column, Mapping mapping) {
+		int sqlType = column.getSqlTypeCode(mapping);
+		return sqlType == Types.BOOLEAN || sqlType == Types.BIT;
+	}
+
+	private static String quote(File file) {
+		return quote(file.getAbsolutePath().replace('\\', '/'));
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("'", "''") + "'";
+	}
+
+	/** Executes the given statements one by one using the same 
+	 *  connection. */
+	private static void execute(Configuration cfg, final List<String> statements,
+			final boolean ignoreErrors) {
+		execute(cfg, new Work() {
+			@Override
+			public void execute(Connection connection) throws SQLException {
+				LMFDBUtils.execute(connection, statements, ignoreErrors);
+			}
+		});
+	}
+
+	private static void execute(Connection connection, List<String> statements,
+			boolean ignoreErrors) throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			for (String sql : statements) {
+				System.out.println(sql);
+				try {
+					statement.execute(sql);
+				} catch (SQLException e) {
+					if (!ignoreErrors)
+						throw e;
+				}
+			}
+		} finally {
+			statement.close();
+		}
+	}
+
+	/** Executes the given work in a transaction of a new session. */
+	private static void execute(Configuration cfg, Work work) {
+		SessionFactory sf = cfg.buildSessionFactory(
+				new ServiceRegistryBuilder().applySettings(
+				cfg.getProperties()).buildServiceRegistry());
+		Session session = sf.openSession();
+		try {
+			Transaction tx = session.beginTransaction();
+			session.doWork(work);
+			tx.commit();
+		} finally {
+			session.close();
+			sf.close();
+		}
+	}
+	
+	
 	/**
 	 * Create all LMF Tables in the database based on the hibernate mapping
 	 * @param dbConfig
@@ -18,7 +18,9 @@
 
 package de.tudarmstadt.ukp.lmf.transform;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
@@ -39,8 +41,15 @@ import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrameSet;
  */
 @Deprecated
 abstract class LMFTransformer {
-	// Mapping of Resource unique IDs to LMF unique IDs
-	protected HashMap<String, String> idMapping;
+	private static final int ID_CLASS_SHIFT = 48;
+	private static final long ID_NUMBER_MASK = (1L << ID_CLASS_SHIFT) - 1;
+
+	// Mapping of Resource unique IDs to LMF unique IDs (see UBYTransformer)
+	protected IdMapping idMapping;
+
+	// LMF classes of the mapped IDs
+	@SuppressWarnings("rawtypes")
+	protected List<Class> idClasses;
 
 	// Current LMF ID for each LMF Class
 	@SuppressWarnings("rawtypes")
@@ -59,9 +68,18 @@ abstract class LMFTransformer {
 	 */
 	@SuppressWarnings("rawtypes")
 	public LMFTransformer(){
-		idMapping = new HashMap<String, String>();
+		idMapping = new HeapIdMapping();
+		idClasses = new ArrayList<Class>();
 		currentClassId = new HashMap<Class, Long>();
 	}
+
+	/**
+	 * Replaces the mapping of Resource unique IDs to LMF unique IDs
+	 * @param idMapping
+	 */
+	public void setIdMapping(IdMapping idMapping){
+		this.idMapping = idMapping;
+	}
 	/**
 	 * Transforms Resource to LMF
 	 * @throws LMFWriterException
@@ -75,24 +93,32 @@ abstract class LMFTransformer {
 	 * @return
 	 */
 	protected String getLmfId(@SuppressWarnings("rawtypes") Class clazz, String originalId){
-		if(idMapping.containsKey(originalId)) {
-			return idMapping.get(originalId);
+		long value = idMapping.get(originalId);
+		if(value >= 0) {
+			return formatLmfId(idClasses.get((int) (value >>> ID_CLASS_SHIFT)), value & ID_NUMBER_MASK);
 		}
 		else{
 			long currentId = 1;
 			if(currentClassId.containsKey(clazz)){
 				currentId = currentClassId.get(clazz);
 			}
-			String classId = clazz.getSimpleName();
-			classId = classId.substring(0,1).toLowerCase() + classId.substring(1);
-
-			String newLmfId = resourceAlias+"_"+classId+"_"+currentId;
-			idMapping.put(originalId, newLmfId);
+			int classIndex = idClasses.indexOf(clazz);
+			if(classIndex < 0){
+				classIndex = idClasses.size();
+				idClasses.add(clazz);
+			}
+			idMapping.put(originalId, ((long) classIndex << ID_CLASS_SHIFT) | currentId);
 			currentClassId.put(clazz, currentId+1);
-			return newLmfId;
+			return formatLmfId(clazz, currentId);
 		}
 	}
 
+	private String formatLmfId(@SuppressWarnings("rawtypes") Class clazz, long number){
+		String classId = clazz.getSimpleName();
+		classId = classId.substring(0,1).toLowerCase() + classId.substring(1);
+		return resourceAlias+"_"+classId+"_"+number;
+	}
+
 	/**
 	 * Creates LexicalResource object
 	 * @return
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.FileNotFoundException;
+import java.util.Iterator;
+import java.util.List;
+
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.meta.MetaData;
+import de.tudarmstadt.ukp.lmf.model.miscellaneous.ConstraintSet;
+import de.tudarmstadt.ukp.lmf.model.multilingual.PredicateArgumentAxis;
+import de.tudarmstadt.ukp.lmf.model.multilingual.SenseAxis;
+import de.tudarmstadt.ukp.lmf.model.semantics.SemanticPredicate;
+import de.tudarmstadt.ukp.lmf.model.semantics.SynSemCorrespondence;
+import de.tudarmstadt.ukp.lmf.model.semantics.Synset;
+import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrame;
+import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrameSet;
+import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
+
+/**
+ * Saves a {@link LexicalResource} created by a converter (e.g., the
+ * WordNet, GermaNet, or FrameNet converter) to a UBY database. The elements
+ * of the resource are passed one by one to {@link LMFDBTransformer}, which
+ * commits them in steps of {@link #COMMIT_STEP}. This avoids writing the
+ * resource to a temporary UBY-XML file and parsing it again using the
+ * {@link XMLToDBTransformer}. Each list of the resource is cleared as soon
+ * as its elements have been saved, such that they can be garbage collected.
+ * <p>
+ * Like the {@link XMLToDBTransformer}, the transformer treats string 
+ * attributes with the value "NULL" as missing and replaces the characters 
+ * which cannot be stored in MySQL databases (see 
+ * {@link StringUtils#replaceNonUtf8(String)}).
+ */
+public class LexicalResourceToDBTransformer extends LMFDBTransformer {
+
+	protected final LexicalResource source;
+	protected LexicalResource lexicalResource;
+	protected Iterator<Lexicon> lexiconIter;
+	protected Lexicon currentLexicon;
+	protected Iterator<?> elementIter;
+	protected List<?> elementList;
+
+	/** Initialize a new transformer for saving the given lexical resource
+	 *  to the database with the specified configuration. */
+	public LexicalResourceToDBTransformer(final DBConfig dbConfig,
+			final LexicalResource lexicalResource) throws FileNotFoundException {
+		super(dbConfig);
+		this.source = lexicalResource;
+	}
+
+	@Override
+	protected LexicalResource createLexicalResource() {
+		lexicalResource = new LexicalResource();
+		lexicalResource.setName(source.getName());
+		lexicalResource.setDtdVersion(source.getDtdVersion());
+		lexicalResource.setGlobalInformation(source.getGlobalInformation());
+		sanitize(lexicalResource);
+		lexiconIter = source.getLexicons().iterator();
+		return lexicalResource;
+	}
+
+	@Override
+	protected Lexicon createNextLexicon() {
+		if (currentLexicon != null) {
+            clearLexicon(currentLexicon);
+        }
+		if (!lexiconIter.hasNext()) {
+			currentLexicon = null;
+			return null;
+		}
+
+		currentLexicon = lexiconIter.next();
+		Lexicon result = new Lexicon();
+		result.setId(currentLexicon.getId());
+		result.setName(currentLexicon.getName());
+		result.setLanguageIdentifier(currentLexicon.getLanguageIdentifier());
+		sanitize(result);
+		return result;
+	}
+
+	@Override
+	protected LexicalEntry getNextLexicalEntry() {
+		return (LexicalEntry) next(currentLexicon.getLexicalEntries());
+	}
+
+	@Override
+	protected SubcategorizationFrame getNextSubcategorizationFrame() {
+		return (SubcategorizationFrame) next(currentLexicon.getSubcategorizationFrames());
+	}
+
+	@Override
+	protected SubcategorizationFrameSet getNextSubcategorizationFrameSet() {
+		return (SubcategorizationFrameSet) next(currentLexicon.getSubcategorizationFrameSets());
+	}
+
+	@Override
+	protected SemanticPredicate getNextSemanticPredicate() {
+		return (SemanticPredicate) next(currentLexicon.getSemanticPredicates());
+	}
+
+	@Override
+	protected Synset getNextSynset() {
+		return (Synset) next(currentLexicon.getSynsets());
+	}
+
+	@Override
+	protected SynSemCorrespondence getNextSynSemCorrespondence() {
+		return (SynSemCorrespondence) next(currentLexicon.getSynSemCorrespondences());
+	}
+
+	@Override
+	protected ConstraintSet getNextConstraintSet() {
+		return (ConstraintSet) next(currentLexicon.getConstraintSets());
+	}
+
+	@Override
+	protected SenseAxis getNextSenseAxis() {
+		return (SenseAxis) next(source.getSenseAxes());
+	}
+
+	/** Saves the remaining direct children of the lexical resource, which
+	 *  are not covered by {@link LMFDBTransformer#transform()}. */
+	@Override
+	protected void finish() {
+		if (source.getPredicateArgumentAxes().isEmpty() && source.getMetaData().isEmpty()) {
+            return;
+        }
+
+		session.update(lexicalResource);
+		PredicateArgumentAxis predicateArgumentAxis;
+		while ((predicateArgumentAxis = (PredicateArgumentAxis) next(source.getPredicateArgumentAxes())) != null) {
+            saveListElement(lexicalResource, lexicalResource.getPredicateArgumentAxes(), predicateArgumentAxis);
+        }
+		commit();
+
+		MetaData metaData;
+		while ((metaData = (MetaData) next(source.getMetaData())) != null) {
+            saveListElement(lexicalResource, lexicalResource.getMetaData(), metaData);
+        }
+		commit();
+	}
+
+	@Override
+	protected String getResourceAlias() {
+		return source.getName();
+	}
+
+	/** Returns the next element of the given list or null if all elements
+	 *  have been returned. The list is cleared afterwards. */
+	protected Object next(final List<?> list) {
+		if (list == null) {
+            return null;
+        }
+		if (list != elementList) {
+			elementList = list;
+			elementIter = list.iterator();
+		}
+		if (elementIter.hasNext()) {
+			Object result = elementIter.next();
+			sanitize(result);
+			return result;
+        }
+		list.clear();
+		elementList = null;
+		return null;
+	}
+
+	/** Removes string attributes with the value "NULL" from the given 
+	 *  element and its children, and replaces the characters of the other 
+	 *  string attributes which cannot be stored in MySQL databases. */
+	protected void sanitize(final Object element) {
+		if (element == null) {
+            return;
+        }
+		for (UBYLMFFieldMetadata field : getClassMetadata(element.getClass()).getMappedFields()) {
+			switch (field.getVarType()) {
+				case ATTRIBUTE:
+				case ATTRIBUTE_OPTIONAL:
+					if (field.getType() != String.class || field.getSetter() == null) {
+                        break;
+                    }
+					String value = (String) field.getValue(element);
+					if ("NULL".equals(value)) {
+                        field.setValue(element, null);
+                    }
+                    else if (value != null) {
+                        field.setValue(element, StringUtils.replaceNonUtf8(value));
+                    }
+					break;
+
+				case CHILD:
+					sanitize(field.getValue(element));
+					break;
+
+				case CHILDREN:
+					Object children = field.getValue(element);
+					if (children instanceof Iterable) {
+						for (Object child : (Iterable<?>) children) {
+                            sanitize(child);
+                        }
+					}
+					break;
+
+				default:
+					break;
+			}
+		}
+	}
+
+	private static void clearLexicon(final Lexicon lexicon) {
+		lexicon.getLexicalEntries().clear();
+		lexicon.getSubcategorizationFrames().clear();
+		lexicon.getSubcategorizationFrameSets().clear();
+		lexicon.getSemanticPredicates().clear();
+		lexicon.getSynsets().clear();
+		lexicon.getSynSemCorrespondences().clear();
+		lexicon.getConstraintSets().clear();
+	}
+
+}
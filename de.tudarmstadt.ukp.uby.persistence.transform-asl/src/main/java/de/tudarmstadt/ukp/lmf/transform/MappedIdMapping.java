@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact mapping of original IDs residing in memory-mapped files. Use this
+ * mapping for converting very large resources (e.g., Wikipedia) in a small
+ * heap. The operating system keeps the recently used pages in memory and
+ * writes the remaining ones to the files in the given directory. The files
+ * are deleted by {@link #close()}.
+ */
+public class MappedIdMapping extends CompactIdMapping {
+
+	protected final File directory;
+
+	private RandomAccessFile keyFile;
+	private final Map<Integer, RandomAccessFile> tableFiles = new HashMap<Integer, RandomAccessFile>();
+
+	/** Initialize a new mapping using files of the given directory, which
+	 *  are mapped in pages of 64 MB. */
+	public MappedIdMapping(final File directory) {
+		this(directory, 26);
+	}
+
+	/** Initialize a new mapping using files of the given directory, which
+	 *  are mapped in pages of 2^pageShift bytes. */
+	public MappedIdMapping(final File directory, int pageShift) {
+		super(pageShift);
+		this.directory = directory;
+		directory.mkdirs();
+	}
+
+	@Override
+	protected ByteBuffer newKeyPage(int page, int size) {
+		try {
+			if (keyFile == null) {
+                keyFile = open(getKeyFile());
+            }
+			return keyFile.getChannel().map(MapMode.READ_WRITE, (long) page << pageShift, size);
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to map " + getKeyFile(), e);
+		}
+	}
+
+	@Override
+	protected ByteBuffer newTablePage(int generation, int page, int size) {
+		try {
+			RandomAccessFile tableFile = tableFiles.get(generation);
+			if (tableFile == null) {
+				tableFile = open(getTableFile(generation));
+				tableFiles.put(generation, tableFile);
+			}
+			return tableFile.getChannel().map(MapMode.READ_WRITE, (long) page << pageShift, size);
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to map " + getTableFile(generation), e);
+		}
+	}
+
+	@Override
+	protected void releaseTable(int generation) {
+		RandomAccessFile tableFile = tableFiles.remove(generation);
+		if (tableFile != null) {
+            closeAndDelete(tableFile, getTableFile(generation));
+        }
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		for (Integer generation : tableFiles.keySet().toArray(new Integer[0])) {
+            releaseTable(generation);
+        }
+		if (keyFile != null) {
+            closeAndDelete(keyFile, getKeyFile());
+        }
+		keyFile = null;
+	}
+
+	protected File getKeyFile() {
+		return new File(directory, "keys.bin");
+	}
+
+	protected File getTableFile(int generation) {
+		return new File(directory, "table-" + generation + ".bin");
+	}
+
+	private static RandomAccessFile open(final File file) throws IOException {
+		RandomAccessFile result = new RandomAccessFile(file, "rw");
+		result.setLength(0);
+		return result;
+	}
+
+	// Mapped pages remain valid until they are garbage collected. Hence,
+	// the file is deleted on exit if it cannot be deleted immediately.
+	private static void closeAndDelete(final RandomAccessFile randomAccessFile, final File file) {
+		try {
+			randomAccessFile.close();
+		} catch (IOException e) {
+			System.err.println("CAN'T CLOSE " + file + ": " + e.getMessage());
+		}
+		if (!file.delete()) {
+            file.deleteOnExit();
+        }
+	}
+
+}
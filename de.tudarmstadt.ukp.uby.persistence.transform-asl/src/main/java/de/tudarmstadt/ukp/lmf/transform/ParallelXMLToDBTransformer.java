@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.dom4j.DocumentException;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.miscellaneous.ConstraintSet;
+import de.tudarmstadt.ukp.lmf.model.semantics.SemanticPredicate;
+import de.tudarmstadt.ukp.lmf.model.semantics.SynSemCorrespondence;
+import de.tudarmstadt.ukp.lmf.model.semantics.Synset;
+import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrame;
+import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrameSet;
+
+/**
+ * Converts a given lexical resource from a UBY-XML file to a UBY database
+ * using several threads. The calling thread parses the file like
+ * {@link XMLStreamToDBTransformer} and passes the direct children of each
+ * Lexicon through a bounded queue to a number of persister threads. Each
+ * persister saves the elements in its own Hibernate session and commits
+ * every {@link #COMMIT_STEP} elements.
+ * <p>
+ * The elements of a lexicon are saved in arbitrary order. This is possible,
+ * since the columns of IDREFs (e.g., the synset of a sense) are mapped
+ * without foreign key constraints. Only the parent rows are required to
+ * exist: the lexical resource and each lexicon are committed before their
+ * children are passed to the persisters. The direct children of the
+ * LexicalResource (SenseAxis, PredicateArgumentAxis, MetaData) are saved
+ * by the calling thread in document order, since their lists are indexed.
+ * <p>
+ * The progress and the throughput are printed every
+ * {@link #PROGRESS_INTERVAL} milliseconds.
+ */
+public class ParallelXMLToDBTransformer extends XMLStreamToDBTransformer {
+
+	/** Number of parsed elements per persister thread that may wait for
+	 *  being saved. */
+	protected static final int QUEUE_SIZE_PER_THREAD = 100;
+
+	/** Minimum time in milliseconds between two progress reports. */
+	protected static final long PROGRESS_INTERVAL = 10000;
+
+	private static final ListElement END = new ListElement(null, null);
+
+	protected final int threads;
+	protected BlockingQueue<ListElement> queue;
+	protected List<Persister> persisters;
+
+	protected final AtomicLong savedEntries = new AtomicLong();
+	protected final AtomicLong savedRows = new AtomicLong();
+	protected final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	protected long parsedEntries;
+	protected long startTime;
+	protected long lastProgress;
+
+	/** Initialize a new transformer using one persister thread per
+	 *  available processor. */
+	public ParallelXMLToDBTransformer(final DBConfig dbConfig) {
+		this(dbConfig, Runtime.getRuntime().availableProcessors());
+	}
+
+	/** Initialize a new transformer using the given number of persister
+	 *  threads. The connection pool is enlarged to provide a connection
+	 *  for each persister and the parsing thread. */
+	public ParallelXMLToDBTransformer(final DBConfig dbConfig, int threads) {
+		super(dbConfig, threads + 1);
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one persister thread is required");
+		}
+		this.threads = threads;
+		metadata = new ConcurrentHashMap<Class<?>, UBYLMFClassMetadata>();
+	}
+
+	@Override
+	protected void read(File xmlFile) throws DocumentException {
+		queue = new ArrayBlockingQueue<ListElement>(threads * QUEUE_SIZE_PER_THREAD);
+		persisters = new ArrayList<Persister>();
+		startTime = System.currentTimeMillis();
+		lastProgress = startTime;
+		for (int i = 0; i < threads; i++) {
+			Persister persister = new Persister(i);
+			persisters.add(persister);
+			persister.start();
+		}
+
+		try {
+			super.read(xmlFile);
+		} finally {
+			for (int i = 0; i < threads; i++) {
+                enqueue(END);
+            }
+			for (Persister persister : persisters) {
+				try {
+					persister.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException(e);
+				}
+			}
+			commitCounter += savedEntries.get();
+			saveCounter += savedRows.get();
+			printProgress();
+		}
+
+		if (failure.get() != null) {
+            throw new RuntimeException("Unable to save the parsed elements", failure.get());
+        }
+	}
+
+	/** Creates a new, empty lexicon and commits it, so that the persisters
+	 *  can save its children. */
+	@Override
+	protected void startLexicon(String id, String name, String languageIdentifier) {
+		super.startLexicon(id, name, languageIdentifier);
+		commit();
+	}
+
+	/** Passes the direct children of the current lexicon to the persisters.
+	 *  The direct children of the LexicalResource are saved immediately. */
+	@Override
+	protected void saveTopLevelElement(Object listElement) {
+		if (listElement == null || getLexiconList(lexicon, listElement) == null) {
+			super.saveTopLevelElement(listElement);
+			return;
+		}
+
+		enqueue(new ListElement(lexicon, listElement));
+		parsedEntries++;
+		if (failure.get() != null) {
+            throw new RuntimeException("Unable to save the parsed elements", failure.get());
+        }
+		if (System.currentTimeMillis() - lastProgress >= PROGRESS_INTERVAL) {
+            printProgress();
+        }
+	}
+
+	private void enqueue(ListElement listElement) {
+		try {
+			queue.put(listElement);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Prints the number of parsed and saved elements and the number of
+	 *  saved rows per second. */
+	protected void printProgress() {
+		lastProgress = System.currentTimeMillis();
+		long time = Math.max(lastProgress - startTime, 1);
+		long rows = savedRows.get();
+		System.out.println(new Date(lastProgress) + ": PARSED " + parsedEntries
+				+ ", SAVED " + savedEntries.get() + " (" + rows + " ROWS, "
+				+ rows * 1000 / time + " ROWS PER SECOND), QUEUED " + queue.size());
+	}
+
+	/** Returns the list of the given lexicon that holds the given element or
+	 *  null if the element is no direct child of a lexicon. */
+	@SuppressWarnings("rawtypes")
+	protected static List getLexiconList(Lexicon lexicon, Object listElement) {
+		if (listElement instanceof LexicalEntry) {
+            return lexicon.getLexicalEntries();
+        } else
+		if (listElement instanceof SemanticPredicate) {
+            return lexicon.getSemanticPredicates();
+        } else
+		if (listElement instanceof SubcategorizationFrame) {
+            return lexicon.getSubcategorizationFrames();
+        } else
+		if (listElement instanceof SubcategorizationFrameSet) {
+            return lexicon.getSubcategorizationFrameSets();
+        } else
+		if (listElement instanceof SynSemCorrespondence) {
+            return lexicon.getSynSemCorrespondences();
+        } else
+		if (listElement instanceof Synset) {
+            return lexicon.getSynsets();
+        } else
+		if (listElement instanceof ConstraintSet) {
+            return lexicon.getConstraintSets();
+        }
+		return null;
+	}
+
+
+	/** A parsed direct child of a lexicon. */
+	protected static class ListElement {
+
+		protected final Lexicon lexicon;
+		protected final Object element;
+
+		public ListElement(final Lexicon lexicon, final Object element) {
+			this.lexicon = lexicon;
+			this.element = element;
+		}
+
+	}
+
+
+	/** Thread saving the elements of the queue using its own session. */
+	protected class Persister extends Thread {
+
+		// Copies of the lexicons of the parsing thread's session.
+		private final Map<String, Lexicon> lexicons = new HashMap<String, Lexicon>();
+		private final Set<String> attachedLexicons = new HashSet<String>();
+		private Session session;
+		private Transaction tx;
+		private int entries;
+
+		public Persister(int index) {
+			super("Persister-" + index);
+		}
+
+		@Override
+		public void run() {
+			session = sessionFactory.openSession();
+			try {
+				session.setFlushMode(FlushMode.COMMIT);
+				session.setCacheMode(CacheMode.IGNORE);
+				tx = session.beginTransaction();
+				ListElement listElement;
+				while ((listElement = queue.take()) != END) {
+					// Keep taking elements after a failure to not block the parser.
+					if (failure.get() == null) {
+                        save(listElement);
+                    }
+				}
+				if (failure.get() == null) {
+                    tx.commit();
+                }
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+				drain();
+			} finally {
+				session.close();
+			}
+		}
+
+		/** Adds the element to its lexicon and saves it. */
+		@SuppressWarnings("unchecked")
+		protected void save(ListElement listElement) {
+			Lexicon lexicon = attach(listElement.lexicon);
+			getLexiconList(lexicon, listElement.element).add(listElement.element);
+			savedRows.addAndGet(saveCascade(session, listElement.element, lexicon));
+			savedEntries.incrementAndGet();
+			entries++;
+			if (entries % COMMIT_STEP == 0) {
+				tx.commit();
+				session.clear();
+				attachedLexicons.clear();
+				tx = session.beginTransaction();
+			}
+		}
+
+		/** Returns this session's copy of the given lexicon. Its lists only
+		 *  contain the elements saved since the last commit. */
+		protected Lexicon attach(Lexicon lexicon) {
+			Lexicon result = lexicons.get(lexicon.getId());
+			if (result == null) {
+				result = new Lexicon();
+				result.setId(lexicon.getId());
+				result.setName(lexicon.getName());
+				result.setLanguageIdentifier(lexicon.getLanguageIdentifier());
+				lexicons.put(lexicon.getId(), result);
+			}
+			if (attachedLexicons.add(lexicon.getId())) {
+				session.update(result);
+				result.getLexicalEntries().clear();
+				result.getSemanticPredicates().clear();
+				result.getSubcategorizationFrames().clear();
+				result.getSubcategorizationFrameSets().clear();
+				result.getSynSemCorrespondences().clear();
+				result.getSynsets().clear();
+				result.getConstraintSets().clear();
+			}
+			return result;
+		}
+
+		private void drain() {
+			try {
+				while (queue.take() != END) {
+                    // Skip the remaining elements.
+                }
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+}
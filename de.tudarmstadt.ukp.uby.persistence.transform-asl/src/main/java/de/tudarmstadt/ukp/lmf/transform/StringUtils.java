@@ -56,8 +56,31 @@ public class StringUtils {
 	 * @return
 	 */
 	public static String replaceNonUtf8(String text){
-		text = text.replaceAll("[^\\u0000-\\uFFFF]", "?");
-		return text;
+		// Replace supplementary characters (i.e., surrogate pairs) in a 
+		// single pass and return the text itself if there are none.
+		int length = text.length();
+		int i = 0;
+		while (i < length && !isSurrogatePair(text, i))
+			i++;
+		if (i == length)
+			return text;
+
+		StringBuilder result = new StringBuilder(length);
+		result.append(text, 0, i);
+		while (i < length) {
+			if (isSurrogatePair(text, i)) {
+				result.append('?');
+				i += 2;
+			} else
+				result.append(text.charAt(i++));
+		}
+		return result.toString();
+	}
+
+	private static boolean isSurrogatePair(final String text, int index) {
+		return Character.isHighSurrogate(text.charAt(index))
+				&& index + 1 < text.length()
+				&& Character.isLowSurrogate(text.charAt(index + 1));
 	}
 	
 	/**
@@ -17,10 +17,11 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.lmf.transform;
 
-import java.lang.reflect.Method;
 import java.util.Date;
 import java.util.List;
 
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
@@ -28,6 +29,7 @@ import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistryBuilder;
 
 import de.tudarmstadt.ukp.lmf.hibernate.HibernateConnect;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYIdGenerator;
 import de.tudarmstadt.ukp.lmf.model.interfaces.IHasParentSpecificTable;
 import de.tudarmstadt.ukp.lmf.model.miscellaneous.EVarType;
 import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
@@ -42,15 +44,43 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 	protected Session session;
 	protected Transaction tx;
 	protected SessionFactory sessionFactory;	
+	protected long saveCounter;	// Number of saved objects
 
+	/** Number of lazy collections and proxies loaded at once. */
+	protected static final int BATCH_FETCH_SIZE = 100;
+
+	/** Initialize a new transformer for writing to the database with the
+	 *  specified configuration. The inserts are sent in JDBC batches of 
+	 *  {@link DBConfig#getBatchSize()} statements, which are ordered by 
+	 *  table to make the batches as large as possible. For MySQL, add 
+	 *  <code>rewriteBatchedStatements=true</code> to the JDBC URL to let the 
+	 *  driver combine each batch into a single statement. */
 	public UBYHibernateTransformer(final DBConfig dbConfig) {
+		this(dbConfig, 1);
+	}
+
+	/** Initialize a new transformer whose sessions are used by the given 
+	 *  number of threads at the same time. The connection pool is enlarged 
+	 *  to hold one more connection, which {@link UBYIdGenerator} needs for 
+	 *  reserving identifiers in a separate transaction. */
+	protected UBYHibernateTransformer(final DBConfig dbConfig, int threads) {
 		super();
 		Configuration cfg = HibernateConnect.getConfiguration(dbConfig);
+		cfg.setProperty("hibernate.c3p0.max_size", String.valueOf(
+				Math.max(dbConfig.getMaxPoolSize(), threads + 1)));
+		cfg.setProperty("hibernate.default_batch_fetch_size", String.valueOf(BATCH_FETCH_SIZE));
 		sessionFactory = cfg.buildSessionFactory(
 				new ServiceRegistryBuilder().applySettings(
 				cfg.getProperties()).buildServiceRegistry());
 	}
 
+	/** Initialize a new transformer using the session factory of another 
+	 *  transformer, e.g., for working on a separate thread. */
+	protected UBYHibernateTransformer(final SessionFactory sessionFactory) {
+		super();
+		this.sessionFactory = sessionFactory;
+	}
+
 	/** Adds the given child element to the list (which should be a member of
 	 *  the specified parent), saves the child, and updates the parent. To 
 	 *  reduce the memory footprint, the changes are periodically committed, 
@@ -83,6 +113,17 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 	 *  For objects implementing the {@link IHasParentSpecificTable} interface,
 	 *  a parent should be specified, which is used to derive the table name. */
 	protected void saveCascade(final Object obj, final Object parent){
+		saveCounter += saveCascade(session, obj, parent);
+	}
+
+	/** Saves the specified object and all its children to the given Hibernate
+	 *  session like {@link #saveCascade(Object, Object)}, but without using 
+	 *  the session and counters of this transformer. This allows several 
+	 *  threads to save objects using their own sessions. 
+	 *  @return the number of saved objects */
+	protected long saveCascade(final Session session, final Object obj, 
+			final Object parent) {
+		long result = 0;
 		Class<?> objClass = obj.getClass();
 		obj.toString();	// It can happen that a Hibernate object is not initialized properly
 						// --> force initialization of object by calling its toString() method
@@ -95,15 +136,11 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 		
 		// Identify dependent child objects and save them.
 		UBYLMFClassMetadata classMeta = getClassMetadata(objClass);			
-		for (UBYLMFFieldMetadata fieldMeta : classMeta.getFields()) {
+		for (UBYLMFFieldMetadata fieldMeta : classMeta.getChildFields()) {
 			EVarType varType = fieldMeta.getVarType();
-			if (varType != EVarType.CHILDREN && varType != EVarType.CHILD)
-				continue;
-			
-			Method getter = fieldMeta.getGetter();
 			Object retObj = null;
 			try {
-				retObj = getter.invoke(obj);
+				retObj = fieldMeta.getValue(obj);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -111,11 +148,11 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 				continue;
 			
 			if (varType == EVarType.CHILD)
-				saveCascade(retObj, obj);
+				result += saveCascade(session, retObj, obj);
 			else 
 			if (varType == EVarType.CHILDREN)
 				for (Object el : (Iterable<?>) retObj)
-					saveCascade(el, obj);
+					result += saveCascade(session, el, obj);
 		}
 		
 		try {
@@ -123,9 +160,11 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 				session.save(objClass.getSimpleName() + "_" + parentClass.getSimpleName(), obj);
 			else
 				session.save(obj);
+			result++;
 		} catch(Exception ex) {
 			System.err.println("CAN'T SAVE "+objClass.getSimpleName()+" PARENT: "+parentClass.getSimpleName() +": "+ex.getMessage());
 		}
+		return result;
 	}
 
 	/** Shorthand for {@link #saveCascade(Object, Object)} with an empty 
@@ -140,9 +179,12 @@ public abstract class UBYHibernateTransformer extends UBYXMLTransformer {
 		return session.get(clazz, id);
 	}
 
-	/** Opens a Hibernate session. */
+	/** Opens a Hibernate session. The session is only flushed on commit 
+	 *  and bypasses the second-level cache. */
 	protected void openSession() {
 		session = sessionFactory.openSession();
+		session.setFlushMode(FlushMode.COMMIT);
+		session.setCacheMode(CacheMode.IGNORE);
 		tx = session.beginTransaction();
 	}
 
@@ -17,12 +17,17 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.lmf.transform;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -37,10 +42,19 @@ import de.tudarmstadt.ukp.lmf.model.miscellaneous.VarType;
  * slow down the application's performance), it is recommended to obtain
  * this meta information just once and store it in a cache (e.g., a simple
  * {@link Map}) using this class as a data model.
+ * <p>
+ * Besides the reflection information, the metadata provides precompiled
+ * {@link MethodHandle}s for reading and writing the field values (see
+ * {@link UBYLMFFieldMetadata#getValue(Object)} and 
+ * {@link UBYLMFFieldMetadata#setValue(Object, Object)}), which are 
+ * considerably faster than {@link Method#invoke(Object, Object...)}.
  * @author Christian M. Meyer
  */
 public class UBYLMFClassMetadata {
 
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
 	/**
 	 * Metadata information of a single field within an LMF class. The
 	 * class should not be instanciated individually. Use
@@ -51,11 +65,14 @@ public class UBYLMFClassMetadata {
 	public static class UBYLMFFieldMetadata {
 
 		protected Field field;
+		protected String xmlName;
 		protected Class<?> type;
 		protected Class<?> genericElementType;
 		protected EVarType varType;
 		protected Method getter;
 		protected Method setter;
+		protected MethodHandle getterHandle;
+		protected MethodHandle setterHandle;
 
 		/** Instanciates a new field metadata cache for the given
 		 *  field. This involves determining the field's type, getter,
@@ -63,7 +80,16 @@ public class UBYLMFClassMetadata {
 		 *  actual type will be used which should match the generic
 		 *  parameter of the enclosing subclass. */
 		protected UBYLMFFieldMetadata(final Field field, final Class<?> actualType) {
+			this(field, actualType, getMethods(field.getDeclaringClass()));
+		}
+
+		/** Instanciates a new field metadata cache for the given
+		 *  field, whose getter and setter are looked up by name in the
+		 *  given public methods of the declaring class. */
+		protected UBYLMFFieldMetadata(final Field field, final Class<?> actualType,
+				final Map<String, Method> methods) {
 			this.field = field;
+			xmlName = field.getName().replace("_", "");
 
 			// Raw type.
 			type = field.getType();
@@ -104,14 +130,19 @@ public class UBYLMFClassMetadata {
             }
 			String setterName = "set" + methodName;
 
-			for (Method method : field.getDeclaringClass().getMethods()) {
-				if (method.getName().equals(getterName)) {
-                    getter = method;
-                }
-                else
-				if (method.getName().equals(setterName)) {
-                    setter = method;
-                }
+			getter = methods.get(getterName);
+			setter = methods.get(setterName);
+			try {
+				if (getter != null) {
+					getterHandle = MethodHandles.publicLookup().unreflect(getter)
+							.asType(GETTER_TYPE);
+				}
+				if (setter != null) {
+					setterHandle = MethodHandles.publicLookup().unreflect(setter)
+							.asType(SETTER_TYPE);
+				}
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException("Unable to access " + field, e);
 			}
 		}
 
@@ -121,6 +152,12 @@ public class UBYLMFClassMetadata {
 			return field.getName();
 		}
 
+		/** Returns the name of the field in UBY-XML, i.e., the field name 
+		 *  without underscores. */
+		public String getXmlName() {
+			return xmlName;
+		}
+
 		/** Returns the data type of this field. For generic types, the raw
 		 *  type will be returned (e.g., List for List&lt;Number&gt;). Use
 		 *  {@link #getGenericElementType()} for obtaining the generic
@@ -183,11 +220,58 @@ public class UBYLMFClassMetadata {
 			return setter;
 		}
 
+		/** Returns the value of this field of the given object using 
+		 *  the getter method. */
+		public Object getValue(final Object obj) {
+			if (getterHandle == null) {
+                throw new RuntimeException("Missing getter for : " + field);
+            }
+			try {
+				return getterHandle.invokeExact(obj);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		/** Sets this field of the given object to the given value using
+		 *  the setter method. */
+		public void setValue(final Object obj, final Object value) {
+			if (setterHandle == null) {
+                throw new RuntimeException("Missing setter for : " + field);
+            }
+			try {
+				setterHandle.invokeExact(obj, value);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+	}
+
+	/** Returns the public methods of the given class by their names. For
+	 *  overloaded methods, the last one returned by reflection is kept. */
+	protected static Map<String, Method> getMethods(final Class<?> clazz) {
+		Map<String, Method> result = new HashMap<String, Method>();
+		for (Method method : clazz.getMethods()) {
+            result.put(method.getName(), method);
+        }
+		return result;
 	}
 
 
 	protected Class<?> clazz;
 	protected List<UBYLMFFieldMetadata> fields;
+	protected List<UBYLMFFieldMetadata> mappedFields;
+	protected List<UBYLMFFieldMetadata> childFields;
+	protected Map<String, UBYLMFFieldMetadata> childFieldsByElement;
 
 	/** Create a new metadata representation for the given LMF class.
 	 *  That is, the implementation determines information on all declared
@@ -196,8 +280,9 @@ public class UBYLMFClassMetadata {
 	public UBYLMFClassMetadata(final Class<?> clazz) {
 		this.clazz = clazz;
 		fields = new ArrayList<UBYLMFFieldMetadata>();
+		Map<String, Method> methods = getMethods(clazz);
 		for (Field field : clazz.getDeclaredFields()) {
-            fields.add(new UBYLMFFieldMetadata(field, null));
+            fields.add(new UBYLMFFieldMetadata(field, null, methods));
         }
 
 		Type superClassType = clazz.getGenericSuperclass();
@@ -217,12 +302,40 @@ public class UBYLMFClassMetadata {
                 superClass = (Class<?>) superClassType;
             }
 
+			methods = getMethods(superClass);
 			for (Field field : superClass.getDeclaredFields()) {
-                fields.add(new UBYLMFFieldMetadata(field, genericType));
+                fields.add(new UBYLMFFieldMetadata(field, genericType, methods));
             }
 
 			superClassType = superClass.getGenericSuperclass();
 		}
+
+		// Precompute the fields visited by the transformers.
+		mappedFields = new ArrayList<UBYLMFFieldMetadata>();
+		childFields = new ArrayList<UBYLMFFieldMetadata>();
+		childFieldsByElement = new HashMap<String, UBYLMFFieldMetadata>();
+		for (UBYLMFFieldMetadata field : fields) {
+			EVarType varType = field.getVarType();
+			if (varType != EVarType.NONE) {
+                mappedFields.add(field);
+            }
+			Class<?> childType = null;
+			if (varType == EVarType.CHILD) {
+                childType = field.getType();
+            }
+            else
+			if (varType == EVarType.CHILDREN) {
+                childType = field.getGenericElementType();
+            }
+			if (varType == EVarType.CHILD || varType == EVarType.CHILDREN) {
+                childFields.add(field);
+            }
+			if (childType != null && !childFieldsByElement.containsKey(childType.getSimpleName())) {
+                childFieldsByElement.put(childType.getSimpleName(), field);
+            }
+		}
+		mappedFields = Collections.unmodifiableList(mappedFields);
+		childFields = Collections.unmodifiableList(childFields);
 	}
 
 	/** Return the meta information of all fields the current LMF class
@@ -231,6 +344,27 @@ public class UBYLMFClassMetadata {
 		return fields;
 	}
 
+	/** Return the meta information of all fields which are mapped to 
+	 *  UBY-XML, i.e., all fields whose variable type is not 
+	 *  {@link EVarType#NONE}. */
+	public List<UBYLMFFieldMetadata> getMappedFields() {
+		return mappedFields;
+	}
+
+	/** Return the meta information of all fields holding child elements,
+	 *  i.e., all fields of the variable type {@link EVarType#CHILD} or
+	 *  {@link EVarType#CHILDREN}. */
+	public List<UBYLMFFieldMetadata> getChildFields() {
+		return childFields;
+	}
+
+	/** Returns the meta information of the field holding the child 
+	 *  elements with the given UBY-XML element name, or null if the 
+	 *  current LMF class has no such child elements. */
+	public UBYLMFFieldMetadata getChildField(final String elementName) {
+		return childFieldsByElement.get(elementName);
+	}
+
 	/** Returns the class type for which the metadata is stored. */
 	public Class<?> getClazz() {
 		return clazz;
@@ -17,9 +17,10 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.lmf.transform;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Abstract base class for all transformations of lexical resources. 
@@ -30,11 +31,18 @@ import java.util.TreeMap;
 public abstract class UBYTransformer {
 
 	protected static final int COMMIT_STEP = 1000;
+	private static final int ID_CLASS_SHIFT = 48;
+	private static final long ID_NUMBER_MASK = (1L << ID_CLASS_SHIFT) - 1;
 	protected int commitCounter;
 	protected Map<Class<?>, UBYLMFClassMetadata> metadata;
 
-	/** Mapping of Resource unique IDs to LMF unique IDs. */
-	protected Map<String, String> idMapping;
+	/** Mapping of Resource unique IDs to LMF unique IDs. The upper bits of
+	 *  each value are the index of the LMF class in {@link #idClasses}, the
+	 *  lower bits are the number of the LMF ID. */
+	protected IdMapping idMapping;
+
+	/** LMF classes of the mapped IDs. */
+	protected List<Class<?>> idClasses;
 
 	/** Current LMF ID for each LMF Class. */
 	protected Map<Class<?>, Long> currentClassId;
@@ -43,10 +51,19 @@ public abstract class UBYTransformer {
 		commitCounter = 0;
 		metadata = new HashMap<Class<?>, UBYLMFClassMetadata>();
 		
-		idMapping = new TreeMap<String, String>();
+		idMapping = new HeapIdMapping();
+		idClasses = new ArrayList<Class<?>>();
 		currentClassId = new HashMap<Class<?>, Long>();
 	}
 
+	/** Replaces the mapping of Resource unique IDs to LMF unique IDs, e.g.,
+	 *  by a {@link MappedIdMapping} for very large resources. Needs to be
+	 *  called before the transformation. The caller is responsible for
+	 *  closing the mapping afterwards. */
+	public void setIdMapping(final IdMapping idMapping) {
+		this.idMapping = idMapping;
+	}
+
 	/** Returns LMF class metadata for the specified class type. If the
 	 *  metadata information is not yet in the cache, it will be newly
 	 *  created using the reflection API. */
@@ -62,21 +79,30 @@ public abstract class UBYTransformer {
 
 	/** Maps unique original ID to unique LMF ID. */
 	protected String getLmfId(final Class<?> clazz, final String originalId) {
-		String result = idMapping.get(originalId); 
-		if (result != null)
-			return result;
+		long value = idMapping.get(originalId); 
+		if (value >= 0)
+			return formatLmfId(idClasses.get((int) (value >>> ID_CLASS_SHIFT)),
+					value & ID_NUMBER_MASK);
 		
 		Long currentId = currentClassId.get(clazz);
 		if (currentId == null)
 			currentId = 1L;
 
+		int classIndex = idClasses.indexOf(clazz);
+		if (classIndex < 0) {
+			classIndex = idClasses.size();
+			idClasses.add(clazz);
+		}
+		idMapping.put(originalId, ((long) classIndex << ID_CLASS_SHIFT) | currentId);
+		currentClassId.put(clazz, currentId + 1);
+		return formatLmfId(clazz, currentId);
+	}
+
+	/** Returns the LMF ID with the given number for the specified class. */
+	protected String formatLmfId(final Class<?> clazz, long number) {
 		String classId = clazz.getSimpleName();
 		classId = classId.substring(0,1).toLowerCase() + classId.substring(1);
-
-		result = getResourceAlias() + "_" + classId + "_" + currentId;
-		idMapping.put(originalId, result);
-		currentClassId.put(clazz, currentId + 1);
-		return result;
+		return getResourceAlias() + "_" + classId + "_" + number;
 	}
 
 	/** Returns id of lexical resource. */
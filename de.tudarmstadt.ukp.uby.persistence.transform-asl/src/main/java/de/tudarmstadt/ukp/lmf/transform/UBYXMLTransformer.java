@@ -18,8 +18,6 @@
 package de.tudarmstadt.ukp.lmf.transform;
 
 import java.io.OutputStream;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,7 +34,6 @@ import org.xml.sax.helpers.AttributesImpl;
 
 import de.tudarmstadt.ukp.lmf.model.interfaces.IHasID;
 import de.tudarmstadt.ukp.lmf.model.miscellaneous.AccessType;
-import de.tudarmstadt.ukp.lmf.model.miscellaneous.EVarType;
 import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
 
 /**
@@ -111,19 +108,12 @@ public abstract class UBYXMLTransformer extends UBYTransformer {
 		List<Object> children = new ArrayList<Object>();
 		
 		UBYLMFClassMetadata classMeta = getClassMetadata(lmfClass);			
-		for (UBYLMFFieldMetadata fieldMeta : classMeta.getFields()) {
-			EVarType varType = fieldMeta.getVarType();
-			if (varType == EVarType.NONE)
-				continue;
-
-			String xmlFieldName = fieldMeta.getName().replace("_", "");
-			Method getter = fieldMeta.getGetter();
+		for (UBYLMFFieldMetadata fieldMeta : classMeta.getMappedFields()) {
+			String xmlFieldName = fieldMeta.getXmlName();
 			Object retObj;
 			try {
-				retObj = getter.invoke(lmfObject);
-			} catch (IllegalAccessException e) {
-				throw new SAXException(e);
-			} catch (InvocationTargetException e) {
+				retObj = fieldMeta.getValue(lmfObject);
+			} catch (RuntimeException e) {
 				throw new SAXException(e);
 			}
 			
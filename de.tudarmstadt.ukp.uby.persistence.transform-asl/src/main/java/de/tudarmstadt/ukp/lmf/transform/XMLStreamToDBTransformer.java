@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dom4j.DocumentException;
+import org.hibernate.SessionFactory;
+
+import de.tudarmstadt.ukp.lmf.model.miscellaneous.EVarType;
+import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
+
+/**
+ * Converts a given lexical resource from a UBY-XML file to a UBY database
+ * using Hibernate. In contrast to {@link XMLToDBTransformer}, the file is
+ * read with a StAX {@link XMLStreamReader} and the UBY-LMF objects are
+ * created directly from the parser events, without building dom4j element
+ * trees. This reduces the memory consumption and garbage collection load
+ * for large files.
+ */
+public class XMLStreamToDBTransformer extends XMLToDBTransformer {
+
+	public XMLStreamToDBTransformer(final DBConfig dbConfig) {
+		super(dbConfig);
+	}
+
+	protected XMLStreamToDBTransformer(final DBConfig dbConfig, int threads) {
+		super(dbConfig, threads);
+	}
+
+	protected XMLStreamToDBTransformer(final SessionFactory sessionFactory) {
+		super(sessionFactory);
+	}
+
+	@Override
+	protected void read(File xmlFile) throws DocumentException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try {
+			InputStream inputStream = new BufferedInputStream(new FileInputStream(xmlFile));
+			try {
+				XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+				try {
+					while (reader.hasNext()) {
+						if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                            startElement(reader);
+                        }
+					}
+				} finally {
+					reader.close();
+				}
+			} finally {
+				inputStream.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new DocumentException(e);
+		} catch (IOException e) {
+			throw new DocumentException(e);
+		}
+	}
+
+	/** Handles the start tag the reader is positioned at. Direct children of
+	 *  Lexicon and LexicalResource are read completely and saved. */
+	protected void startElement(XMLStreamReader reader) throws XMLStreamException {
+		String n = reader.getLocalName();
+		Class<?> listElementClass = getTopLevelElementClass(n);
+		if (listElementClass != null) {
+			saveTopLevelElement(fromXmlToObject(reader, listElementClass));
+		} else
+		if ("LexicalResource".equals(n)) {
+			startLexicalResource(getAttribute(reader, "name"), getAttribute(reader, "dtdVersion"));
+		} else
+		if ("Lexicon".equals(n)) {
+			startLexicon(getAttribute(reader, "id"), getAttribute(reader, "name"),
+					getAttribute(reader, "languageIdentifier"));
+		} else
+		if ("GlobalInformation".equals(n)) {
+			saveGlobalInformation(getAttribute(reader, "label"));
+		}
+	}
+
+	/**
+	 * Transforms the XML element the reader is positioned at and all its
+	 * children to a Java object. Afterwards, the reader is positioned at the
+	 * end tag of the element.
+	 * @param reader XML reader positioned at a start tag
+	 * @param clazz Java-Class of the Element
+	 * @return the new object or null, if the object could not be created
+	 * @throws XMLStreamException if the XML file cannot be read
+	 */
+	protected Object fromXmlToObject(XMLStreamReader reader, Class<?> clazz)
+			throws XMLStreamException {
+		UBYLMFClassMetadata classMeta = getClassMetadata(clazz);
+		Map<UBYLMFFieldMetadata, List<Object>> childLists =
+				new HashMap<UBYLMFFieldMetadata, List<Object>>();
+		Object lmfObject;
+		try {
+			lmfObject = clazz.newInstance();
+			for (UBYLMFFieldMetadata fieldMeta : classMeta.getMappedFields()) {
+				EVarType varType = fieldMeta.getVarType();
+				if (varType == EVarType.CHILDREN) {
+					if (fieldMeta.getGenericElementType() == null) {
+                        throw new RuntimeException("Unable to obtain list element class for field " + fieldMeta.getName());
+                    }
+					childLists.put(fieldMeta, new ArrayList<Object>());
+				} else
+				if (varType != EVarType.CHILD) {
+					Object newValue = fromXmlToValue(
+							getAttribute(reader, fieldMeta.getXmlName()), fieldMeta);
+					if (newValue != null) {
+                        setValue(lmfObject, fieldMeta, newValue);
+                    }
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			lmfObject = null;
+		}
+
+		// Read the child elements up to the end tag of the current element.
+		while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+			if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+			UBYLMFFieldMetadata fieldMeta = classMeta.getChildField(reader.getLocalName());
+			if (lmfObject == null || fieldMeta == null) {
+				skipElement(reader);
+				continue;
+			}
+			if (fieldMeta.getVarType() == EVarType.CHILD) {
+				Object child = fromXmlToObject(reader, fieldMeta.getType());
+				try {
+					if (fieldMeta.getValue(lmfObject) == null) {
+                        setValue(lmfObject, fieldMeta, child);
+                    }
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					lmfObject = null;
+				}
+			}
+            else {
+                childLists.get(fieldMeta).add(
+                		fromXmlToObject(reader, fieldMeta.getGenericElementType()));
+            }
+		}
+
+		if (lmfObject == null) {
+            return null;
+        }
+		try {
+			for (Map.Entry<UBYLMFFieldMetadata, List<Object>> childList : childLists.entrySet()) {
+                setValue(lmfObject, childList.getKey(), childList.getValue());
+            }
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return lmfObject;
+	}
+
+	private static void setValue(Object lmfObject, UBYLMFFieldMetadata fieldMeta, Object value) {
+		if (fieldMeta.getSetter() == null) {
+            throw new RuntimeException("Missing setter for : " + lmfObject.getClass() + "." + fieldMeta.getXmlName());
+        }
+		fieldMeta.setValue(lmfObject, value);
+	}
+
+	/** Skips the element the reader is positioned at including all its
+	 *  children. */
+	protected static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else
+			if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+		}
+	}
+
+	/** Returns the value of the given attribute of the current element
+	 *  without invalid characters, or null if the attribute is missing or
+	 *  has the value NULL. */
+	protected static String getAttribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		if (value == null || "NULL".equals(value)) {
+            return null;
+        }
+		return StringUtils.replaceNonUtf8(value);
+	}
+
+}
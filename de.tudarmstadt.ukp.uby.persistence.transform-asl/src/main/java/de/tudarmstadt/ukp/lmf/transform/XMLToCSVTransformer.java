@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.dom4j.DocumentException;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.IndexedCollection;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.Table;
+import org.hibernate.mapping.ToOne;
+import org.hibernate.mapping.Value;
+
+import de.tudarmstadt.ukp.lmf.hibernate.HibernateConnect;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.GlobalInformation;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.interfaces.IHasParentSpecificTable;
+import de.tudarmstadt.ukp.lmf.model.miscellaneous.EVarType;
+import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
+
+/**
+ * Converts a given lexical resource from a UBY-XML file to delimited files,
+ * one for each table of the UBY database. The files can be loaded into a
+ * MySQL or H2 database using {@link LMFDBUtils#loadTables(DBConfig, File)},
+ * which is much faster than saving the objects to these databases using
+ * Hibernate.
+ * <p>
+ * The file is read like by {@link XMLStreamToDBTransformer}, but the
+ * objects are written to the files instead of a Hibernate session. The
+ * columns of each row, including the foreign keys and list indexes set by
+ * the parent, are taken from the Hibernate mapping. Thereby, the files
+ * contain exactly the rows that would be saved by {@link XMLToDBTransformer}.
+ * <p>
+ * The generated ids (e.g., of FormRepresentations) start at 1 in each file.
+ * Their number per table is written to {@value LMFDBUtils#ID_COUNT_FILE},
+ * which allows {@link LMFDBUtils#loadTables(DBConfig, File)} to reserve
+ * the ids in the database and shift the rows behind the existing ones.
+ * Hence, the files can also be loaded into a database holding other
+ * resources.
+ */
+public class XMLToCSVTransformer extends XMLStreamToDBTransformer {
+
+	protected final File directory;
+	protected final Configuration cfg;
+
+	protected Map<String, TableFile> tableFiles;
+	protected Map<String, Long> idCounts; // Number of generated ids per table
+	protected Map<Object, Long> generatedIds;
+	protected Map<Object, Integer> listSizes;
+	protected boolean lexicalResourceWritten;
+
+	/** Initialize a new transformer writing the delimited files to the
+	 *  given directory. No database is required. */
+	public XMLToCSVTransformer(final File directory) {
+		super((SessionFactory) null);
+		this.directory = directory;
+		// Only the mapping is used, no connection is opened.
+		cfg = HibernateConnect.getConfiguration(new DBConfig("jdbc:h2:mem:uby_csv",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "sa", "", false));
+		cfg.buildMappings();
+	}
+
+	/**
+	 * Read xml File and write its contents to delimited files
+	 * @param xmlFile
+	 * @param lexicalResourceName not used, since the files always contain
+	 *  the lexical resource of the xml File
+	 * @throws DocumentException
+	 */
+	@Override
+	public void transform(File xmlFile, String lexicalResourceName) throws DocumentException {
+		long startTime = System.currentTimeMillis();
+
+		tableFiles = new HashMap<String, TableFile>();
+		idCounts = new HashMap<String, Long>();
+		generatedIds = new IdentityHashMap<Object, Long>();
+		listSizes = new IdentityHashMap<Object, Integer>();
+		lexicalResource = null;
+		lexicalResourceWritten = false;
+		try {
+			openTableFiles();
+			try {
+				read(xmlFile);
+				writeLexicalResource();
+			} finally {
+				closeTableFiles();
+			}
+			writeIdCounts();
+		} catch (IOException e) {
+			throw new DocumentException(e);
+		}
+
+		long time = System.currentTimeMillis() - startTime;
+		System.out.println("TOTAL TIME: " + time);
+		System.out.println("NUM ENTRIES: " + commitCounter);
+		System.out.println("NUM ROWS: " + saveCounter);
+		System.out.println("ROWS PER SECOND: " + saveCounter * 1000 / Math.max(time, 1));
+	}
+
+	/** Creates the directory and a file with a header line for each table. */
+	protected void openTableFiles() throws IOException {
+		directory.mkdirs();
+		Iterator<Table> iter = cfg.getTableMappings();
+		while (iter.hasNext()) {
+			Table table = iter.next();
+			if (table.isPhysicalTable())
+				tableFiles.put(table.getName(), new TableFile(
+						LMFDBUtils.getTableFile(directory, table), table));
+		}
+	}
+
+	protected void closeTableFiles() throws IOException {
+		IOException exception = null;
+		for (TableFile tableFile : tableFiles.values())
+			try {
+				tableFile.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+		if (exception != null)
+			throw exception;
+	}
+
+	/** Writes the number of generated ids per table. */
+	protected void writeIdCounts() throws IOException {
+		Properties properties = new Properties();
+		for (Map.Entry<String, Long> idCount : idCounts.entrySet())
+			properties.setProperty(idCount.getKey(), idCount.getValue().toString());
+		OutputStream out = new FileOutputStream(new File(directory, LMFDBUtils.ID_COUNT_FILE));
+		try {
+			properties.store(out, "Number of generated ids per table");
+		} finally {
+			out.close();
+		}
+	}
+
+	/** Creates the lexical resource, whose row is written as soon as its
+	 *  global information is known. */
+	@Override
+	protected void startLexicalResource(String name, String dtdVersion) {
+		lexicalResource = new LexicalResource();
+		lexicalResource.setName(name);
+		lexicalResource.setDtdVersion(dtdVersion);
+	}
+
+	@Override
+	protected void startLexicon(String id, String name, String languageIdentifier) {
+		writeLexicalResource();
+		lexicon = new Lexicon();
+		lexicon.setId(id);
+		lexicon.setName(name);
+		lexicon.setLanguageIdentifier(languageIdentifier);
+		lexicalResource.addLexicon(lexicon);
+		saveListRow(lexicalResource, lexicalResource.getLexicons(), lexicon,
+				lexicalResource.getLexicons().size() - 1);
+	}
+
+	@Override
+	protected void saveGlobalInformation(String label) {
+		GlobalInformation glInformation = new GlobalInformation();
+		glInformation.setLabel(label);
+		lexicalResource.setGlobalInformation(glInformation);
+		writeCascade(glInformation, lexicalResource, null, -1);
+		writeLexicalResource();
+	}
+
+	/** Writes the row of the lexical resource, if not written yet. */
+	protected void writeLexicalResource() {
+		if (lexicalResource == null || lexicalResourceWritten)
+			return;
+		writeRow(lexicalResource, LexicalResource.class.getName(), null, null, -1);
+		lexicalResourceWritten = true;
+	}
+
+	/** Writes the rows of the child element of the specified parent. In
+	 *  contrast to the Hibernate import, the child is not added to the
+	 *  list, only the list index is counted. */
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected void saveListElement(final Object parent, final List list,
+			final Object child) {
+		Integer index = listSizes.get(list);
+		if (index == null)
+			index = 0;
+		listSizes.put(list, index + 1);
+		saveListRow(parent, list, child, index);
+		commitCounter++;
+		if (commitCounter % COMMIT_STEP == 0)
+			commit();
+	}
+
+	/** Writes the rows of an element of the given list of the parent. The
+	 *  generated ids of the element's children are forgotten afterwards,
+	 *  since they cannot be referenced by other elements. */
+	protected void saveListRow(final Object parent, final Object list,
+			final Object child, int index) {
+		Collection collection = null;
+		for (UBYLMFFieldMetadata fieldMeta : getClassMetadata(parent.getClass()).getChildFields())
+			if (fieldMeta.getValue(parent) == list)
+				collection = cfg.getCollectionMapping(getEntityName(parent, null)
+						+ "." + fieldMeta.getName());
+		writeCascade(child, parent, collection, index);
+		generatedIds.clear();
+	}
+
+	/** Flushes the delimited files. */
+	@Override
+	protected void commit() {
+		System.out.println(new Date(System.currentTimeMillis()) + ": COMMIT " + commitCounter);
+		try {
+			for (TableFile tableFile : tableFiles.values())
+				tableFile.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Writes the rows of the specified object and all its children like
+	 *  {@link #saveCascade(Object, Object)} saves them. The object is an
+	 *  element of the given collection of the parent with the given index,
+	 *  or a single child if the collection is null. */
+	protected void writeCascade(final Object obj, final Object parent,
+			final Collection collection, int index) {
+		String entityName = getEntityName(obj, parent);
+		for (UBYLMFFieldMetadata fieldMeta : getClassMetadata(obj.getClass()).getChildFields()) {
+			Object value = null;
+			try {
+				value = fieldMeta.getValue(obj);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			if (value == null)
+				continue;
+
+			if (fieldMeta.getVarType() == EVarType.CHILD)
+				writeCascade(value, obj, null, -1);
+			else
+			if (fieldMeta.getVarType() == EVarType.CHILDREN) {
+				Collection children = cfg.getCollectionMapping(entityName + "." + fieldMeta.getName());
+				int i = 0;
+				for (Object child : (Iterable<?>) value)
+					writeCascade(child, obj, children, i++);
+			}
+		}
+		writeRow(obj, entityName, parent, collection, index);
+	}
+
+	/** Returns the entity name the object is saved with by
+	 *  {@link #saveCascade(Object, Object)}. */
+	protected static String getEntityName(final Object obj, final Object parent) {
+		Class<?> objClass = obj.getClass();
+		if (obj instanceof IHasParentSpecificTable)
+			return objClass.getSimpleName() + "_"
+					+ (parent != null ? parent.getClass() : objClass).getSimpleName();
+		return objClass.getName();
+	}
+
+	/** Writes the row of the given object. Its columns are the mapped
+	 *  properties of the entity and, if the collection is not null, the key
+	 *  and index column of the collection. */
+	protected void writeRow(final Object obj, final String entityName,
+			final Object parent, final Collection collection, int index) {
+		PersistentClass persistentClass = cfg.getClassMapping(entityName);
+		if (persistentClass == null) {
+			System.err.println("CAN'T SAVE " + obj.getClass().getSimpleName()
+					+ ": unknown entity " + entityName);
+			return;
+		}
+
+		TableFile tableFile = tableFiles.get(persistentClass.getTable().getName());
+		Object[] row = tableFile.newRow();
+		tableFile.set(row, persistentClass.getIdentifier(), getId(persistentClass, obj));
+		Iterator<?> iter = persistentClass.getPropertyIterator();
+		while (iter.hasNext()) {
+			Property property = (Property) iter.next();
+			Value value = property.getValue();
+			if (!property.isInsertable() || value instanceof Collection)
+				continue;
+
+			Object propertyValue = property.getGetter(persistentClass.getMappedClass()).get(obj);
+			if (propertyValue != null && value instanceof ToOne)
+				propertyValue = getId(cfg.getClassMapping(
+						((ToOne) value).getReferencedEntityName()), propertyValue);
+			tableFile.set(row, value, propertyValue);
+		}
+		if (collection != null) {
+			tableFile.set(row, collection.getKey(), getId(collection.getOwner(), parent));
+			if (collection instanceof IndexedCollection)
+				tableFile.set(row, ((IndexedCollection) collection).getIndex(), index);
+		}
+
+		try {
+			tableFile.write(row);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		saveCounter++;
+	}
+
+	/** Returns the id of the given object. Generated ids are assigned in
+	 *  the order the objects are written, starting at 1 for each table. */
+	protected Object getId(final PersistentClass persistentClass, final Object obj) {
+		if (!LMFDBUtils.isGeneratedId(persistentClass))
+			return persistentClass.getIdentifierProperty()
+					.getGetter(persistentClass.getMappedClass()).get(obj);
+
+		Long id = generatedIds.get(obj);
+		if (id == null) {
+			String tableName = persistentClass.getTable().getName();
+			Long count = idCounts.get(tableName);
+			id = (count == null ? 0 : count) + 1;
+			idCounts.put(tableName, id);
+			generatedIds.put(obj, id);
+		}
+		return id;
+	}
+
+	/** Delimited file of a table. The values are written in the column
+	 *  order of the table mapping, quoted with double quotes, and NULL
+	 *  is written unquoted for missing values. */
+	protected static class TableFile {
+
+		protected final Writer writer;
+		protected final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+
+		public TableFile(final File file, final Table table) throws IOException {
+			writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), "UTF-8"));
+			Iterator<?> iter = table.getColumnIterator();
+			while (iter.hasNext()) {
+				String name = ((Column) iter.next()).getName();
+				if (!columnIndexes.isEmpty())
+					writer.write(',');
+				writer.write(quote(name));
+				columnIndexes.put(name, columnIndexes.size());
+			}
+			writer.write('\n');
+		}
+
+		public Object[] newRow() {
+			return new Object[columnIndexes.size()];
+		}
+
+		/** Sets the columns of the given value in the row. */
+		public void set(final Object[] row, final Value value, final Object columnValue) {
+			Iterator<?> iter = value.getColumnIterator();
+			while (iter.hasNext())
+				row[columnIndexes.get(((Column) iter.next()).getName())] = columnValue;
+		}
+
+		public void write(final Object[] row) throws IOException {
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0)
+					writer.write(',');
+				writer.write(format(row[i]));
+			}
+			writer.write('\n');
+		}
+
+		public void flush() throws IOException {
+			writer.flush();
+		}
+
+		public void close() throws IOException {
+			writer.close();
+		}
+
+		/** Returns the column value as it is read by LOAD DATA and CSVREAD.
+		 *  Booleans are written as 0 and 1, enums by their name. */
+		protected static String format(final Object value) {
+			if (value == null)
+				return "NULL";
+			if (value instanceof Boolean)
+				return quote((Boolean) value ? "1" : "0");
+			if (value instanceof Enum)
+				return quote(((Enum<?>) value).name());
+			if (value instanceof Date)
+				return quote(new Timestamp(((Date) value).getTime()).toString());
+			return quote(value.toString());
+		}
+
+		protected static String quote(final String value) {
+			return '"' + value.replace("\"", "\"\"") + '"';
+		}
+	}
+
+}
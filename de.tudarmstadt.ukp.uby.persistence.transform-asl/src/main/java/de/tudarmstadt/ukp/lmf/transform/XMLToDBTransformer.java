@@ -21,10 +21,11 @@ package de.tudarmstadt.ukp.lmf.transform;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.dom4j.Attribute;
 import org.dom4j.DocumentException;
@@ -32,6 +33,7 @@ import org.dom4j.Element;
 import org.dom4j.ElementHandler;
 import org.dom4j.ElementPath;
 import org.dom4j.io.SAXReader;
+import org.hibernate.SessionFactory;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -65,10 +67,29 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 	protected Lexicon lexicon; // Current lexicon
 	protected boolean externalLexicalResource;
 
+	/** Direct children of Lexicon and LexicalResource, which are saved one by one. */
+	protected static final Map<String, Class<?>> TOP_LEVEL_ELEMENTS = new HashMap<String, Class<?>>();
+	static {
+		for (Class<?> clazz : new Class<?>[] { LexicalEntry.class, SemanticPredicate.class,
+				SubcategorizationFrame.class, SubcategorizationFrameSet.class,
+				SynSemCorrespondence.class, Synset.class, ConstraintSet.class,
+				SenseAxis.class, PredicateArgumentAxis.class, MetaData.class }) {
+            TOP_LEVEL_ELEMENTS.put(clazz.getSimpleName(), clazz);
+        }
+	}
+
 	public XMLToDBTransformer(final DBConfig dbConfig) {
 		super(dbConfig);
 	}
 
+	protected XMLToDBTransformer(final DBConfig dbConfig, int threads) {
+		super(dbConfig, threads);
+	}
+
+	protected XMLToDBTransformer(final SessionFactory sessionFactory) {
+		super(sessionFactory);
+	}
+
 	/**
 	 * Read xml File and save its contents to Database
 	 * @param xmlFile
@@ -85,6 +106,26 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
             lexicalResource = (LexicalResource) session.get(LexicalResource.class, lexicalResourceName);
         }
 
+		read(xmlFile);
+
+		commit();
+		closeSession();
+
+		long time = System.currentTimeMillis() - startTime;
+		System.out.println("TOTAL TIME: " + time);
+		System.out.println("NUM ENTRIES: " + commitCounter);
+		System.out.println("NUM ROWS: " + saveCounter);
+		System.out.println("ROWS PER SECOND: " + saveCounter * 1000 / Math.max(time, 1));
+	}
+
+	/**
+	 * Reads the xml File and saves its elements using 
+	 * {@link #startLexicalResource(String, String)}, {@link #startLexicon(String, String, String)},
+	 * {@link #saveGlobalInformation(String)} and {@link #saveTopLevelElement(Object)}.
+	 * @param xmlFile
+	 * @throws DocumentException
+	 */
+	protected void read(File xmlFile) throws DocumentException {
 		SAXReader reader = new SAXReader(false);
 		reader.setEntityResolver(new EntityResolver() {
 			@Override
@@ -98,12 +139,6 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 		});
 		reader.setDefaultHandler(this);
 		reader.read(xmlFile);
-
-		commit();
-		closeSession();
-
-		System.out.println("TOTAL TIME: " + (System.currentTimeMillis() - startTime));
-		System.out.println("NUM ENTRIES: " + commitCounter);
 	}
 
 	@Override
@@ -124,91 +159,112 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 		}
 
 		if ("LexicalResource".equals(n)) {
-			// If no lexical resource exists yet, create a new one.
-			if (lexicalResource == null){
-				lexicalResource = new LexicalResource();
-				lexicalResource.setName(el.attributeValue("name"));
-				lexicalResource.setDtdVersion(el.attributeValue("dtdVersion"));
-				session.save(lexicalResource);
-			}
-            else {
-                externalLexicalResource = true;
-            }
+			startLexicalResource(el.attributeValue("name"), el.attributeValue("dtdVersion"));
 		} else
 		if ("Lexicon".equals(n)) {
-			// Create a new, empty lexicon.
-			lexicon = new Lexicon();
-			lexicon.setId(el.attributeValue("id"));
-			lexicon.setName(el.attributeValue("name"));
-			lexicon.setLanguageIdentifier(el.attributeValue("languageIdentifier"));
-			lexicalResource.addLexicon(lexicon);
-			saveCascade(lexicon, lexicalResource);
+			startLexicon(el.attributeValue("id"), el.attributeValue("name"),
+					el.attributeValue("languageIdentifier"));
+        }
+        else if ("GlobalInformation".equals(n)) {
+            saveGlobalInformation(el.attributeValue("label"));
+        }
+	}
+
+	/** Creates a new lexical resource, if no lexical resource exists yet. */
+	protected void startLexicalResource(String name, String dtdVersion) {
+		if (lexicalResource == null){
+			lexicalResource = new LexicalResource();
+			lexicalResource.setName(name);
+			lexicalResource.setDtdVersion(dtdVersion);
+			session.save(lexicalResource);
+		}
+        else {
+            externalLexicalResource = true;
         }
-        // Save some global information if we're using a new lexical resource.
-        else if ("GlobalInformation".equals(n) && !externalLexicalResource) {
-            GlobalInformation glInformation = new GlobalInformation();
-            glInformation.setLabel(el.attributeValue("label"));
-            lexicalResource.setGlobalInformation(glInformation);
-            saveCascade(glInformation, lexicalResource);
-            commit();
-            lexicalResource.setGlobalInformation(null);
+	}
+
+	/** Creates a new, empty lexicon. */
+	protected void startLexicon(String id, String name, String languageIdentifier) {
+		lexicon = new Lexicon();
+		lexicon.setId(id);
+		lexicon.setName(name);
+		lexicon.setLanguageIdentifier(languageIdentifier);
+		lexicalResource.addLexicon(lexicon);
+		saveCascade(lexicon, lexicalResource);
+	}
+
+	/** Saves some global information if we're using a new lexical resource. */
+	protected void saveGlobalInformation(String label) {
+		if (externalLexicalResource) {
+            return;
         }
+        GlobalInformation glInformation = new GlobalInformation();
+        glInformation.setLabel(label);
+        lexicalResource.setGlobalInformation(glInformation);
+        saveCascade(glInformation, lexicalResource);
+        commit();
+        lexicalResource.setGlobalInformation(null);
 	}
 
 	@Override
 	public void onEnd(ElementPath epath) {
 		Element el = epath.getCurrent();
-		String n = el.getName();
-		Object listElement = null;
+		Class<?> listElementClass = getTopLevelElementClass(el.getName());
+		if (listElementClass == null) {
+            return;
+        }
 
+		Object listElement = fromXmlToObject(el, listElementClass);
+		saveTopLevelElement(listElement);
+
+		// Forget the corresponding XML elements of the saved instances.
+		if (listElement != null) {
+            el.detach();
+        }
+	}
+
+	/** Returns the class of the direct children of Lexicon and 
+	 *  LexicalResource with the given element name, which are saved one
+	 *  by one, or null for all other elements. */
+	protected Class<?> getTopLevelElementClass(String elementName) {
+		return TOP_LEVEL_ELEMENTS.get(elementName);
+	}
+
+	/** Saves a direct child of the current Lexicon or LexicalResource. */
+	protected void saveTopLevelElement(Object listElement) {
 		// Create instances for all direct children of Lexicon.
-		if ("LexicalEntry".equals(n)) {
-			listElement = fromXmlToObject(el, LexicalEntry.class);
+		if (listElement instanceof LexicalEntry) {
 			saveListElement(lexicon, lexicon.getLexicalEntries(), listElement);
 		} else
-		if ("SemanticPredicate".equals(n)) {
-			listElement = fromXmlToObject(el, SemanticPredicate.class);
+		if (listElement instanceof SemanticPredicate) {
 			saveListElement(lexicon, lexicon.getSemanticPredicates(), listElement);
 		} else
-		if ("SubcategorizationFrame".equals(n)) {
-			listElement = fromXmlToObject(el, SubcategorizationFrame.class);
+		if (listElement instanceof SubcategorizationFrame) {
 			saveListElement(lexicon, lexicon.getSubcategorizationFrames(), listElement);
 		} else
-		if ("SubcategorizationFrameSet".equals(n)) {
-			listElement = fromXmlToObject(el, SubcategorizationFrameSet.class);
+		if (listElement instanceof SubcategorizationFrameSet) {
 			saveListElement(lexicon, lexicon.getSubcategorizationFrameSets(), listElement);
 		} else
-		if ("SynSemCorrespondence".equals(n)) {
-			listElement = fromXmlToObject(el, SynSemCorrespondence.class);
+		if (listElement instanceof SynSemCorrespondence) {
 			saveListElement(lexicon, lexicon.getSynSemCorrespondences(), listElement);
 		} else
-		if ("Synset".equals(n)) {
-			listElement = fromXmlToObject(el, Synset.class);
+		if (listElement instanceof Synset) {
 			saveListElement(lexicon, lexicon.getSynsets(), listElement);
 		} else
-		if ("ConstraintSet".equals(n)) {
-			listElement = fromXmlToObject(el, ConstraintSet.class);
+		if (listElement instanceof ConstraintSet) {
 			saveListElement(lexicon, lexicon.getConstraintSets(), listElement);
 		} else
 
 		// Create instances for all direct children of LexicalResource.
-		if ("SenseAxis".equals(n)) {
-			listElement = fromXmlToObject(el, SenseAxis.class);
+		if (listElement instanceof SenseAxis) {
 			saveListElement(lexicalResource, lexicalResource.getSenseAxes(), listElement);
 		} else
-		if ("PredicateArgumentAxis".equals(n)) {
-				listElement = fromXmlToObject(el, PredicateArgumentAxis.class);
-				saveListElement(lexicalResource, lexicalResource.getPredicateArgumentAxes(), listElement);
-			} else
-		if ("MetaData".equals(n)) {
-			listElement = fromXmlToObject(el, MetaData.class);
+		if (listElement instanceof PredicateArgumentAxis) {
+			saveListElement(lexicalResource, lexicalResource.getPredicateArgumentAxes(), listElement);
+		} else
+		if (listElement instanceof MetaData) {
 			saveListElement(lexicalResource, lexicalResource.getMetaData(), listElement);
 		}
-
-		// Forget the corresponding XML elements of the saved instances.
-		if (listElement != null) {
-            el.detach();
-        }
 	}
 
 	/**
@@ -221,8 +277,8 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 		try {
 			Object lmfObject = clazz.newInstance();
 			UBYLMFClassMetadata classMeta = getClassMetadata(clazz);
-			for (UBYLMFFieldMetadata fieldMeta : classMeta.getFields()) {
-				String xmlFieldName = fieldMeta.getName().replace("_", "");
+			for (UBYLMFFieldMetadata fieldMeta : classMeta.getMappedFields()) {
+				String xmlFieldName = fieldMeta.getXmlName();
 				Class<?> fieldType = fieldMeta.getType();
 
 				// Determine the field's value from the current XML element.
@@ -230,31 +286,12 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 				switch (fieldMeta.getVarType()) {
 					case ATTRIBUTE:
 					case ATTRIBUTE_OPTIONAL:
-						String attrValue = el.attributeValue(xmlFieldName);
-						if (attrValue == null) {
+					case IDREF:
+					case IDREFS:
+						newValue = fromXmlToValue(el.attributeValue(xmlFieldName), fieldMeta);
+						if (newValue == null) {
                             continue;
                         }
-
-						newValue = attrValue;
-						if (fieldMeta.isBoolean()) {
-                            newValue = GenericUtils.getBoolean(attrValue);
-                        }
-                        else
-						if (fieldMeta.isInteger()) {
-                            newValue = GenericUtils.getInteger(attrValue);
-                        }
-                        else
-						if (fieldMeta.isDouble()) {
-                            newValue = GenericUtils.getDouble(attrValue);
-                        }
-                        else
-						if (fieldMeta.isEnum()) {
-                            newValue = GenericUtils.getEnum(fieldType, attrValue);
-                        }
-						else
-						if (fieldMeta.isDate()){
-							newValue = GenericUtils.getDate(attrValue);
-						}
 						break;
 
 					case CHILD:
@@ -279,48 +316,15 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 						newValue = childList;
 						break;
 
-					case IDREF:
-						String idref = el.attributeValue(xmlFieldName);
-						if (idref == null || idref.isEmpty()) {
-                            continue;
-                        }
-
-						IHasID obj = (IHasID) fieldType.newInstance();
-						obj.setId(idref);
-						newValue = obj;
-						break;
-
-					case IDREFS:
-						String idStr = el.attributeValue(xmlFieldName);
-						if (idStr == null || idStr.isEmpty()) {
-                            continue;
-                        }
-
-						elementClass = fieldMeta.getGenericElementType();
-						if (elementClass == null) {
-                            throw new RuntimeException("Unable to obtain list element class for field " + fieldMeta.getName());
-                        }
-
-						List<Object> idrefList = new ArrayList<Object>();
-						String ids[] = idStr.split(" ");
-						for (String id : ids) {
-							obj = (IHasID) elementClass.newInstance();
-							obj.setId(id);
-							idrefList.add(obj);
-						}
-						newValue = idrefList;
-						break;
-
 					case NONE:
 						continue;
 				}
 
 				// Save the new value using the setter method.
-				Method setter = fieldMeta.getSetter();
-				if (setter == null) {
+				if (fieldMeta.getSetter() == null) {
                     throw new RuntimeException("Missing setter for : " + lmfObject.getClass() + "." + xmlFieldName);
                 }
-				setter.invoke(lmfObject, newValue);
+				fieldMeta.setValue(lmfObject, newValue);
 			}
 			return lmfObject;
 		} catch (Exception e) {
@@ -329,6 +333,78 @@ public class XMLToDBTransformer extends UBYHibernateTransformer
 		return null;
 	}
 
+	/**
+	 * Converts the value of an XML attribute to the value of the given 
+	 * attribute or IDREF(S) field.
+	 * @param value the attribute value or null, if the attribute is missing
+	 * @param fieldMeta the field the attribute is mapped to
+	 * @return the field value or null, if the field should not be set
+	 * @throws InstantiationException if an IDREF cannot be created
+	 * @throws IllegalAccessException if an IDREF cannot be created
+	 */
+	protected Object fromXmlToValue(String value, UBYLMFFieldMetadata fieldMeta)
+			throws InstantiationException, IllegalAccessException {
+		if (value == null) {
+            return null;
+        }
+		Class<?> fieldType = fieldMeta.getType();
+		switch (fieldMeta.getVarType()) {
+			case ATTRIBUTE:
+			case ATTRIBUTE_OPTIONAL:
+				if (fieldMeta.isBoolean()) {
+                    return GenericUtils.getBoolean(value);
+                }
+                else
+				if (fieldMeta.isInteger()) {
+                    return GenericUtils.getInteger(value);
+                }
+                else
+				if (fieldMeta.isDouble()) {
+                    return GenericUtils.getDouble(value);
+                }
+                else
+				if (fieldMeta.isEnum()) {
+                    return GenericUtils.getEnum(fieldType, value);
+                }
+				else
+				if (fieldMeta.isDate()){
+					return GenericUtils.getDate(value);
+				}
+				return value;
+
+			case IDREF:
+				if (value.isEmpty()) {
+                    return null;
+                }
+
+				IHasID obj = (IHasID) fieldType.newInstance();
+				obj.setId(value);
+				return obj;
+
+			case IDREFS:
+				if (value.isEmpty()) {
+                    return null;
+                }
+
+				Class<?> elementClass = fieldMeta.getGenericElementType();
+				if (elementClass == null) {
+                    throw new RuntimeException("Unable to obtain list element class for field " + fieldMeta.getName());
+                }
+
+				List<Object> idrefList = new ArrayList<Object>();
+				String ids[] = value.split(" ");
+				for (String id : ids) {
+					obj = (IHasID) elementClass.newInstance();
+					obj.setId(id);
+					idrefList.add(obj);
+				}
+				return idrefList;
+
+			default:
+				return null;
+		}
+	}
+
 	@Override
 	protected String getResourceAlias() {
 		return lexicalResource.getName();
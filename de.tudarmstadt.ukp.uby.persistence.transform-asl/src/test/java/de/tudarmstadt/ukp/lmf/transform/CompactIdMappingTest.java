@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the heap and the file-backed {@link CompactIdMapping}, using small
+ * pages to cover page boundaries and several table resizes.
+ *
+ */
+public class CompactIdMappingTest
+{
+
+	private static final int IDS = 100000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testHeapIdMapping() {
+		checkMapping(new HeapIdMapping(12));
+	}
+
+	@Test
+	public void testMappedIdMapping() throws IOException {
+		File directory = folder.newFolder("idMapping");
+		checkMapping(new MappedIdMapping(directory, 12));
+		assertEquals(0, directory.listFiles().length);
+	}
+
+	private static void checkMapping(final IdMapping idMapping) {
+		try {
+			assertEquals(-1, idMapping.get("Art"));
+			for (int i = 0; i < IDS; i++) {
+                idMapping.put("Art" + i + "_ä", i);
+            }
+			idMapping.put("Art7_ä", 42);
+			assertEquals(IDS, idMapping.size());
+			for (int i = 0; i < IDS; i++) {
+                assertEquals(i == 7 ? 42 : i, idMapping.get("Art" + i + "_ä"));
+            }
+			assertTrue(idMapping.containsKey("Art0_ä"));
+			assertFalse(idMapping.containsKey("Art0"));
+			assertFalse(idMapping.containsKey("Art" + IDS + "_ä"));
+		} finally {
+			try {
+				idMapping.close();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.dom4j.DocumentException;
+import org.hibernate.Session;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.GlobalInformation;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.model.enums.ELanguageIdentifier;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+import de.tudarmstadt.ukp.lmf.model.morphology.FormRepresentation;
+import de.tudarmstadt.ukp.lmf.model.morphology.Lemma;
+import de.tudarmstadt.ukp.lmf.model.semantics.Synset;
+
+/**
+ * Checks that saving a {@link LexicalResource} with the
+ * {@link LexicalResourceToDBTransformer} creates the same database as
+ * writing it to UBY-XML and importing it with the {@link XMLToDBTransformer}.
+ *
+ */
+public class LexicalResourceToDBTransformerTest
+{
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testTransform() throws IOException, SAXException, DocumentException {
+		File xmlFile = folder.newFile("resource.xml");
+		File dtdFile = folder.newFile("resource.dtd");
+		LMFXmlWriter writer = new LMFXmlWriter(xmlFile.getAbsolutePath(), dtdFile.getAbsolutePath());
+		writer.writeElement(createLexicalResource());
+		writer.writeEndDocument();
+		DBConfig xmlDBConfig = createDB("xmlImport");
+		new XMLToDBTransformer(xmlDBConfig).transform(xmlFile, "TestResource");
+		Uby xmlUby = new Uby(xmlDBConfig);
+
+		DBConfig dbConfig = createDB("objectImport");
+		new LexicalResourceToDBTransformer(dbConfig, createLexicalResource()).transform();
+		Uby uby = new Uby(dbConfig);
+
+		assertEquals(countRows(xmlUby), countRows(uby));
+		LexicalEntry xmlEntry = xmlUby.getLexicalEntryById("TestLexicon_LexicalEntry_1");
+		LexicalEntry entry = uby.getLexicalEntryById("TestLexicon_LexicalEntry_1");
+		assertEquals(xmlEntry.getLemmaForm(), entry.getLemmaForm());
+		assertEquals("smile?", entry.getLemmaForm());
+		assertNull(xmlEntry.getSeparableParticle());
+		assertNull(entry.getSeparableParticle());
+
+		Sense xmlSense = xmlUby.getSenseById("TestLexicon_Sense_1");
+		Sense sense = uby.getSenseById("TestLexicon_Sense_1");
+		assertEquals(xmlSense.getIndex(), sense.getIndex());
+		assertEquals(xmlSense.getSynset().getId(), sense.getSynset().getId());
+		assertEquals(xmlSense.getLexicalEntry().getId(), sense.getLexicalEntry().getId());
+	}
+
+	/** Creates a small resource with a lexical entry, a sense, and a 
+	 *  synset. The lemma contains a supplementary character and the 
+	 *  separable particle is "NULL", which should both be sanitized. */
+	private static LexicalResource createLexicalResource() {
+		LexicalResource lexicalResource = new LexicalResource();
+		lexicalResource.setName("TestResource");
+		lexicalResource.setDtdVersion("0.3.0");
+		GlobalInformation globalInformation = new GlobalInformation();
+		globalInformation.setLabel("TestResource");
+		lexicalResource.setGlobalInformation(globalInformation);
+
+		Lexicon lexicon = new Lexicon();
+		lexicon.setId("TestLexicon");
+		lexicon.setName("TestLexicon");
+		lexicon.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		lexicalResource.addLexicon(lexicon);
+
+		Synset synset = new Synset("TestLexicon_Synset_1");
+		List<Synset> synsets = new ArrayList<Synset>();
+		synsets.add(synset);
+		lexicon.setSynsets(synsets);
+
+		LexicalEntry lexicalEntry = new LexicalEntry("TestLexicon_LexicalEntry_1");
+		lexicalEntry.setPartOfSpeech(EPartOfSpeech.noun);
+		lexicalEntry.setSeparableParticle("NULL");
+		lexicalEntry.setLexicon(lexicon);
+		FormRepresentation formRepresentation = new FormRepresentation();
+		formRepresentation.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		formRepresentation.setWrittenForm("smile\uD83D\uDE00");
+		List<FormRepresentation> formRepresentations = new ArrayList<FormRepresentation>();
+		formRepresentations.add(formRepresentation);
+		Lemma lemma = new Lemma();
+		lemma.setFormRepresentations(formRepresentations);
+		lexicalEntry.setLemma(lemma);
+
+		Sense sense = new Sense("TestLexicon_Sense_1");
+		sense.setIndex(1);
+		sense.setSynset(synset);
+		sense.setLexicalEntry(lexicalEntry);
+		List<Sense> senses = new ArrayList<Sense>();
+		senses.add(sense);
+		lexicalEntry.setSenses(senses);
+		lexicon.addLexicalEntry(lexicalEntry);
+		return lexicalResource;
+	}
+
+	private static DBConfig createDB(final String name) throws IOException {
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		return dbConfig;
+	}
+
+	private static Map<String, Long> countRows(final Uby uby) {
+		Map<String, Long> counts = new TreeMap<String, Long>();
+		Session session = uby.getSession();
+		for (String entityName : uby.getSessionFactory().getAllClassMetadata().keySet()) {
+			counts.put(entityName, (Long) session.createQuery("select count(*) from " + entityName).uniqueResult());
+		}
+		return counts;
+	}
+
+}
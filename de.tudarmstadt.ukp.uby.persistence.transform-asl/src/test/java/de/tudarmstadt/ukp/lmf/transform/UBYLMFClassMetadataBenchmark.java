@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.lmf.transform;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.transform.UBYLMFClassMetadata.UBYLMFFieldMetadata;
+
+/**
+ * Compares reading and writing the fields of LMF objects through
+ * {@link Method#invoke(Object, Object...)} and through the precompiled
+ * accessors of {@link UBYLMFFieldMetadata}. Not run as part of the
+ * regular test suite.
+ *
+ */
+public class UBYLMFClassMetadataBenchmark
+{
+
+	private static final int ROUNDS = 5;
+	private static final int OBJECTS = 1000000;
+
+	@Test
+	public void benchmarkAccessors() throws Exception {
+		List<UBYLMFFieldMetadata> fields = new UBYLMFClassMetadata(Sense.class).getMappedFields();
+		Sense sense = new Sense();
+		sense.setId("WN_Sense_1");
+		sense.setIndex(1);
+		UBYLMFFieldMetadata idField = null;
+		for (UBYLMFFieldMetadata field : fields)
+			if (field.getName().equals("id"))
+				idField = field;
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			int reflectionCount = 0;
+			for (int i = 0; i < OBJECTS; i++) {
+				for (UBYLMFFieldMetadata field : fields) {
+					if (field.getGetter().invoke(sense) != null)
+						reflectionCount++;
+				}
+				idField.getSetter().invoke(sense, "WN_Sense_1");
+			}
+			long reflectionTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int handleCount = 0;
+			for (int i = 0; i < OBJECTS; i++) {
+				for (UBYLMFFieldMetadata field : fields) {
+					if (field.getValue(sense) != null)
+						handleCount++;
+				}
+				idField.setValue(sense, "WN_Sense_1");
+			}
+			long handleTime = System.nanoTime() - start;
+
+			assertEquals(reflectionCount, handleCount);
+			System.out.println("Round " + round + ": Method.invoke " + reflectionTime / 1000000
+					+ " ms, method handles " + handleTime / 1000000 + " ms for " + OBJECTS
+					+ " objects with " + fields.size() + " fields");
+		}
+	}
+}
@@ -19,8 +19,11 @@ package de.tudarmstadt.ukp.test.resources;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.dom4j.DocumentException;
+import org.hibernate.Session;
 
 import de.tudarmstadt.ukp.lmf.api.Uby;
 import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
@@ -65,6 +68,21 @@ public class UbyTestDbProvider {
 		return uby;
 	}
 
+	/**
+	 * Counts the rows of every mapped entity, e.g. to compare two imports of the same lexicon.
+	 *
+	 * @param uby the database to count
+	 * @return the row counts, sorted by entity name
+	 */
+	public static Map<String, Long> countRows(Uby uby) {
+		Map<String, Long> counts = new TreeMap<String, Long>();
+		Session session = uby.getSession();
+		for (String entityName : uby.getSessionFactory().getAllClassMetadata().keySet()) {
+			counts.put(entityName, (Long) session.createQuery("select count(*) from " + entityName).uniqueResult());
+		}
+		return counts;
+	}
+
 
 
 }
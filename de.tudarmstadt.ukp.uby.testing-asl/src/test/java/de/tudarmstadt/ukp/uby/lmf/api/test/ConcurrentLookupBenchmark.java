@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Compares the lookup throughput of a single thread and of one thread per
+ * available processor sharing a concurrent {@link Uby} instance on the
+ * in-memory test database. Not run as part of the regular test suite.
+ *
+ */
+public class ConcurrentLookupBenchmark
+{
+
+	private static final int LOOKUPS = 20000;
+	private static final String[] WORDS = {"run", "question", "notaword"};
+
+	@Test
+	public void benchmarkLookups() throws Exception{
+		new UbyTestDbProvider();
+		Uby uby = new Uby(createDBConfig(false));
+		// warm up
+		int expected = lookup(uby, LOOKUPS);
+
+		long start = System.nanoTime();
+		int found = lookup(uby, LOOKUPS);
+		long singleTime = System.nanoTime() - start;
+		assertEquals(expected, found);
+		uby.closeSession();
+
+		final int threads = Runtime.getRuntime().availableProcessors();
+		final Uby concurrentUby = new Uby(createDBConfig(true));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try{
+			lookup(concurrentUby, LOOKUPS);
+
+			start = System.nanoTime();
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for(int t = 0; t < threads; t++){
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						return lookup(concurrentUby, LOOKUPS / threads);
+					}
+				}));
+			}
+			found = 0;
+			for(Future<Integer> result : results){
+				found += result.get();
+			}
+			long concurrentTime = System.nanoTime() - start;
+			assertEquals(threads * lookup(concurrentUby, LOOKUPS / threads), found);
+
+			int lookups = LOOKUPS / threads * threads;
+			System.out.println("Single thread: " + (long) (LOOKUPS / (singleTime / 1e9)) + " lookups/s");
+			System.out.println(threads + " threads:     " + (long) (lookups / (concurrentTime / 1e9))
+					+ " lookups/s (pool size " + concurrentUby.getDbConfig().getMaxPoolSize() + ")");
+		}
+		finally{
+			executor.shutdown();
+			concurrentUby.closeSession();
+		}
+	}
+
+	private static DBConfig createDBConfig(boolean concurrent){
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		dbConfig.setMaxStatements(100);
+		dbConfig.setConcurrent(concurrent);
+		return dbConfig;
+	}
+
+	/** Looks up the lexical entries of the words in turn and returns the number of entries found. */
+	private static int lookup(Uby uby, int lookups){
+		int found = 0;
+		for(int i = 0; i < lookups; i++){
+			found += uby.getLexicalEntries(WORDS[i % WORDS.length], null, null).size();
+			uby.releaseSession();
+		}
+		return found;
+	}
+}
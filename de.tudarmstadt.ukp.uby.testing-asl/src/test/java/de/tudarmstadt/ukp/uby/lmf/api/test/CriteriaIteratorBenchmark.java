@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileNotFoundException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.jdbc.Work;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.CriteriaIterator;
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.semantics.Synset;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+
+/**
+ * Compares offset paging and keyset paging of {@link CriteriaIterator} on a
+ * large in-memory database and checks that both return the same synsets. Not
+ * run as part of the regular test suite.
+ *
+ */
+public class CriteriaIteratorBenchmark
+{
+
+	private static final int ROWS = 300000;
+	private static final int BUFFER_SIZE = 500;
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void benchmarkSynsetIteration() throws FileNotFoundException{
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:iteratorBenchmark;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		Uby uby = new Uby(dbConfig);
+		fillSynsets(uby.getSession());
+
+		long start = System.currentTimeMillis();
+		Iterator<Synset> offsetIterator = new CriteriaIterator<Synset>(
+				DetachedCriteria.forClass(Synset.class).addOrder(Order.asc("id")),
+				uby.getSessionFactory(), BUFFER_SIZE);
+		List<String> offsetIds = collectIds(offsetIterator);
+		long offsetTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		uby.setIteratorBufferSize(BUFFER_SIZE);
+		List<String> keysetIds = collectIds(uby.getSynsetIterator(null));
+		long keysetTime = System.currentTimeMillis() - start;
+
+		uby.closeSession();
+
+		assertEquals(ROWS, offsetIds.size());
+		assertEquals(offsetIds, keysetIds);
+		System.out.println("Offset paging: " + offsetTime + " ms for " + ROWS + " synsets");
+		System.out.println("Keyset paging: " + keysetTime + " ms for " + ROWS + " synsets");
+	}
+
+	private static List<String> collectIds(Iterator<Synset> iterator){
+		List<String> ids = new ArrayList<String>();
+		while(iterator.hasNext()){
+			ids.add(iterator.next().getId());
+		}
+		return ids;
+	}
+
+	private static void fillSynsets(Session session){
+		session.beginTransaction();
+		session.doWork(new Work() {
+			@Override
+			public void execute(Connection connection) throws SQLException {
+				PreparedStatement lexicon = connection.prepareStatement(
+						"INSERT INTO Lexicon (lexiconId, lexiconName) VALUES ('Bench_Lexicon', 'Bench')");
+				lexicon.executeUpdate();
+				lexicon.close();
+
+				PreparedStatement synset = connection.prepareStatement(
+						"INSERT INTO Synset (synsetId, lexiconId) VALUES (?, 'Bench_Lexicon')");
+				for(int i = 0; i < ROWS; i++){
+					synset.setString(1, "Bench_Synset_" + i);
+					synset.addBatch();
+					if(i % 1000 == 0)
+						synset.executeBatch();
+				}
+				synset.executeBatch();
+				synset.close();
+			}
+		});
+		session.getTransaction().commit();
+	}
+}
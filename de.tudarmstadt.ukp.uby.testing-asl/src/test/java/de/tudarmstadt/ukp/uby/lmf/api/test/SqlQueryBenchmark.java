@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.api.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileNotFoundException;
+
+import org.dom4j.DocumentException;
+import org.hibernate.Session;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.UbyQuickAPI;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Compares the per-call latency of string-concatenated SQL and of the
+ * parameterized queries used by {@link UbyQuickAPI} on the in-memory
+ * test database. Not run as part of the regular test suite.
+ *
+ */
+public class SqlQueryBenchmark
+{
+
+	private static final int CALLS = 20000;
+	private static final int DISTINCT_IDS = 5000;
+
+	@Test
+	public void benchmarkAlignedSenseIDs() throws FileNotFoundException, DocumentException{
+		new UbyTestDbProvider();
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		dbConfig.setMaxStatements(100);
+		UbyQuickAPI uby = new UbyQuickAPI(dbConfig);
+		Session session = uby.getSession();
+
+		// warm up both code paths
+		assertEquals(concatenated(session, "WN_Sense_2"), uby.alignedSenseIDs("WN_Sense_2").size());
+
+		long start = System.nanoTime();
+		for(int i = 0; i < CALLS; i++)
+			concatenated(session, "WN_Sense_" + (i % DISTINCT_IDS));
+		long concatenatedTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for(int i = 0; i < CALLS; i++)
+			uby.alignedSenseIDs("WN_Sense_" + (i % DISTINCT_IDS));
+		long parameterizedTime = System.nanoTime() - start;
+
+		System.out.println("Concatenated SQL:  " + concatenatedTime / CALLS / 1000.0 + " us per call");
+		System.out.println("Parameterized SQL: " + parameterizedTime / CALLS / 1000.0 + " us per call");
+	}
+
+	private static int concatenated(Session session, String id){
+		String sql = "Select senseOneId, senseTwoId from SenseAxis where senseOneId='"
+				+ id + "' or senseTwoId='" + id + "'";
+		return session.createSQLQuery(sql).list().size();
+	}
+}
@@ -19,30 +19,53 @@ package de.tudarmstadt.ukp.uby.lmf.api.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.dom4j.DocumentException;
+import org.hibernate.Criteria;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
 import org.junit.Test;
 
+import de.tudarmstadt.ukp.lmf.api.SenseAlignmentIndex;
+import de.tudarmstadt.ukp.lmf.api.StreamingIterator;
 import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.api.UbyQuickAPI;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.GlobalInformation;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
 import de.tudarmstadt.ukp.lmf.model.core.Sense;
 import de.tudarmstadt.ukp.lmf.model.enums.ELabelTypeSemantics;
 import de.tudarmstadt.ukp.lmf.model.enums.ELanguageIdentifier;
 import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
 import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
+import de.tudarmstadt.ukp.lmf.model.morphology.FormRepresentation;
+import de.tudarmstadt.ukp.lmf.model.morphology.Lemma;
 import de.tudarmstadt.ukp.lmf.model.multilingual.SenseAxis;
 import de.tudarmstadt.ukp.lmf.model.semantics.SemanticArgument;
 import de.tudarmstadt.ukp.lmf.model.semantics.SemanticPredicate;
 import de.tudarmstadt.ukp.lmf.model.semantics.SynSemArgMap;
 import de.tudarmstadt.ukp.lmf.model.semantics.Synset;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
 import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
 
 
@@ -129,6 +152,118 @@ public class UbyTest
 		assertEquals(lexEntries.size(), 2);
 	}
 
+	@Test
+	public void testLexicalEntriesBatch() throws IllegalArgumentException{
+		List<String> words = Arrays.asList("run", "question", "notaword");
+		Map<String, List<LexicalEntry>> lexEntries = uby.getLexicalEntries(words, null, null);
+		assertEquals(lexEntries.size(), 3);
+		assertTrue(lexEntries.get("notaword").isEmpty());
+		for(String word : words){
+			Set<String> ids = new HashSet<String>();
+			for(LexicalEntry le : uby.getLexicalEntries(word, null, null)){
+				ids.add(le.getId());
+			}
+			assertEquals(ids.size(), lexEntries.get(word).size());
+			for(LexicalEntry le : lexEntries.get(word)){
+				assertTrue(ids.contains(le.getId()));
+			}
+		}
+
+		Lexicon lexicon = uby.getLexiconByName("FrameNet");
+		lexEntries = uby.getLexicalEntries(words, EPartOfSpeech.verb, lexicon);
+		assertEquals(lexEntries.get("run").size(), 1);
+		assertEquals(lexEntries.get("run").get(0).getId(), "FN_LexicalEntry_4417");
+	}
+
+	@Test
+	public void testLexicalEntriesBatchCaseVariants() throws Exception{
+		List<String> words = Arrays.asList("Bush", "bush");
+		for(boolean ignoreCase : new boolean[]{false, true}){
+			Uby caseUby = createCaseVariantUby(ignoreCase);
+			try{
+				Map<String, List<LexicalEntry>> lexEntries = caseUby.getLexicalEntries(words, null, null);
+				for(String word : words){
+					Set<String> ids = new HashSet<String>();
+					for(LexicalEntry le : caseUby.getLexicalEntries(word, null, null)){
+						ids.add(le.getId());
+					}
+					Set<String> batchIds = new HashSet<String>();
+					for(LexicalEntry le : lexEntries.get(word)){
+						batchIds.add(le.getId());
+					}
+					assertEquals(ids, batchIds);
+				}
+				assertEquals(ignoreCase ? 2 : 1, lexEntries.get("Bush").size());
+			}
+			finally{
+				caseUby.closeSession();
+			}
+		}
+	}
+
+	@Test
+	public void testMostFrequentSense() throws IllegalArgumentException{
+		List<String> words = Arrays.asList("run", "question", "notaword");
+		Lexicon lexicon = uby.getLexiconByName("WordNet");
+		for(EPartOfSpeech pos : new EPartOfSpeech[]{EPartOfSpeech.noun, EPartOfSpeech.verb}){
+			Map<String, Sense> senses = uby.getMostFrequentSenses(words, pos, lexicon);
+			for(String word : words){
+				Sense expected = null;
+				for(LexicalEntry le : uby.getLexicalEntries(word, pos, lexicon)){
+					for(Sense sense : le.getSenses()){
+						if(sense.getIndex() == 1){
+							expected = sense;
+						}
+					}
+				}
+				Sense sense = uby.getMostFrequentSense(word, pos, lexicon);
+				if(expected == null){
+					assertNull(sense);
+					assertFalse(senses.containsKey(word));
+				}
+				else{
+					assertEquals(expected.getId(), sense.getId());
+					assertEquals(expected.getId(), senses.get(word).getId());
+				}
+			}
+		}
+		assertNotNull(uby.getMostFrequentSense("question", EPartOfSpeech.verb, lexicon));
+
+		// Without filters, the sense with the smallest id is chosen among all lexical entries
+		String smallestId = null;
+		for(LexicalEntry le : uby.getLexicalEntries("run", null, null)){
+			for(Sense sense : le.getSenses()){
+				if(sense.getIndex() == 1 && (smallestId == null || sense.getId().compareTo(smallestId) < 0)){
+					smallestId = sense.getId();
+				}
+			}
+		}
+		Sense mfs = uby.getMostFrequentSense("run", null, null);
+		assertEquals(smallestId, mfs == null ? null : mfs.getId());
+	}
+
+	@Test
+	public void testMostFrequentSenseCaseVariants() throws Exception{
+		List<String> words = Arrays.asList("Bush", "bush");
+		for(boolean ignoreCase : new boolean[]{false, true}){
+			Uby caseUby = createCaseVariantUby(ignoreCase);
+			try{
+				Map<String, Sense> senses = caseUby.getMostFrequentSenses(words, null, null);
+				for(String word : words){
+					assertEquals(caseUby.getMostFrequentSense(word, null, null).getId(),
+							senses.get(word).getId());
+				}
+				// "bush" has the sense with the smaller id
+				assertEquals(ignoreCase ? "CaseLexicon_Sense_1" : "CaseLexicon_Sense_2",
+						senses.get("Bush").getId());
+				assertEquals("CaseLexicon_Sense_1", senses.get("bush").getId());
+			}
+			finally{
+				caseUby.closeSession();
+			}
+		}
+	}
+
 	@Test
 	public void testSenses() throws IllegalArgumentException{
 
@@ -198,6 +333,110 @@ public class UbyTest
         assertEquals(extSenses.size(), 0);
 	}
 
+	@Test
+	public void testKeysetIterator() throws IllegalArgumentException{
+		uby.setIteratorBufferSize(3);
+		Iterator<Sense> iter = uby.getSenseIterator(null);
+		Set<String> senseIds = new HashSet<String>();
+		String lastId = null;
+		while(iter.hasNext()){
+			String id = iter.next().getId();
+			if(lastId != null){
+				assertTrue(id.compareTo(lastId) > 0);
+			}
+			senseIds.add(id);
+			lastId = id;
+		}
+		assertEquals(uby.getSensesbyIdPattern("").size(), senseIds.size());
+	}
+
+	@Test
+	public void testStreamingIterator() throws IllegalArgumentException{
+		List<Lexicon> lexicons = uby.getLexicons();
+		for(Lexicon l : lexicons){
+			Set<String> senseIds = new HashSet<String>();
+			Iterator<Sense> iter = uby.getSenseIterator(l);
+			while(iter.hasNext()){
+				senseIds.add(iter.next().getId());
+			}
+			StreamingIterator<Sense> streamingIter = uby.getSenseStreamingIterator(l);
+			int i = 0;
+			while(streamingIter.hasNext()){
+				assertTrue(senseIds.contains(streamingIter.next().getId()));
+				i++;
+			}
+			assertEquals(senseIds.size(), i);
+		}
+
+		StreamingIterator<SenseAxis> senseAxisIter = uby.getSenseAxisStreamingIterator();
+		assertTrue(senseAxisIter.hasNext());
+		senseAxisIter.next();
+		senseAxisIter.close();
+		assertFalse(senseAxisIter.hasNext());
+	}
+
+	@Test
+	public void testCache() throws IllegalArgumentException{
+		DBConfig dbConfig = uby.getDbConfig();
+		DBConfig cachedDbConfig = new DBConfig(dbConfig.getJdbc_url(), dbConfig.getJdbc_driver_class(),
+				dbConfig.getDb_vendor(), dbConfig.getUser(), dbConfig.getPassword(), false);
+		cachedDbConfig.setCacheEnabled(true);
+		cachedDbConfig.setQueryCacheEnabled(true);
+		Uby cachedUby = new Uby(cachedDbConfig);
+
+		Sense sense = cachedUby.getSenseById("VN_Sense_2");
+		cachedUby.getSession().clear();
+		Sense cachedSense = cachedUby.getSenseById("VN_Sense_2");
+		assertEquals(sense.getId(), cachedSense.getId());
+		assertEquals(sense.getIndex(), cachedSense.getIndex());
+		assertTrue(cachedUby.getStatistics().getQueryCacheHitCount() > 0);
+		assertTrue(cachedUby.getStatistics().getSecondLevelCacheHitCount() > 0);
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception{
+		DBConfig dbConfig = uby.getDbConfig();
+		DBConfig concurrentDbConfig = new DBConfig(dbConfig.getJdbc_url(), dbConfig.getJdbc_driver_class(),
+				dbConfig.getDb_vendor(), dbConfig.getUser(), dbConfig.getPassword(), false);
+		concurrentDbConfig.setConcurrent(true);
+		concurrentDbConfig.setMaxPoolSize(4);
+		final Uby concurrentUby = new Uby(concurrentDbConfig);
+
+		final int threads = 8;
+		final int lookups = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for(int t = 0; t < threads; t++){
+			results.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int found = 0;
+					for(int i = 0; i < lookups; i++){
+						Sense sense = concurrentUby.getSenseById("VN_Sense_2");
+						if(sense.getIndex() == 2 && !concurrentUby.getLexicalEntries("run", null).isEmpty()){
+							found++;
+						}
+						concurrentUby.releaseSession();
+					}
+					return found;
+				}
+			}));
+		}
+		try{
+			for(Future<Integer> result : results){
+				assertEquals(lookups, result.get().intValue());
+			}
+			Criteria criteria = DetachedCriteria.forClass(Sense.class)
+					.add(Restrictions.eq("id", "VN_Sense_2"))
+					.getExecutableCriteria(concurrentUby.getSession());
+			assertEquals(1, criteria.list().size());
+		}
+		finally{
+			executor.shutdown();
+			concurrentUby.closeSession();
+		}
+	}
+
 	@Test
 	public void testSynsets() throws IllegalArgumentException{
 		Lexicon lexicon = uby.getLexiconByName("WordNet");
@@ -255,6 +494,25 @@ public class UbyTest
 		assertFalse(uby.hasSensesAxis(sense, sense3));
 	}
 
+	@Test
+	public void testAlignmentIndex() throws IllegalArgumentException{
+		DBConfig dbConfig = uby.getDbConfig();
+		UbyQuickAPI quickApi = new UbyQuickAPI(new DBConfig(dbConfig.getJdbc_url(), dbConfig.getJdbc_driver_class(),
+				dbConfig.getDb_vendor(), dbConfig.getUser(), dbConfig.getPassword(), false));
+		List<String> alignedSenseIds = quickApi.alignedSenseIDs("WN_Sense_2");
+		assertEquals(3, alignedSenseIds.size());
+
+		SenseAlignmentIndex index = quickApi.loadAlignmentIndex();
+		assertEquals(new HashSet<String>(alignedSenseIds), new HashSet<String>(quickApi.alignedSenseIDs("WN_Sense_2")));
+		assertEquals(Arrays.asList("WktEn_sense_3"), quickApi.alignedSenseIDs("WN_Sense_7"));
+		assertTrue(quickApi.alignedSenseIDs("VN_Sense_2").isEmpty());
+
+		int senseIndex = index.getSenseIndex("WN_Sense_3");
+		assertEquals(1, index.getNeighbourEnd(senseIndex) - index.getNeighbourStart(senseIndex));
+		assertEquals("OW_deu_Sense_20765", index.getSenseId(index.getNeighbour(index.getNeighbourStart(senseIndex))));
+		assertEquals(-1, index.getSenseIndex("VN_Sense_2"));
+	}
+
 	@Test
 	public void testSemanticPredicates() throws IllegalArgumentException{
 		Lexicon lexicon = uby.getLexiconByName("FrameNet");
@@ -320,4 +578,52 @@ public class UbyTest
 		}
 		assertTrue(found);
 	}
+
+	/** Creates a database with the lexical entries "Bush" and "bush", which differ only in
+	 *  case. If ignoreCase is set, the database compares written forms case-insensitively
+	 *  like the default collation of MySQL. */
+	private static Uby createCaseVariantUby(boolean ignoreCase) throws FileNotFoundException{
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:caseVariants" + ignoreCase
+				+ (ignoreCase ? ";IGNORECASE=TRUE" : "") + ";DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+
+		LexicalResource lexicalResource = new LexicalResource();
+		lexicalResource.setName("CaseResource");
+		lexicalResource.setDtdVersion("0.3.0");
+		GlobalInformation globalInformation = new GlobalInformation();
+		globalInformation.setLabel("CaseResource");
+		lexicalResource.setGlobalInformation(globalInformation);
+		Lexicon lexicon = new Lexicon();
+		lexicon.setId("CaseLexicon");
+		lexicon.setName("CaseLexicon");
+		lexicon.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		lexicalResource.addLexicon(lexicon);
+		// The sense of "bush" has the smaller id
+		addLexicalEntry(lexicon, "Bush", "CaseLexicon_LexicalEntry_1", "CaseLexicon_Sense_2");
+		addLexicalEntry(lexicon, "bush", "CaseLexicon_LexicalEntry_2", "CaseLexicon_Sense_1");
+		new LexicalResourceToDBTransformer(dbConfig, lexicalResource).transform();
+		return new Uby(dbConfig);
+	}
+
+	private static void addLexicalEntry(Lexicon lexicon, String writtenForm, String id, String senseId){
+		LexicalEntry lexicalEntry = new LexicalEntry(id);
+		lexicalEntry.setPartOfSpeech(EPartOfSpeech.noun);
+		lexicalEntry.setLexicon(lexicon);
+		FormRepresentation formRepresentation = new FormRepresentation();
+		formRepresentation.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		formRepresentation.setWrittenForm(writtenForm);
+		List<FormRepresentation> formRepresentations = new ArrayList<FormRepresentation>();
+		formRepresentations.add(formRepresentation);
+		Lemma lemma = new Lemma();
+		lemma.setFormRepresentations(formRepresentations);
+		lexicalEntry.setLemma(lemma);
+		Sense sense = new Sense(senseId);
+		sense.setIndex(1);
+		sense.setLexicalEntry(lexicalEntry);
+		List<Sense> senses = new ArrayList<Sense>();
+		senses.add(sense);
+		lexicalEntry.setSenses(senses);
+		lexicon.addLexicalEntry(lexicalEntry);
+	}
 }
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.dom4j.DocumentException;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Checks that importing into tables without indexes and creating the
+ * indexes afterwards yields the same database as the regular import.
+ *
+ */
+public class BulkLoadTest
+{
+
+	private static final String INDEX_COUNT_SQL = "select count(*) from INFORMATION_SCHEMA.INDEXES"
+			+ " where INDEX_NAME = 'SENSEAXIS_SENSEONEID_IDX'";
+
+	@Test
+	public void testBulkLoad() throws FileNotFoundException, DocumentException{
+		Uby regularUby = new UbyTestDbProvider().getUby();
+
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:bulkLoad;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		dbConfig.setBulkLoad(true);
+		LMFDBUtils.createTablesForBulkLoad(dbConfig);
+		new XMLToDBTransformer(dbConfig).transform(
+				new File("src/main/resources/UbyTestLexicon.xml"), "UbyTest");
+		dbConfig.setBulkLoad(false);
+		Uby bulkUby = new Uby(dbConfig);
+		assertEquals(0, countIndexes(bulkUby));
+
+		LMFDBUtils.createIndexes(dbConfig);
+		assertEquals(1, countIndexes(bulkUby));
+		assertEquals(UbyTestDbProvider.countRows(regularUby), UbyTestDbProvider.countRows(bulkUby));
+	}
+
+	private static int countIndexes(Uby uby){
+		return ((Number) uby.getSession().createSQLQuery(INDEX_COUNT_SQL).uniqueResult()).intValue();
+	}
+}
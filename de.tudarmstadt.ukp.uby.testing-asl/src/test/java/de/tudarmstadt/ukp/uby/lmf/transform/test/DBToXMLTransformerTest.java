@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.UnsupportedEncodingException;
+
+import org.dom4j.DocumentException;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.transform.DBToXMLTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Checks that exporting the lexicons in parallel creates the same XML as
+ * the sequential export.
+ *
+ */
+public class DBToXMLTransformerTest
+{
+
+	@Test
+	public void testParallelExport() throws FileNotFoundException, DocumentException,
+			SAXException, UnsupportedEncodingException{
+		Uby uby = new UbyTestDbProvider().getUby();
+
+		String sequentialXml = export(uby, 1);
+		String parallelXml = export(uby, 3);
+
+		assertTrue(sequentialXml.contains("<Lexicon "));
+		assertTrue(sequentialXml.contains("<LexicalEntry "));
+		assertEquals(sequentialXml, parallelXml);
+	}
+
+	private static String export(Uby uby, int threads)
+			throws SAXException, UnsupportedEncodingException{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new DBToXMLTransformer(uby.getDbConfig(), outputStream, null, threads)
+				.transform(uby.getLexicalResource("UbyTest"));
+		return outputStream.toString("UTF-8");
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.dom4j.DocumentException;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.ParallelXMLToDBTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Checks that the multi-threaded import creates the same database as the
+ * single-threaded dom4j import.
+ *
+ */
+public class ParallelXMLToDBTransformerTest
+{
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testParallelImport() throws FileNotFoundException, DocumentException{
+		Uby domUby = new UbyTestDbProvider().getUby();
+
+		// MVCC allows the persister threads to write to the same tables at the same time
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:parallelImport;DB_CLOSE_DELAY=-1;MVCC=TRUE",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		new ParallelXMLToDBTransformer(dbConfig, 4).transform(
+				new File("src/main/resources/UbyTestLexicon.xml"), "UbyTest");
+		Uby parallelUby = new Uby(dbConfig);
+
+		assertEquals(UbyTestDbProvider.countRows(domUby), UbyTestDbProvider.countRows(parallelUby));
+		Sense domSense = domUby.getSenseById("WN_Sense_2");
+		Sense parallelSense = parallelUby.getSenseById("WN_Sense_2");
+		assertEquals(domSense.getIndex(), parallelSense.getIndex());
+		assertEquals(domSense.getSynset().getId(), parallelSense.getSynset().getId());
+		assertEquals(domSense.getSemanticLabels().size(), parallelSense.getSemanticLabels().size());
+		assertEquals(domSense.getLexicalEntry().getLemmaForm(), parallelSense.getLexicalEntry().getLemmaForm());
+	}
+}
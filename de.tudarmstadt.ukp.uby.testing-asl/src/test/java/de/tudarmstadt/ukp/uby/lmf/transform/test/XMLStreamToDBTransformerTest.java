@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.dom4j.DocumentException;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.XMLStreamToDBTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Checks that the StAX import creates the same database as the dom4j import.
+ *
+ */
+public class XMLStreamToDBTransformerTest
+{
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testStreamingImport() throws FileNotFoundException, DocumentException{
+		Uby domUby = new UbyTestDbProvider().getUby();
+
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:streamingImport;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		new XMLStreamToDBTransformer(dbConfig).transform(
+				new File("src/main/resources/UbyTestLexicon.xml"), "UbyTest");
+		Uby staxUby = new Uby(dbConfig);
+
+		assertEquals(UbyTestDbProvider.countRows(domUby), UbyTestDbProvider.countRows(staxUby));
+		Sense domSense = domUby.getSenseById("WN_Sense_2");
+		Sense staxSense = staxUby.getSenseById("WN_Sense_2");
+		assertEquals(domSense.getIndex(), staxSense.getIndex());
+		assertEquals(domSense.getSynset().getId(), staxSense.getSynset().getId());
+		assertEquals(domSense.getSemanticLabels().size(), staxSense.getSemanticLabels().size());
+		assertEquals(domSense.getLexicalEntry().getLemmaForm(), staxSense.getLexicalEntry().getLemmaForm());
+	}
+}
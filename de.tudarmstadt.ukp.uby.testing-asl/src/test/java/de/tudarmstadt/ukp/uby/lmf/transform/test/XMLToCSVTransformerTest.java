@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.dom4j.DocumentException;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.GlobalInformation;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.model.enums.ELanguageIdentifier;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+import de.tudarmstadt.ukp.lmf.model.morphology.FormRepresentation;
+import de.tudarmstadt.ukp.lmf.model.morphology.Lemma;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
+import de.tudarmstadt.ukp.lmf.transform.XMLToCSVTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Checks that loading the delimited files creates the same database as the
+ * Hibernate import, also if the database already contains another resource.
+ *
+ */
+public class XMLToCSVTransformerTest
+{
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testLoadTables() throws IOException, DocumentException{
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:csvImport;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		LMFDBUtils.loadTables(dbConfig, writeTables());
+
+		assertSameDatabase(new UbyTestDbProvider().getUby(), new Uby(dbConfig));
+	}
+
+	@Test
+	public void testLoadTablesIntoDatabaseWithOtherResource() throws IOException, DocumentException{
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:csvImportAppend;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		new LexicalResourceToDBTransformer(dbConfig, createOtherResource()).transform();
+		Uby otherUby = new Uby(dbConfig);
+		Map<String, Long> expected = UbyTestDbProvider.countRows(otherUby);
+		otherUby.closeSession();
+		Uby hibernateUby = new UbyTestDbProvider().getUby();
+		for (Map.Entry<String, Long> count : UbyTestDbProvider.countRows(hibernateUby).entrySet())
+			expected.put(count.getKey(), expected.get(count.getKey()) + count.getValue());
+
+		LMFDBUtils.loadTables(dbConfig, writeTables());
+
+		Uby csvUby = new Uby(dbConfig);
+		assertEquals(expected, UbyTestDbProvider.countRows(csvUby));
+		assertEquals("smile", csvUby.getLexicalEntryById("OtherLexicon_LexicalEntry_1").getLemmaForm());
+		assertSameSense(hibernateUby, csvUby);
+	}
+
+	/**
+	 * Loads the files using LOAD DATA LOCAL INFILE. Requires a MySQL
+	 * database uby_csv_test, whose tables are recreated.
+	 */
+	@Ignore
+	@Test
+	public void testLoadTablesOnMySqlDb() throws IOException, DocumentException{
+		DBConfig dbConfig = new DBConfig("localhost/uby_csv_test", "com.mysql.jdbc.Driver",
+				"mysql", "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+		LMFDBUtils.loadTables(dbConfig, writeTables());
+
+		assertSameDatabase(new UbyTestDbProvider().getUby(), new Uby(dbConfig));
+	}
+
+	private File writeTables() throws DocumentException{
+		File directory = folder.newFolder("csv");
+		new XMLToCSVTransformer(directory).transform(
+				new File("src/main/resources/UbyTestLexicon.xml"), "UbyTest");
+		return directory;
+	}
+
+	private static void assertSameDatabase(Uby hibernateUby, Uby csvUby){
+		assertEquals(UbyTestDbProvider.countRows(hibernateUby), UbyTestDbProvider.countRows(csvUby));
+		assertSameSense(hibernateUby, csvUby);
+	}
+
+	private static void assertSameSense(Uby hibernateUby, Uby csvUby){
+		Sense hibernateSense = hibernateUby.getSenseById("WN_Sense_2");
+		Sense csvSense = csvUby.getSenseById("WN_Sense_2");
+		assertEquals(hibernateSense.getIndex(), csvSense.getIndex());
+		assertEquals(hibernateSense.getSynset().getId(), csvSense.getSynset().getId());
+		assertEquals(hibernateSense.isTransparentMeaning(), csvSense.isTransparentMeaning());
+		assertEquals(hibernateSense.getSemanticLabels().size(), csvSense.getSemanticLabels().size());
+		assertEquals(hibernateSense.getLexicalEntry().getLemmaForm(), csvSense.getLexicalEntry().getLemmaForm());
+	}
+
+	/** Creates a resource whose generated ids start at 1 like those of
+	 *  the delimited files. */
+	private static LexicalResource createOtherResource(){
+		LexicalResource lexicalResource = new LexicalResource();
+		lexicalResource.setName("OtherResource");
+		lexicalResource.setDtdVersion("0.3.0");
+		GlobalInformation globalInformation = new GlobalInformation();
+		globalInformation.setLabel("OtherResource");
+		lexicalResource.setGlobalInformation(globalInformation);
+		Lexicon lexicon = new Lexicon();
+		lexicon.setId("OtherLexicon");
+		lexicon.setName("OtherLexicon");
+		lexicon.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		lexicalResource.addLexicon(lexicon);
+
+		LexicalEntry lexicalEntry = new LexicalEntry("OtherLexicon_LexicalEntry_1");
+		lexicalEntry.setPartOfSpeech(EPartOfSpeech.verb);
+		lexicalEntry.setLexicon(lexicon);
+		FormRepresentation formRepresentation = new FormRepresentation();
+		formRepresentation.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		formRepresentation.setWrittenForm("smile");
+		List<FormRepresentation> formRepresentations = new ArrayList<FormRepresentation>();
+		formRepresentations.add(formRepresentation);
+		Lemma lemma = new Lemma();
+		lemma.setFormRepresentations(formRepresentations);
+		lexicalEntry.setLemma(lemma);
+		Sense sense = new Sense("OtherLexicon_Sense_1");
+		sense.setIndex(1);
+		sense.setLexicalEntry(lexicalEntry);
+		List<Sense> senses = new ArrayList<Sense>();
+		senses.add(sense);
+		lexicalEntry.setSenses(senses);
+		lexicon.addLexicalEntry(lexicalEntry);
+		return lexicalResource;
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.lmf.transform.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Map;
+
+import org.dom4j.DocumentException;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.test.resources.UbyTestDbProvider;
+
+/**
+ * Imports the test lexicon without and with JDBC batching, reports the
+ * import speed and checks that both imports produce the same number of
+ * rows for every entity. Not run as part of the regular test suite.
+ *
+ */
+public class XMLToDBTransformerBenchmark
+{
+
+	private static final File LEXICON = new File("src/main/resources/UbyTestLexicon.xml");
+	private static final int RUNS = 20;
+
+	@Test
+	public void benchmarkImport() throws FileNotFoundException, DocumentException{
+		Map<String, Long> unbatched = importLexicon("unbatched", 1);
+		Map<String, Long> batched = importLexicon("batched", 100);
+		assertEquals(unbatched, batched);
+	}
+
+	@SuppressWarnings("deprecation")
+	private static Map<String, Long> importLexicon(String name, int batchSize)
+		throws FileNotFoundException, DocumentException{
+		long rows = 0;
+		long time = 0;
+		DBConfig dbConfig = null;
+		for(int i = 0; i < RUNS; i++){
+			dbConfig = new DBConfig("jdbc:h2:mem:" + name + i + ";DB_CLOSE_DELAY=-1",
+					"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+			dbConfig.setBatchSize(batchSize);
+			LMFDBUtils.createTables(dbConfig);
+
+			long start = System.currentTimeMillis();
+			new XMLToDBTransformer(dbConfig).transform(LEXICON, "UbyTest");
+			time += System.currentTimeMillis() - start;
+		}
+
+		Map<String, Long> counts = UbyTestDbProvider.countRows(new Uby(dbConfig));
+		for(Long count : counts.values()){
+			rows += count;
+		}
+		System.out.println("Batch size " + batchSize + ": " + rows * RUNS * 1000 / Math.max(time, 1)
+				+ " rows/s (" + rows + " rows, " + time / RUNS + " ms per import)");
+		return counts;
+	}
+}
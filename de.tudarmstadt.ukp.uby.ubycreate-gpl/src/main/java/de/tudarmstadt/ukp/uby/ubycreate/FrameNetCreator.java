@@ -32,7 +32,7 @@ import de.saar.coli.salsa.reiter.framenet.FrameNetVersion;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.transform.DBConfig;
 import de.tudarmstadt.ukp.lmf.transform.LMFXmlWriter;
-import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
 import de.tudarmstadt.ukp.lmf.transform.framenet.FNConverter;
 
 public class FrameNetCreator
@@ -43,39 +43,43 @@ public class FrameNetCreator
     private static final String dtdVersion = "1_0";
 
     /**
-     * This method converts framenet into ubyXML,stores it into a temporary file and then migrates
-     * the data from the temporary file into DB
+     * This method converts framenet into ubyLMF objects and saves them directly into DB
      */
     @Override
     public void lexicon2DB(final DBConfig dbConfig, String source)
         throws IOException, XMLStreamException, SAXException, DocumentException
     {
-
-        String lexicalName = "FrameNet";
-
-        File lmfXML = File.createTempFile("tempfile", ".tmp");
-        lmfXML = lexicon2XML(source, lmfXML);
-
-        /* Persisting lmfXML into DB */
-        XMLToDBTransformer xmlToDB = new XMLToDBTransformer(dbConfig);
-        xmlToDB.transform(lmfXML, lexicalName);
+        /* Persisting the converted lexical resource into DB */
+        new LexicalResourceToDBTransformer(dbConfig, lexicon2LMF(source)).transform();
 
         System.out.println("DB Operation DONE");
-
-        lmfXML.deleteOnExit();
-
     }
 
     @Override
     public File lexicon2XML(String source, File lmfXML)
         throws IOException, XMLStreamException, SAXException, DocumentException
     {
+        /* Dumping lexical into a file */
 
-        String lexicalResourceName = "FrameNet_1.5_eng";
+        LexicalResource lexicalResource = lexicon2LMF(source);
 
-        /* Dumping lexical into a file */
+        LMFXmlWriter xmlWriter = new LMFXmlWriter(lmfXML.getAbsolutePath(), dtdPath);
+        xmlWriter.writeElement(lexicalResource);
+        xmlWriter.writeEndDocument();
+
+        System.out.println("temp file saved: " + lmfXML.getAbsolutePath());
+
+        return lmfXML;
 
-        LexicalResource lexicalResource = null;
+    }
+
+    /**
+     * This method converts framenet into ubyLMF objects
+     */
+    protected LexicalResource lexicon2LMF(String source)
+        throws IOException, XMLStreamException, SAXException, DocumentException
+    {
+        String lexicalResourceName = "FrameNet_1.5_eng";
 
         FrameNet fn = new FrameNet();
         FNDatabaseReader reader = FNDatabaseReader.createInstance(new File(source),
@@ -85,15 +89,6 @@ public class FrameNetCreator
         FNConverter converterFN = new FNConverter(fn, new LexicalResource(), lexicalResourceName,
                 dtdVersion);
         converterFN.toLMF();
-        lexicalResource = converterFN.getLexicalResource();
-
-        LMFXmlWriter xmlWriter = new LMFXmlWriter(lmfXML.getAbsolutePath(), dtdPath);
-        xmlWriter.writeElement(lexicalResource);
-        xmlWriter.writeEndDocument();
-
-        System.out.println("temp file saved: " + lmfXML.getAbsolutePath());
-
-        return lmfXML;
-
+        return converterFN.getLexicalResource();
     }
 }
@@ -29,7 +29,7 @@ import org.xml.sax.SAXException;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.transform.DBConfig;
 import de.tudarmstadt.ukp.lmf.transform.LMFXmlWriter;
-import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
 import de.tudarmstadt.ukp.lmf.transform.germanet.GNConverter;
 import de.tuebingen.uni.sfs.germanet.api.GermaNet;
 
@@ -41,44 +41,25 @@ public class GermaNetCreator
     private static final String dtdVersion = "1_0";
 
     /**
-     * This method converts germanet into ubyXML,stores it into a temporary file and then migrates
-     * the data from the temporary file into DB
+     * This method converts germanet into ubyLMF objects and saves them directly into DB
      *
      */
     @Override
     public void lexicon2DB(DBConfig dbConfig, String source)
         throws IOException, XMLStreamException, SAXException, DocumentException
     {
-
-        String lexicalName = "GermaNet";
-
-        File lmfXML = File.createTempFile("tempfile", ".tmp");
-        lmfXML = lexicon2XML(source, lmfXML);
-
-        /* Persisting lmfXML into DB */
-
-        XMLToDBTransformer xmlToDB = new XMLToDBTransformer(dbConfig);
-        xmlToDB.transform(lmfXML, lexicalName);
+        /* Persisting the converted lexical resource into DB */
+        new LexicalResourceToDBTransformer(dbConfig, lexicon2LMF(source)).transform();
         System.out.println("DB Operation Done");
-        lmfXML.deleteOnExit();
-
     }
 
     @Override
     public File lexicon2XML(String source, File lmfXML)
         throws IOException, XMLStreamException, SAXException, DocumentException
     {
-        String lexicalResourceName = "GermaNet_8.0_deu";
-
         /* Dumping lexical into a file */
 
-        LexicalResource lexicalResource = null;
-
-        GermaNet gnet = new GermaNet(new File(source));
-        GNConverter converterGN = new GNConverter(gnet, new LexicalResource(), null, lexicalResourceName,
-                dtdVersion);
-        converterGN.toLMF();
-        lexicalResource = converterGN.getLexicalResource();
+        LexicalResource lexicalResource = lexicon2LMF(source);
 
         LMFXmlWriter xmlWriter = new LMFXmlWriter(lmfXML.getAbsolutePath(), dtdPath);
         xmlWriter.writeElement(lexicalResource);
@@ -86,4 +67,19 @@ public class GermaNetCreator
 
         return lmfXML;
     }
+
+    /**
+     * This method converts germanet into ubyLMF objects
+     */
+    protected LexicalResource lexicon2LMF(String source)
+        throws IOException, XMLStreamException, SAXException, DocumentException
+    {
+        String lexicalResourceName = "GermaNet_8.0_deu";
+
+        GermaNet gnet = new GermaNet(new File(source));
+        GNConverter converterGN = new GNConverter(gnet, new LexicalResource(), null, lexicalResourceName,
+                dtdVersion);
+        converterGN.toLMF();
+        return converterGN.getLexicalResource();
+    }
 }
@@ -54,6 +54,10 @@ public class MainController
     private String exceptionTrace;
 
 
+    @Option(name = "--bulkload", usage = "Create the indexes after importing the lexicon and relax the integrity checks of the database during the import")
+    private boolean bulkLoad;
+
+
     public static void main(String[] args)
         throws XMLStreamException, SAXException, DocumentException
     {
@@ -127,9 +131,17 @@ public class MainController
                  */
                 // LMFDBUtils.dropTables(dbConfig);
 
-                LMFDBUtils.createTables(dbConfig);
-
-                creatorObj.lexicon2DB(dbConfig, source);
+                if (bulkLoad) {
+                    dbConfig.setBulkLoad(true);
+                    LMFDBUtils.createTablesForBulkLoad(dbConfig);
+                    creatorObj.lexicon2DB(dbConfig, source);
+                    dbConfig.setBulkLoad(false);
+                    LMFDBUtils.createIndexes(dbConfig);
+                }
+                else {
+                    LMFDBUtils.createTables(dbConfig);
+                    creatorObj.lexicon2DB(dbConfig, source);
+                }
 
             }
         }
@@ -207,6 +219,8 @@ public class MainController
                         + "2. java -jar ubycreate.jar --target h2:root:pass@file:ubyGermanet --source germanet:GN_V70/GN_V70_XML "
                         + "\n\n"
                         + "3. java -jar ubycreate.jar --target h2:root:pass@file:ubyGermanet --source xml:GN_V70/GN_V70_XML/uby_gn.xml"
+                        + "\n\n"
+                        + "4. java -jar ubycreate.jar --target mysql:root:pass@localhost:3306/uby_wn --source wordnet:WordNet-3.0/dict --bulkload"
                         + "\n" + "\n\n" + "Note: " + "\n"
                         + "1. Only MySQL and H2 database are supported " + "\n"
                         + "2. Lexicon type: germanet, xml, framenet, wordnet");
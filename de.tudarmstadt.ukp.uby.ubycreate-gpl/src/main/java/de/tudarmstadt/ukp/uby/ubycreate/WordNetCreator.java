@@ -33,7 +33,7 @@ import org.xml.sax.SAXException;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
 import de.tudarmstadt.ukp.lmf.transform.DBConfig;
 import de.tudarmstadt.ukp.lmf.transform.LMFXmlWriter;
-import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
 import de.tudarmstadt.ukp.lmf.transform.wordnet.WNConverter;
 
 public class WordNetCreator
@@ -43,8 +43,8 @@ public class WordNetCreator
     private static final String dtdVersion = "1_0";
 
     /**
-     * This method converts wordNet into ubyXML,stores it into a temporary file
-     * and then migrates the data from the temporary file into DB
+     * This method converts wordNet into ubyLMF objects and saves them
+     * directly into DB
      *
      */
     @Override
@@ -52,20 +52,10 @@ public class WordNetCreator
         throws IOException, XMLStreamException, SAXException,
         DocumentException, JWNLException
     {
-
-        String lexicalName = "WordNet";
-
-        File lmfXML = File.createTempFile("tempfile", ".tmp");
-        lmfXML = lexicon2XML(source, lmfXML);
-
-        /* Persisting lmfXML into DB */
-        XMLToDBTransformer xmlToDB = new XMLToDBTransformer(dbConfig);
-        xmlToDB.transform(lmfXML, lexicalName);
+        /* Persisting the converted lexical resource into DB */
+        new LexicalResourceToDBTransformer(dbConfig, lexicon2LMF(source)).transform();
 
         System.out.println("DB Operation DONE");
-
-        lmfXML.deleteOnExit();
-
     }
 
     @Override
@@ -73,12 +63,29 @@ public class WordNetCreator
         throws IOException, XMLStreamException, SAXException,
         DocumentException, JWNLException
     {
+        /* Dumping lexical into a file */
 
-        String lexicalResourceName = "WordNet_3.0_eng";
+        LexicalResource lexicalResource = lexicon2LMF(source);
 
-        /* Dumping lexical into a file */
+        LMFXmlWriter xmlWriter = new LMFXmlWriter(lmfXML.getAbsolutePath(),
+                dtdPath);
+        xmlWriter.writeElement(lexicalResource);
+        xmlWriter.writeEndDocument();
+
+        System.out.println("temp file saved: " + lmfXML.getAbsolutePath());
+
+        return lmfXML;
+
+    }
 
-        LexicalResource lexicalResource = null;
+    /**
+     * This method converts wordNet into ubyLMF objects
+     */
+    protected LexicalResource lexicon2LMF(String source)
+        throws IOException, XMLStreamException, SAXException,
+        DocumentException, JWNLException
+    {
+        String lexicalResourceName = "WordNet_3.0_eng";
 
         File wnPath = new File(source);
         Dictionary extWordnet;
@@ -140,16 +147,6 @@ public class WordNetCreator
         WNConverter converterWN = new WNConverter(wnPath, extWordnet,
                 new LexicalResource(), lexicalResourceName, dtdVersion);
         converterWN.toLMF();
-        lexicalResource = converterWN.getLexicalResource();
-
-        LMFXmlWriter xmlWriter = new LMFXmlWriter(lmfXML.getAbsolutePath(),
-                dtdPath);
-        xmlWriter.writeElement(lexicalResource);
-        xmlWriter.writeEndDocument();
-
-        System.out.println("temp file saved: " + lmfXML.getAbsolutePath());
-
-        return lmfXML;
-
+        return converterWN.getLexicalResource();
     }
 }
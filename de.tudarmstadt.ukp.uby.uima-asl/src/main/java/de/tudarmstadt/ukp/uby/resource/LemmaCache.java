@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.resource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * 
+ * Bounded, thread-safe cache of the results looked up in UBY for a lemma. If the cache is full,
+ * the least recently used entry is evicted. Since natural text is Zipfian, most lookups of 
+ * frequent lemmas are answered from the cache after their first occurrence. The numbers of
+ * hits and misses are counted for logging the hit rate.
+ * <p>
+ * The cached values should not be Hibernate entities, since these are bound to the session
+ * of the thread that loaded them; cache the strings resolved from the entities instead.
+ * 
+ * @param <V>
+ * 		type of the cached values
+ */
+public class LemmaCache<V>
+{
+
+	/** Default number of lemmas kept in a cache. */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private final int capacity;
+	private final Map<String, V> entries;
+	private long hits;
+	private long misses;
+
+
+	/**
+	 * @param capacity
+	 * 		maximum number of cached lemmas; 0 disables the cache
+	 */
+	public LemmaCache(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative cache capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		entries = new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > LemmaCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return
+	 * 		the cached value of the given key or null if it is not cached
+	 */
+	public synchronized V get(String key) {
+		V value = entries.get(key);
+		if (value != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return value;
+	}
+
+	public synchronized void put(String key, V value) {
+		if (capacity > 0 && value != null) {
+			entries.put(key, value);
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return
+	 * 		the ratio of lookups answered from the cache or 0 if nothing has been looked up yet
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "LemmaCache [size=" + entries.size() + ", capacity=" + capacity + ", hits=" + hits
+				+ ", misses=" + misses + ", hitRate=" + String.format("%.3f", getHitRate()) + "]";
+	}
+
+}
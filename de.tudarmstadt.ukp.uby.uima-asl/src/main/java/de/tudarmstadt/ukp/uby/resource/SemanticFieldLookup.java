@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.resource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+
+
+/**
+ * 
+ * Memory-mapped lookup table from lemma and UBY POS to the semantic field determined by the
+ * {@link SemanticFieldResolver} for one lexicon (WordNet or GermaNet). Lemmas with the
+ * semantic field "UNKNOWN" are stored like any other semantic field, so that they can be
+ * distinguished from lemmas missing in the file. The file is created by the
+ * {@link SemanticFieldLookupBuilder} and has the following layout:
+ * <ul>
+ * <li>magic number, version, and name of the lexicon,</li>
+ * <li>number and names of the semantic fields,</li>
+ * <li>number of keys, followed by the offset and the semantic field index of each key, 
+ * sorted by the UTF-8 bytes of the keys,</li>
+ * <li>the keys as UTF-8 bytes preceded by their length.</li>
+ * </ul>
+ * A lookup is a binary search over the mapped file and does not create any objects except for
+ * the UTF-8 bytes of the searched key.
+ * 
+ */
+public class SemanticFieldLookup
+{
+
+	private static final int MAGIC = 0x55425953; // "UBYS"
+	private static final int VERSION = 2;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final String lexiconName;
+	private final String[] semanticFields;
+	private final MappedByteBuffer buffer;
+	private final int keyCount;
+	private final int indexStart;
+	private final int keyStart;
+
+
+	private SemanticFieldLookup(String lexiconName, String[] semanticFields,
+			MappedByteBuffer buffer, int keyCount, int indexStart, int keyStart) {
+		this.lexiconName = lexiconName;
+		this.semanticFields = semanticFields;
+		this.buffer = buffer;
+		this.keyCount = keyCount;
+		this.indexStart = indexStart;
+		this.keyStart = keyStart;
+	}
+
+	/**
+	 * Maps the given lookup file into memory.
+	 */
+	public static SemanticFieldLookup open(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			if (randomAccessFile.length() > Integer.MAX_VALUE) {
+				throw new IOException("Lookup file " + file + " is too large");
+			}
+			MappedByteBuffer buffer = randomAccessFile.getChannel().map(
+					MapMode.READ_ONLY, 0, randomAccessFile.length());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException(file + " is not a semantic field lookup file");
+			}
+			String lexiconName = readString(buffer);
+			String[] semanticFields = new String[buffer.getInt()];
+			for (int i = 0; i < semanticFields.length; i++) {
+				semanticFields[i] = readString(buffer);
+			}
+			int keyCount = buffer.getInt();
+			int indexStart = buffer.position();
+			return new SemanticFieldLookup(lexiconName, semanticFields, buffer, keyCount,
+					indexStart, indexStart + keyCount * 6);
+		} finally {
+			// the mapping remains valid after closing the file
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Writes a lookup file for the given lexicon.
+	 * 
+	 * @param semanticFields
+	 * 		a map from the {@link SemanticFieldResolver#getKey(String, EPartOfSpeech) key} of a
+	 * 		lemma and POS to its semantic field
+	 */
+	public static void write(File file, String lexiconName, Map<String, String> semanticFields)
+			throws IOException {
+		List<byte[]> keys = new ArrayList<byte[]>();
+		Map<byte[], String> fieldsByKey = new HashMap<byte[], String>();
+		List<String> fieldNames = new ArrayList<String>();
+		Map<String, Integer> fieldIndexes = new HashMap<String, Integer>();
+		for (Map.Entry<String, String> semanticField : semanticFields.entrySet()) {
+			byte[] key = semanticField.getKey().getBytes(UTF8);
+			if (key.length > Short.MAX_VALUE) {
+				continue;
+			}
+			keys.add(key);
+			fieldsByKey.put(key, semanticField.getValue());
+			if (!fieldIndexes.containsKey(semanticField.getValue())) {
+				fieldIndexes.put(semanticField.getValue(), fieldNames.size());
+				fieldNames.add(semanticField.getValue());
+			}
+		}
+		if (fieldNames.size() > Short.MAX_VALUE) {
+			throw new IOException("Too many semantic fields: " + fieldNames.size());
+		}
+		Collections.sort(keys, new Comparator<byte[]>() {
+			@Override
+			public int compare(byte[] key1, byte[] key2) {
+				return compareBytes(key1, key2);
+			}
+		});
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, lexiconName);
+			out.writeInt(fieldNames.size());
+			for (String fieldName : fieldNames) {
+				writeString(out, fieldName);
+			}
+			out.writeInt(keys.size());
+			int offset = 0;
+			for (byte[] key : keys) {
+				out.writeInt(offset);
+				out.writeShort(fieldIndexes.get(fieldsByKey.get(key)));
+				offset += 2 + key.length;
+			}
+			for (byte[] key : keys) {
+				out.writeShort(key.length);
+				out.write(key);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * @return
+	 * 		the name of the lexicon the semantic fields have been determined from
+	 */
+	public String getLexiconName() {
+		return lexiconName;
+	}
+
+	/**
+	 * @return
+	 * 		the number of lemmas in the file, including those with the semantic field "UNKNOWN"
+	 */
+	public int size() {
+		return keyCount;
+	}
+
+	/**
+	 * @return
+	 * 		the semantic field of the given lemma and UBY POS, which may be "UNKNOWN", or null
+	 * 		if the file does not contain the lemma.
+	 */
+	public String get(String lemma, EPartOfSpeech pos) {
+		byte[] key = SemanticFieldResolver.getKey(lemma, pos).getBytes(UTF8);
+		int low = 0;
+		int high = keyCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compareKey(middle, key);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return semanticFields[buffer.getShort(indexStart + middle * 6 + 4)];
+			}
+		}
+		return null;
+	}
+
+	// compares the key with the given index in the file to the given key
+	private int compareKey(int index, byte[] key) {
+		int position = keyStart + buffer.getInt(indexStart + index * 6);
+		int length = buffer.getShort(position);
+		position += 2;
+		for (int i = 0; i < length && i < key.length; i++) {
+			int comparison = (buffer.get(position + i) & 0xff) - (key[i] & 0xff);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return length - key.length;
+	}
+
+	private static int compareBytes(byte[] key1, byte[] key2) {
+		for (int i = 0; i < key1.length && i < key2.length; i++) {
+			int comparison = (key1[i] & 0xff) - (key2[i] & 0xff);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return key1.length - key2.length;
+	}
+
+	private static String readString(MappedByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.resource;
+
+import static de.tudarmstadt.ukp.uby.resource.UbyResourceUtils.corePosToUbyPos;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+
+
+/**
+ * 
+ * Precomputes the semantic fields of all lemmas of a UBY database for WordNet or GermaNet 
+ * and writes them to a {@link SemanticFieldLookup} file. The semantic field of each lemma
+ * is determined by the {@link SemanticFieldResolver} for each UBY POS used by the 
+ * {@link UbySemanticFieldResource} (the first UBY POS of common nouns, main verbs, and 
+ * adjectives), so that the resource returns the same semantic fields for the lemmas in the
+ * file as for database lookups. The lookup keys are the written forms of the lemmas in the
+ * database.
+ * 
+ */
+public class SemanticFieldLookupBuilder
+{
+
+	/** Number of lemmas whose semantic fields are determined together. */
+	public static final int BATCH_SIZE = 1000;
+
+	private final Uby uby;
+
+
+	public SemanticFieldLookupBuilder(Uby uby) {
+		this.uby = uby;
+	}
+
+	/**
+	 * Determines the semantic fields of all lemmas for the given lexicon.
+	 * 
+	 * @param lexiconName
+	 * 		"WordNet" or "GermaNet"
+	 * @return
+	 * 		a map from the {@link SemanticFieldResolver#getKey(String, EPartOfSpeech) key} of
+	 * 		each lemma and UBY POS to its semantic field or "UNKNOWN"
+	 */
+	public Map<String, String> build(String lexiconName) {
+		SemanticFieldResolver resolver = new SemanticFieldResolver(uby);
+		resolver.setLexicon(uby.getLexiconByName(lexiconName));
+		String lexiconId = resolver.getLexicon().getId();
+
+		Set<EPartOfSpeech> ubyPos = new LinkedHashSet<EPartOfSpeech>();
+		for (String corePos : new String[] { "NN", "N", "V", "ADJ" }) {
+			ubyPos.add(corePosToUbyPos(corePos)[0]);
+		}
+
+		List<String> lemmas = getLemmas();
+		Map<String, String> semanticFields = new HashMap<String, String>();
+		for (int i = 0; i < lemmas.size(); i += BATCH_SIZE) {
+			List<String> batch = lemmas.subList(i, Math.min(i + BATCH_SIZE, lemmas.size()));
+			Map<EPartOfSpeech, List<String>> lemmasByPos = new HashMap<EPartOfSpeech, List<String>>();
+			for (EPartOfSpeech pos : ubyPos) {
+				lemmasByPos.put(pos, batch);
+			}
+			semanticFields.putAll(resolver.getSemanticFields(lemmasByPos));
+
+			// release the lexical entries of this batch, but keep the wordnet lexicon attached
+			uby.getSession().clear();
+			resolver.setLexicon(uby.getLexiconById(lexiconId));
+			System.out.println("Resolved " + Math.min(i + BATCH_SIZE, lemmas.size()) + " of "
+					+ lemmas.size() + " lemmas");
+		}
+		return semanticFields;
+	}
+
+	/**
+	 * Determines the semantic fields of all lemmas for the given lexicon and writes them to
+	 * the given lookup file.
+	 */
+	public void build(String lexiconName, File lookupFile) throws IOException {
+		SemanticFieldLookup.write(lookupFile, lexiconName, build(lexiconName));
+	}
+
+	/**
+	 * @return
+	 * 		the distinct written forms of the lemmas of all UBY lexicons
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<String> getLemmas() {
+		return new ArrayList<String>(uby.getSession().createQuery(
+				"SELECT DISTINCT fr.writtenForm FROM LexicalEntry e JOIN e.lemma l"
+				+ " JOIN l.formRepresentations fr WHERE fr.writtenForm IS NOT NULL").list());
+	}
+
+	/**
+	 * Creates a lookup file. Arguments: JDBC URL, JDBC driver, Hibernate dialect, user,
+	 * password, lexicon name ("WordNet" or "GermaNet"), and output file.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 7) {
+			System.err.println("Usage: SemanticFieldLookupBuilder <url> <driver> <dialect>"
+					+ " <user> <password> <lexiconName> <lookupFile>");
+			System.exit(1);
+		}
+		Uby uby = new Uby(new DBConfig(args[0], args[1], args[2], args[3], args[4], false));
+		new SemanticFieldLookupBuilder(uby).build(args[5], new File(args[6]));
+	}
+
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.resource;
+
+import static de.tudarmstadt.ukp.uby.resource.UbyResourceUtils.getMostFrequentSense;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.model.enums.ELabelTypeSemantics;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
+
+
+/**
+ * 
+ * This class determines the semantic field of lemmas from WordNet (for English) 
+ * or GermaNet (for German) in UBY. It is used by the {@link UbySemanticFieldResource}
+ * and by the {@link SemanticFieldLookupBuilder}.
+ *     
+ * @author Judith Eckle-Kohler
+ * 
+ */
+public class SemanticFieldResolver
+{
+
+	public static final String UNKNOWN = "UNKNOWN";
+
+	private final Uby uby;
+
+	private Lexicon wordnet;
+
+
+	public SemanticFieldResolver(Uby uby) {
+		this.uby = uby;
+	}
+
+	public Uby getUby() {
+		return uby;
+	}
+
+	/**
+	 * @return
+	 * 		the WordNet or GermaNet lexicon used to determine the semantic fields
+	 */
+	public Lexicon getLexicon() {
+		return wordnet;
+	}
+
+	public void setLexicon(Lexicon wordnet) {
+		this.wordnet = wordnet;
+	}
+
+	/**
+	 * Returns the semantic fields of the given lemmas. Each lemma is looked up with the given
+	 * UBY POS in the English or German wordnet. If it is not listed there, the semantic field of
+	 * the first domain label of the lemma in the other UBY lexicons is used. The lexical entries
+	 * of all lemmas are fetched with a constant number of batched queries.
+	 * 
+	 * @param lemmasByPos
+	 * 		the lemmas to be looked up for each UBY POS
+	 * @return
+	 * 		a map from the {@link #getKey(String, EPartOfSpeech) key} of each lemma and POS to
+	 * 		its semantic field or "UNKNOWN"
+	 */
+	public Map<String, String> getSemanticFields(
+			Map<EPartOfSpeech, ? extends Collection<String>> lemmasByPos) {
+		Map<String, String> semanticFields = new HashMap<String, String>();
+
+		// is the lemma contained in any of the UBY lexicons?
+		Set<String> allLemmas = new LinkedHashSet<String>();
+		for (Collection<String> lemmas : lemmasByPos.values()) {
+			allLemmas.addAll(lemmas);
+		}
+		if (allLemmas.isEmpty()) {
+			return semanticFields;
+		}
+		Map<String, List<LexicalEntry>> ubyEntries = uby.getLexicalEntries(allLemmas, null, null);
+
+		Map<String, String> domainLabels = new HashMap<String, String>();
+		for (Map.Entry<EPartOfSpeech, ? extends Collection<String>> lemmas : lemmasByPos.entrySet()) {
+			List<String> knownLemmas = new ArrayList<String>();
+			for (String lemma : lemmas.getValue()) {
+				if (ubyEntries.get(lemma).isEmpty()) {
+					semanticFields.put(getKey(lemma, lemmas.getKey()), UNKNOWN);
+				} else {
+					knownLemmas.add(lemma);
+				}
+			}
+			if (knownLemmas.isEmpty()) {
+				continue;
+			}
+
+			Map<String, Sense> wordnetSenses = getWordnetSenses(knownLemmas, lemmas.getKey());
+			for (String lemma : knownLemmas) {
+				if (wordnetSenses.containsKey(lemma)) {
+					// the lemma is listed in the English or German wordnet with the given POS
+					Sense sense = wordnetSenses.get(lemma);
+					semanticFields.put(getKey(lemma, lemmas.getKey()), getSemanticField(sense));
+				} else {
+					// find the UBY lexical entry for the given lemma,
+					// get a semantic label of type domain, if it exists
+					// and retrieve the semantic field of the domain label
+					domainLabels.put(getKey(lemma, lemmas.getKey()),
+							getOtherSemanticLabelValue(ubyEntries.get(lemma)));
+				}
+			}
+		}
+
+		if (!domainLabels.isEmpty()) {
+			Map<String, Sense> labelSenses = getWordnetSenses(
+					new LinkedHashSet<String>(domainLabels.values()), null);
+			for (Map.Entry<String, String> domainLabel : domainLabels.entrySet()) {
+				semanticFields.put(domainLabel.getKey(), 
+						!labelSenses.containsKey(domainLabel.getValue()) ? UNKNOWN
+						: getSemanticField(labelSenses.get(domainLabel.getValue())));
+			}
+		}
+		return semanticFields;
+	}
+
+	/**
+	 * @return
+	 * 		the key of the given lemma and UBY POS in the result of
+	 * 		{@link #getSemanticFields(Map)}
+	 */
+	public static String getKey(String lemma, EPartOfSpeech pos) {
+		return pos.name() + " " + lemma;
+	}
+
+
+	/**
+	 * Returns the sense used for each of the given lemmas which is listed in the wordnet. For 
+	 * WordNet, the most frequent senses are fetched directly, and only the lexical entries of 
+	 * the lemmas without a most frequent sense are loaded. 
+	 * 
+	 * @return
+	 * 		a map from each lemma with a wordnet entry to its sense, which may be null
+	 */
+	protected Map<String, Sense> getWordnetSenses(Collection<String> lemmas, EPartOfSpeech pos) {
+		Map<String, Sense> result = new HashMap<String, Sense>();
+		Collection<String> remainingLemmas = lemmas;
+		if (wordnet.getName().equals("WordNet")) {
+			result.putAll(uby.getMostFrequentSenses(lemmas, pos, wordnet));
+			remainingLemmas = new ArrayList<String>();
+			for (String lemma : lemmas) {
+				if (!result.containsKey(lemma)) {
+					remainingLemmas.add(lemma);
+				}
+			}
+		}
+		if (!remainingLemmas.isEmpty()) {
+			for (Map.Entry<String, List<LexicalEntry>> lexicalEntries 
+					: uby.getLexicalEntries(remainingLemmas, pos, wordnet).entrySet()) {
+				if (!lexicalEntries.getValue().isEmpty()) {
+					result.put(lexicalEntries.getKey(), getWordnetSense(lexicalEntries.getValue()));
+				}
+			}
+		}
+		return result;
+	}
+
+	public Sense getWordnetSense(List<LexicalEntry> lexicalEntries) {
+		Sense sense = null;
+		
+		if (wordnet.getName().equals("WordNet")) {
+			
+			// WordNet contains MFS information, since the senses are ordered by decreasing frequency in SemCor: 
+			// in UBY, this is the sense with index = 1
+			sense = getMostFrequentSense(lexicalEntries);
+		} else if (wordnet.getName().equals("GermaNet")) {
+			// GermaNet does not contain MFS information; the first sense is used
+			sense = lexicalEntries.get(0).getSenses().get(0);
+		}		
+		return sense;
+	}
+
+
+	public String getSemanticField(Sense sense) {	
+		String semanticField = UNKNOWN;
+		
+		if (!(sense == null)) {
+			for (SemanticLabel sl : sense.getSemanticLabels()) {
+				if (sl.getType().toString().matches("semanticField")) {
+					semanticField = sl.getLabel();
+					semanticField = semanticField.replaceAll(".*\\.", "");
+				}			
+			}
+		} else {
+			System.out.println("sense was null");
+		}
+		return semanticField;
+	}
+	
+
+	public String getOtherSemanticLabelValue(List<LexicalEntry> lexicalEntries) {
+		String semanticLabelValue = "";
+		// grab the first entry with a semantic label of type domain
+		for (LexicalEntry lexicalEntry:lexicalEntries) {					    	
+	    	for (Sense s:lexicalEntry.getSenses()) {
+	    		for (SemanticLabel sl:s.getSemanticLabels()) {
+	    			if (sl.getType().equals(ELabelTypeSemantics.domain)) {
+	    				semanticLabelValue = sl.getLabel();
+	    				break;
+	    			}
+	    		}
+	    	}
+		}
+
+		return semanticLabelValue;
+	}
+
+	public String getSemanticField(String semanticLabelValue) {
+		// get the semantic field of a semantic label value of type "domain"
+		String semanticField = UNKNOWN;
+		if (!uby.getLexicalEntries(semanticLabelValue,null,wordnet).isEmpty()) { 
+			List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(semanticLabelValue,null,wordnet);
+			Sense sense = getWordnetSense(lexicalEntries);
+			semanticField = getSemanticField(sense);
+		}
+		
+		return semanticField;
+	}
+
+}
@@ -22,7 +22,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileLock;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.Properties;
 
@@ -51,6 +56,7 @@ import de.tudarmstadt.ukp.lmf.transform.DBConfig;
 public class UbyResource extends Resource_ImplBase implements ExternalResourceLocator {
     private static final String DATABASE = "database";
     private static final String DATABASE_FILE = DATABASE+".h2.db";
+    private static final String EXTRACTED_MARKER = "extracted";
     private static final String UBY_PASSWORD = "uby.password";
     private static final String UBY_USERNAME = "uby.username";
     private static final String UBY_DIALECT = "uby.dialect";
@@ -88,6 +94,86 @@ public class UbyResource extends Resource_ImplBase implements ExternalResourceLo
 	@ConfigurationParameter(name = PARAM_PASSWORD, mandatory = false)
 	private String password;
 
+    /**
+     * Minimum number of pooled database connections.
+     * 
+     * @see DBConfig#setMinPoolSize(int)
+     */
+    public static final String PARAM_MIN_POOL_SIZE = "minPoolSize";
+    @ConfigurationParameter(name = PARAM_MIN_POOL_SIZE, mandatory = true, defaultValue = "1")
+    private int minPoolSize;
+
+    /**
+     * Maximum number of pooled database connections. Set to 0 in order to use one connection, or
+     * one connection per available processor if {@link #PARAM_CONCURRENT} is set.
+     * 
+     * @see DBConfig#setMaxPoolSize(int)
+     */
+    public static final String PARAM_MAX_POOL_SIZE = "maxPoolSize";
+    @ConfigurationParameter(name = PARAM_MAX_POOL_SIZE, mandatory = true, defaultValue = "0")
+    private int maxPoolSize;
+
+    /**
+     * Maximum number of prepared statements cached by the connection pool. Set to 0 in order to
+     * disable the statement cache.
+     * 
+     * @see DBConfig#setMaxStatements(int)
+     */
+    public static final String PARAM_STATEMENT_CACHE_SIZE = "statementCacheSize";
+    @ConfigurationParameter(name = PARAM_STATEMENT_CACHE_SIZE, mandatory = true, defaultValue = "0")
+    private int statementCacheSize;
+
+    /**
+     * Number of rows fetched from the database at once. Set to 0 in order to use the default of
+     * the JDBC driver.
+     * 
+     * @see DBConfig#setFetchSize(int)
+     */
+    public static final String PARAM_FETCH_SIZE = "fetchSize";
+    @ConfigurationParameter(name = PARAM_FETCH_SIZE, mandatory = true, defaultValue = "0")
+    private int fetchSize;
+
+    /**
+     * Number of statements sent to the database at once when writing.
+     * 
+     * @see DBConfig#setBatchSize(int)
+     */
+    public static final String PARAM_BATCH_SIZE = "batchSize";
+    @ConfigurationParameter(name = PARAM_BATCH_SIZE, mandatory = true, defaultValue = "100")
+    private int batchSize;
+
+    /**
+     * Directory in which embedded databases are extracted. Each database is extracted only once
+     * into a sub-directory named after the checksum of the model and reused by later runs and
+     * other processes. Defaults to {@code uby-cache} in the temporary directory of the system.
+     * Outdated databases are not removed automatically.
+     */
+    public static final String PARAM_CACHE_DIRECTORY = "cacheDirectory";
+    @ConfigurationParameter(name = PARAM_CACHE_DIRECTORY, mandatory = false)
+    private String cacheDirectory;
+
+    /**
+     * Open an embedded database in read-only mode. This allows several processes to use the same
+     * extracted database at the same time and ensures that the extracted database is not
+     * modified. If disabled, the first process opens the database and serves it to the other
+     * processes (H2 auto server mode), so changes are visible to every user of the cache.
+     */
+    public static final String PARAM_READ_ONLY = "readOnly";
+    @ConfigurationParameter(name = PARAM_READ_ONLY, mandatory = true, defaultValue = "true")
+    private boolean readOnly;
+
+    /**
+     * Allow several threads to use the {@link Uby} instance of this resource at once, e.g. the
+     * replicas of an analysis engine in a multi-threaded CPE or UIMA-AS deployment. Every thread
+     * then reads from its own read-only Hibernate session. Set {@link #PARAM_MAX_POOL_SIZE} to
+     * the number of threads, so that the threads do not wait for database connections.
+     * 
+     * @see DBConfig#setConcurrent(boolean)
+     */
+    public static final String PARAM_CONCURRENT = "concurrent";
+    @ConfigurationParameter(name = PARAM_CONCURRENT, mandatory = true, defaultValue = "false")
+    private boolean concurrent;
+
     /**
      * Load the model from this location instead of locating the model automatically. If
      *  you are NOT using an embedded database, you need to set this parameter to
@@ -154,37 +240,14 @@ public class UbyResource extends Resource_ImplBase implements ExternalResourceLo
                 if (aUrl != null) {
                     UbyResource.this.getLogger().info("Using embedded database");
 
-                    File tmpFolder = File.createTempFile("uby", ".db");
-                    FileUtils.forceDelete(tmpFolder);
-                    FileUtils.forceMkdir(tmpFolder);
-                    tmpFolder.deleteOnExit();
-
-                    File tmpDbFile = new File(tmpFolder, DATABASE_FILE);
-                    tmpDbFile.deleteOnExit();
-
-                    UbyResource.this.getLogger().info(
-                            "Extracting embedded database to [" + tmpDbFile + "]");
-                    
-                    InputStream is = null;
-                    OutputStream os = null;
-                    try {
-                        // FIXME should probably just do nothing if database file is not compressed
-                        // and if the URL already points to the file system.
-                        is = CompressionUtils.getInputStream(aUrl.toString(), aUrl.openStream());
-                        
-                        os = new FileOutputStream(tmpDbFile);
-                        IOUtils.copyLarge(is, os);
-                    }
-                    finally {
-                        IOUtils.closeQuietly(os);
-                        IOUtils.closeQuietly(is);
-                    }
-                    
+                    File dbFolder = extractDatabase(aUrl);
+
                     // Well... we currently only support H2 as embedded DB. If somebody wants to
                     // use a different embedded DB, we'll have to implement something more
                     // generic here.
-                    meta.setProperty(UBY_URL, "jdbc:h2:" + tmpFolder.toURI().toURL().toString()
-                            + "/" + DATABASE + ";TRACE_LEVEL_FILE=0");
+                    meta.setProperty(UBY_URL, "jdbc:h2:" + dbFolder.toURI().toURL().toString()
+                            + "/" + DATABASE + ";TRACE_LEVEL_FILE=0"
+                            + (readOnly ? ";ACCESS_MODE_DATA=r;FILE_LOCK=NO" : ";AUTO_SERVER=TRUE"));
                 }
                 else {
                     getLogger().info("Connecting to server...");
@@ -200,6 +263,16 @@ public class UbyResource extends Resource_ImplBase implements ExternalResourceLo
                 DBConfig dbConfig = new DBConfig(meta.getProperty(UBY_URL),
                         meta.getProperty(UBY_DRIVER), meta.getProperty(UBY_DIALECT),
                         meta.getProperty(UBY_USERNAME), meta.getProperty(UBY_PASSWORD), false);
+                dbConfig.setMinPoolSize(minPoolSize);
+                dbConfig.setMaxPoolSize(maxPoolSize);
+                dbConfig.setMaxStatements(statementCacheSize);
+                dbConfig.setFetchSize(fetchSize);
+                dbConfig.setBatchSize(batchSize);
+                dbConfig.setConcurrent(concurrent);
+                if (concurrent && dbConfig.getMaxPoolSize() < 2) {
+                    getLogger().warn("Concurrent access with a single pooled connection, set ["
+                            + PARAM_MAX_POOL_SIZE + "] to the number of threads");
+                }
 
                 try {
                     return new Uby(dbConfig);
@@ -213,8 +286,12 @@ public class UbyResource extends Resource_ImplBase implements ExternalResourceLo
 		return true;
 	}
 
+	/**
+	 * Returns the {@link Uby} instance of this resource, which is created on the first call. It
+	 * may only be used by several threads if {@link #PARAM_CONCURRENT} is enabled.
+	 */
 	@Override
-    public Uby getResource() {
+    public synchronized Uby getResource() {
 	    try {
     	    modelProvider.configure();
     		return modelProvider.getResource();
@@ -224,6 +301,94 @@ public class UbyResource extends Resource_ImplBase implements ExternalResourceLo
 	    }
 	}
 	
+	/**
+	 * Extracts the embedded database at the given location to the cache directory unless it has
+	 * been extracted before. A file lock prevents several processes from extracting the same
+	 * database at the same time.
+	 * 
+	 * @return the directory containing the extracted database.
+	 */
+	private File extractDatabase(URL aUrl)
+	    throws IOException
+	{
+	    File cacheFolder = cacheDirectory != null ? new File(cacheDirectory)
+	            : new File(System.getProperty("java.io.tmpdir"), "uby-cache");
+	    FileUtils.forceMkdir(cacheFolder);
+	    String checksum = getChecksum(aUrl);
+	    File dbFolder = new File(cacheFolder, checksum);
+	    File dbFile = new File(dbFolder, DATABASE_FILE);
+	    File extractedMarker = new File(dbFolder, EXTRACTED_MARKER);
+
+	    // File locks are held by the whole JVM, hence threads need to be synchronized as well.
+	    synchronized (UbyResource.class) {
+	        RandomAccessFile lockFile = new RandomAccessFile(
+	                new File(cacheFolder, checksum + ".lock"), "rw");
+	        try {
+	            FileLock lock = lockFile.getChannel().lock();
+	            try {
+	                if (extractedMarker.exists()) {
+	                    getLogger().info("Using extracted database [" + dbFile + "]");
+	                    return dbFolder;
+	                }
+
+	                // Remove the remains of an interrupted extraction.
+	                if (dbFolder.exists()) {
+	                    FileUtils.deleteDirectory(dbFolder);
+	                }
+	                FileUtils.forceMkdir(dbFolder);
+	                getLogger().info("Extracting embedded database to [" + dbFile + "]");
+
+	                InputStream is = null;
+	                OutputStream os = null;
+	                try {
+	                    // FIXME should probably just do nothing if database file is not compressed
+	                    // and if the URL already points to the file system.
+	                    is = CompressionUtils.getInputStream(aUrl.toString(), aUrl.openStream());
+
+	                    os = new FileOutputStream(dbFile);
+	                    IOUtils.copyLarge(is, os);
+	                }
+	                finally {
+	                    IOUtils.closeQuietly(os);
+	                    IOUtils.closeQuietly(is);
+	                }
+	                FileUtils.touch(extractedMarker);
+	                return dbFolder;
+	            }
+	            finally {
+	                lock.release();
+	            }
+	        }
+	        finally {
+	            lockFile.close();
+	        }
+	    }
+	}
+
+	/**
+	 * Returns a checksum identifying the model at the given location, which is computed from the
+	 * location, the size, and the modification time of the model. Hashing the contents of the
+	 * model would take as long as extracting it.
+	 */
+	private static String getChecksum(URL aUrl)
+	    throws IOException
+	{
+	    URLConnection connection = aUrl.openConnection();
+	    String fingerprint = aUrl.toString() + "|" + connection.getContentLengthLong() + "|"
+	            + connection.getLastModified();
+	    IOUtils.closeQuietly(connection.getInputStream());
+	    try {
+	        StringBuilder result = new StringBuilder();
+	        for (byte b : MessageDigest.getInstance("SHA-1").digest(fingerprint.getBytes("UTF-8"))) {
+	            result.append(String.format("%02x", b));
+	        }
+	        return result.toString();
+	    }
+	    catch (NoSuchAlgorithmException e) {
+	        throw new IOException(e);
+	    }
+	}
+
 	private static void addOverride(Properties aProps, String aKey, String aValue)
 	{
 	    if (aValue != null) {
@@ -43,6 +43,8 @@ public class UbyResourceUtils {
 	 * 		a list of lexical entries that share a common lemma form and POS
 	 * @return
 	 * 		the most frequent sense of the first lexical entry in the list
+	 * @see de.tudarmstadt.ukp.lmf.api.Uby#getMostFrequentSense(String, EPartOfSpeech, 
+	 * 		de.tudarmstadt.ukp.lmf.model.core.Lexicon)
 	 */
 	public static Sense getMostFrequentSense(List<LexicalEntry> lexicalEntries) {
 		Sense resultSense = null;
@@ -18,11 +18,17 @@
 package de.tudarmstadt.ukp.uby.resource;
 
 import static de.tudarmstadt.ukp.uby.resource.UbyResourceUtils.corePosToUbyPos;
-import static de.tudarmstadt.ukp.uby.resource.UbyResourceUtils.getMostFrequentSense;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.uima.fit.component.Resource_ImplBase;
@@ -37,11 +43,8 @@ import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 import de.tudarmstadt.ukp.dkpro.core.dictionaryannotator.semantictagging.SemanticTagProvider;
 import de.tudarmstadt.ukp.lmf.api.Uby;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
-import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
 import de.tudarmstadt.ukp.lmf.model.core.Sense;
-import de.tudarmstadt.ukp.lmf.model.enums.ELabelTypeSemantics;
 import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
-import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
 
 
 /**
@@ -50,6 +53,16 @@ import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
  * that annotate common nouns, main verbs and adjectives
  * with semantic field information from WordNet (for English text) 
  * or GermaNet (for German text).
+ * <p>
+ * If a lookup file created by the {@link SemanticFieldLookupBuilder} is given, the semantic
+ * fields of single tokens are taken from this file instead of the database, including the
+ * semantic field "UNKNOWN". Lemmas which are not contained in the file are tagged "UNKNOWN" 
+ * unless the fallback to the database is enabled.
+ * <p>
+ * The semantic fields looked up in the database are kept in a {@link LemmaCache} of 
+ * configurable size, whose hit rate is logged when the resource is destroyed.
+ * <p>
+ * The resource can be shared by several threads if the {@link UbyResource} is concurrent.
  *     
  * @author Judith Eckle-Kohler
  * 
@@ -67,8 +80,37 @@ public class UbySemanticFieldResource
     @ConfigurationParameter(name = PARAM_LANGUAGE, mandatory = false)
     protected String language;
 
+    /**
+     * Lookup file created by the {@link SemanticFieldLookupBuilder} for WordNet or GermaNet.
+     * It is used for documents in the language of its lexicon.
+     */
+    public static final String PARAM_LOOKUP_FILE = "lookupFile";
+    @ConfigurationParameter(name = PARAM_LOOKUP_FILE, mandatory = false)
+    protected File lookupFile;
+
+    /**
+     * Whether lemmas which are not contained in the lookup file are looked up in the database.
+     */
+    public static final String PARAM_FALLBACK_TO_DATABASE = "fallbackToDatabase";
+    @ConfigurationParameter(name = PARAM_FALLBACK_TO_DATABASE, mandatory = true, defaultValue = "false")
+    protected boolean fallbackToDatabase;
+
+    /**
+     * Maximum number of semantic fields looked up in the database which are cached; 0 disables
+     * the cache.
+     */
+    public static final String PARAM_CACHE_SIZE = "cacheSize";
+    @ConfigurationParameter(name = PARAM_CACHE_SIZE, mandatory = true, defaultValue = "10000")
+    protected int cacheSize;
+
 	
-	private Lexicon wordnet;
+	private final Map<String, SemanticFieldResolver> resolvers = new HashMap<String, SemanticFieldResolver>();
+
+	private SemanticFieldResolver resolver;
+
+	private SemanticFieldLookup lookup;
+
+	private LemmaCache<String> cache;
 
 	
     @Override
@@ -79,62 +121,123 @@ public class UbySemanticFieldResource
 			return false;
 		}
 
+		cache = new LemmaCache<String>(cacheSize);
+		if (lookupFile != null) {
+			try {
+				lookup = SemanticFieldLookup.open(lookupFile);
+			} catch (IOException e) {
+				throw new ResourceInitializationException(e);
+			}
+		}
+
         return true;
 
     }
 
+	@Override
+	public void destroy() {
+		getLogger().info("Semantic field cache: " + cache);
+		super.destroy();
+	}
+
+	/**
+	 * @return
+	 * 		the cache of the semantic fields looked up in the database
+	 */
+	public LemmaCache<String> getCache() {
+		return cache;
+	}
+
 
 	@Override
 	public String getSemanticTag(Token token) throws ResourceAccessException {
-				
-		String semanticField = "UNKNOWN";
-		
+		return getSemanticTags(Collections.singletonList(token)).get(token);
+	}
+
+	/**
+	 * Returns the semantic fields of all given tokens of a CAS. In contrast to calling
+	 * {@link #getSemanticTag(Token)} for every token, each distinct lemma is looked up only
+	 * once, and the lexical entries of all lemmas are fetched with a constant number of
+	 * batched queries.
+	 * 
+	 * @param tokens
+	 * 		tokens of the same CAS
+	 * @return
+	 * 		a map from each of the given tokens to its semantic field or "UNKNOWN"
+	 */
+	public Map<Token, String> getSemanticTags(Collection<Token> tokens) throws ResourceAccessException {
+		Map<Token, String> result = new HashMap<Token, String>();
+		if (tokens.isEmpty()) {
+			return result;
+		}
+
 		try {
-			// the documentLanguage is specified as ISO 2-letter code (following the DKPro-Core convention)
-			if (token.getCAS().getDocumentLanguage().equals("en")) {
-				wordnet = uby.getLexiconByName("WordNet");
-			} else if (language.equals("en")) {
-				wordnet = uby.getLexiconByName("WordNet");
-			} else if (token.getCAS().getDocumentLanguage().equals("de")) {
-				wordnet = uby.getLexiconByName("GermaNet");
-			} else if (language.equals("de")) {
-				wordnet = uby.getLexiconByName("GermaNet");
+			String lexiconName = getLexiconName(tokens.iterator().next().getCAS().getDocumentLanguage());
+			boolean useLookup = lookup != null && lookup.getLexiconName().equals(lexiconName);
+
+			// does the token have a POS which has relevant information in the lexicon?
+			// Only the first UBY POS is considered for each token.
+			Map<String, String> semanticFields = new HashMap<String, String>();
+			Map<EPartOfSpeech, Set<String>> lemmasByPos = new HashMap<EPartOfSpeech, Set<String>>();
+			for (Token token : tokens) {
+				EPartOfSpeech[] ubyPos = corePosToUbyPos(token.getPos().getType().getShortName());
+				if (ubyPos.length == 0) {
+					result.put(token, SemanticFieldResolver.UNKNOWN);
+					continue;
+				}
+				String lemma = token.getLemma().getValue();
+				String key = SemanticFieldResolver.getKey(lemma, ubyPos[0]);
+				if (semanticFields.containsKey(key) 
+						|| (lemmasByPos.containsKey(ubyPos[0]) && lemmasByPos.get(ubyPos[0]).contains(lemma))) {
+					// already looked up for another token
+					continue;
+				}
+				if (useLookup) {
+					String semanticField = lookup.get(lemma, ubyPos[0]);
+					if (semanticField != null || !fallbackToDatabase) {
+						semanticFields.put(key,
+								semanticField != null ? semanticField : SemanticFieldResolver.UNKNOWN);
+						continue;
+					}
+				}
+				String cachedSemanticField = cache.get(lexiconName + " " + key);
+				if (cachedSemanticField != null) {
+					semanticFields.put(key, cachedSemanticField);
+					continue;
+				}
+				Set<String> lemmas = lemmasByPos.get(ubyPos[0]);
+				if (lemmas == null) {
+					lemmas = new LinkedHashSet<String>();
+					lemmasByPos.put(ubyPos[0], lemmas);
+				}
+				lemmas.add(lemma);
 			}
-					
-			// does the token have a POS which has relevant information in the lexicon?	
-			if (corePosToUbyPos(token.getPos().getType().getShortName()).length == 0) {
-				return "UNKNOWN"; 
-			// is the lemma contained in any of the UBY lexicons?
-			} else if (uby.getLexicalEntries(token.getLemma().getValue(),null,null).isEmpty()) { 
-				return "UNKNOWN"; 
-			} else { // there is at least one UBY lexicon that contains the lemma
-				for (EPartOfSpeech pos : corePosToUbyPos(token.getPos().getType().getShortName())) {
-					
-					if (!uby.getLexicalEntries(token.getLemma().getValue(),pos,wordnet).isEmpty()) { 
-						// the lemma is listed in the English or German wordnet with the given POS
-						
-						List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(token.getLemma().getValue(),pos,wordnet);
-						Sense sense = getWordnetSense(lexicalEntries);
-						return getSemanticField(sense);
-						
-					} 
-					 else {
-						 // find the UBY lexical entry for the given lemma,
-						 // get a semantic label of type domain, if it exists
-						 // and retrieve the semantic field of the domain label 
-						List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(token.getLemma().getValue(),null,null);						
-						String otherSemanticLabelValue = getOtherSemanticLabelValue(lexicalEntries);
-						return getSemanticField(otherSemanticLabelValue);						
-					}					
+
+			if (!lemmasByPos.isEmpty()) {
+				SemanticFieldResolver resolver = getResolver(lexiconName);
+				Map<String, String> resolvedSemanticFields = resolver.getSemanticFields(lemmasByPos);
+				for (Map.Entry<String, String> semanticField : resolvedSemanticFields.entrySet()) {
+					cache.put(lexiconName + " " + semanticField.getKey(), semanticField.getValue());
+				}
+				semanticFields.putAll(resolvedSemanticFields);
+				if (uby.getDbConfig().isConcurrent()) {
+					// close the session of this thread to keep its memory consumption constant
+					uby.releaseSession();
 				}
 			}
-			
-			return semanticField;
-			
+
+			for (Token token : tokens) {
+				if (!result.containsKey(token)) {
+					EPartOfSpeech pos = corePosToUbyPos(token.getPos().getType().getShortName())[0];
+					result.put(token, semanticFields.get(
+							SemanticFieldResolver.getKey(token.getLemma().getValue(), pos)));
+				}
+			}
+			return result;
+
 		} catch (Exception e) {
 	        throw new ResourceAccessException(e);
 		}
-				
 	}
 
 	@Override
@@ -148,29 +251,33 @@ public class UbySemanticFieldResource
 				
 		try {
 			// the documentLanguage is specified as ISO 2-letter code (following the DKPro-Core convention)
-			if (tokens.get(0).getCAS().getDocumentLanguage().equals("en")) {
-				wordnet = uby.getLexiconByName("WordNet");
-			} else if (tokens.get(0).getCAS().getDocumentLanguage().equals("de")) {
-				wordnet = uby.getLexiconByName("GermaNet");
-			}			
+			String documentLanguage = tokens.get(0).getCAS().getDocumentLanguage();
+			SemanticFieldResolver resolver;
+			if ("en".equals(documentLanguage)) {
+				resolver = getResolver("WordNet");
+			} else if ("de".equals(documentLanguage)) {
+				resolver = getResolver("GermaNet");
+			} else {
+				resolver = getResolver(null);
+			}
 					
 			// we do not check, if the lemmaString has an entry in the lexicon with a POS corresponding to the Core POS type
 			// because multiwords tend to have non-consistent POS assigned in the lexicon
 			if (uby.getLexicalEntries(lemmaString,null,null).isEmpty()) { 
-				return "UNKNOWN"; 
+				return SemanticFieldResolver.UNKNOWN; 
 			} else { // there is at least one UBY lexicon that contains the multiword as lemma					
-				if (!uby.getLexicalEntries(lemmaString,null,wordnet).isEmpty()) { 
+				if (!uby.getLexicalEntries(lemmaString,null,resolver.getLexicon()).isEmpty()) { 
 					// the lemma is listed in the English or German wordnet 					
-					List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(lemmaString,null,wordnet);
-					Sense sense = getWordnetSense(lexicalEntries);
-					return getSemanticField(sense);					
+					List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(lemmaString,null,resolver.getLexicon());
+					Sense sense = resolver.getWordnetSense(lexicalEntries);
+					return resolver.getSemanticField(sense);					
 				} else {
 					 // find the UBY lexical entry for the given lemma,
 					 // get a semantic label of type domain, if it exists
 					 // and retrieve the semantic field of the domain label 
 					List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(lemmaString,null,null);						
-					String otherSemanticLabelValue = getOtherSemanticLabelValue(lexicalEntries);
-					return getSemanticField(otherSemanticLabelValue);						
+					String otherSemanticLabelValue = resolver.getOtherSemanticLabelValue(lexicalEntries);
+					return resolver.getSemanticField(otherSemanticLabelValue);						
 				}	
 			}
 						
@@ -179,72 +286,44 @@ public class UbySemanticFieldResource
 		}
 	}
 
-
-
-	private Sense getWordnetSense(List<LexicalEntry> lexicalEntries) {
-		Sense sense = null;
-		
-		if (wordnet.getName().equals("WordNet")) {
-			
-			// WordNet contains MFS information, since the senses are ordered by decreasing frequency in SemCor: 
-			// in UBY, this is the sense with index = 1
-			sense = getMostFrequentSense(lexicalEntries);
-		} else if (wordnet.getName().equals("GermaNet")) {
-			// GermaNet does not contain MFS information; the first sense is used
-			sense = lexicalEntries.get(0).getSenses().get(0);
-		}		
-		return sense;
-	}
-
-
-	private String getSemanticField(Sense sense) {	
-		String semanticField = "UNKNOWN";
-		
-		if (!(sense == null)) {
-			for (SemanticLabel sl : sense.getSemanticLabels()) {
-				if (sl.getType().toString().matches("semanticField")) {
-					semanticField = sl.getLabel();
-					semanticField = semanticField.replaceAll(".*\\.", "");
-				}			
-			}
-		} else {
-			System.out.println("sense was null");
-		}
-		return semanticField;
-	}
-	
-
-	private String getOtherSemanticLabelValue(List<LexicalEntry> lexicalEntries) {
-		String semanticLabelValue = "";
-		// grab the first entry with a semantic label of type domain
-		for (LexicalEntry lexicalEntry:lexicalEntries) {					    	
-	    	for (Sense s:lexicalEntry.getSenses()) {
-	    		for (SemanticLabel sl:s.getSemanticLabels()) {
-	    			if (sl.getType().equals(ELabelTypeSemantics.domain)) {
-	    				semanticLabelValue = sl.getLabel();
-	    				break;
-	    			}
-	    		}
-	    	}
+	/**
+	 * @return
+	 * 		the name of the wordnet used for the given document language, "WordNet" or 
+	 * 		"GermaNet", or null if neither the document language nor the language parameter
+	 * 		is English or German
+	 */
+	private String getLexiconName(String documentLanguage) {
+		// the documentLanguage is specified as ISO 2-letter code (following the DKPro-Core convention)
+		if ("en".equals(documentLanguage)) {
+			return "WordNet";
+		} else if ("en".equals(language)) {
+			return "WordNet";
+		} else if ("de".equals(documentLanguage)) {
+			return "GermaNet";
+		} else if ("de".equals(language)) {
+			return "GermaNet";
 		}
-
-		return semanticLabelValue;
+		return null;
 	}
 
-	private String getSemanticField(String semanticLabelValue) {
-		// get the semantic field of a semantic label value of type "domain"
-		String semanticField = "UNKNOWN";
-		if (!uby.getLexicalEntries(semanticLabelValue,null,wordnet).isEmpty()) { 
-			List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(semanticLabelValue,null,wordnet);
-			Sense sense = getWordnetSense(lexicalEntries);
-			semanticField = getSemanticField(sense);
+	/**
+	 * Returns the resolver for database lookups in the given lexicon. If no lexicon name is 
+	 * given, the previously used lexicon is kept. There is one resolver per lexicon, so that 
+	 * threads sharing this resource (with a concurrent {@link UbyResource}) do not switch the 
+	 * lexicon of each other's resolver.
+	 */
+	private synchronized SemanticFieldResolver getResolver(String lexiconName) {
+		if (lexiconName != null) {
+			resolver = resolvers.get(lexiconName);
+			if (resolver == null) {
+				resolver = new SemanticFieldResolver(uby);
+				resolver.setLexicon(uby.getLexiconByName(lexiconName));
+				resolvers.put(lexiconName, resolver);
+			}
+		} else if (resolver == null) {
+			resolver = new SemanticFieldResolver(uby);
 		}
-		
-		return semanticField;
+		return resolver;
 	}
 
-
-		
 }
-
-
@@ -19,6 +19,10 @@ package de.tudarmstadt.ukp.uby.uima.annotator;
 
 import static org.apache.uima.fit.util.JCasUtil.select;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.descriptor.ExternalResource;
@@ -58,19 +62,23 @@ public class UbySemanticFieldAnnotator extends JCasAnnotator_ImplBase
 
 	@Override
 	public void process(JCas aJCas) throws AnalysisEngineProcessException {
+		// collect the tokens first in order to look up all their lemmas at once
+		List<Token> tokens = new ArrayList<Token>();
 		for (POS pos : select(aJCas, POS.class)) {
-			for (Token token : JCasUtil.selectCovered(aJCas, Token.class, pos)) {
-				try {
-					String semanticField = ubySemanticFieldResource.getSemanticTag(token);
-					SemanticField semanticFieldAnnotation = new SemanticField(aJCas, token.getBegin(), token.getEnd());
-					semanticFieldAnnotation.setValue(semanticField);
-					semanticFieldAnnotation.addToIndexes();
-				} catch (ResourceAccessException e) {
-					throw new AnalysisEngineProcessException(e);
-				}
+			tokens.addAll(JCasUtil.selectCovered(aJCas, Token.class, pos));
+		}
 
-			}
+		Map<Token, String> semanticFields;
+		try {
+			semanticFields = ubySemanticFieldResource.getSemanticTags(tokens);
+		} catch (ResourceAccessException e) {
+			throw new AnalysisEngineProcessException(e);
+		}
 
+		for (Token token : tokens) {
+			SemanticField semanticFieldAnnotation = new SemanticField(aJCas, token.getBegin(), token.getEnd());
+			semanticFieldAnnotation.setValue(semanticFields.get(token));
+			semanticFieldAnnotation.addToIndexes();
 		}
 
 	}
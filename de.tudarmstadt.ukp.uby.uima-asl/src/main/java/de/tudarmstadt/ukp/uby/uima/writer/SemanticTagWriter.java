@@ -17,8 +17,6 @@
  ******************************************************************************/
 package de.tudarmstadt.ukp.uby.uima.writer;
 
-import static de.tudarmstadt.ukp.uby.resource.UbyResourceUtils.getMostFrequentSense;
-
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -40,6 +38,7 @@ import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 import de.tudarmstadt.ukp.dkpro.core.api.semantics.type.SemanticField;
 import de.tudarmstadt.ukp.lmf.api.Uby;
 import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
 import de.tudarmstadt.ukp.lmf.model.core.Sense;
 import de.tudarmstadt.ukp.lmf.model.enums.ELabelTypeSemantics;
 import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
@@ -52,8 +51,15 @@ import de.tudarmstadt.ukp.lmf.model.semantics.SynsetRelation;
 import de.tudarmstadt.ukp.lmf.model.syntax.SubcategorizationFrame;
 import de.tudarmstadt.ukp.lmf.model.syntax.SyntacticArgument;
 import de.tudarmstadt.ukp.lmf.model.syntax.SyntacticBehaviour;
+import de.tudarmstadt.ukp.uby.resource.LemmaCache;
+import de.tudarmstadt.ukp.uby.resource.UbyResourceUtils;
 
 /**
+ * Writes the lemma, POS, and semantic field of each token together with the syntactic
+ * behaviour, synonyms, semantically related words, and associated topics of the content
+ * words looked up in UBY. The information looked up for a lemma and POS is kept in a 
+ * {@link LemmaCache}, so that frequent lemmas are looked up only once.
+ *
  * @author Eckle-Kohler
  *
  */
@@ -67,12 +73,25 @@ public class SemanticTagWriter
     @ConfigurationParameter(name = PARAM_TARGET_LOCATION, mandatory = true)
     private String outputParam;
 
+    /**
+     * Maximum number of lemma and POS pairs whose UBY information is cached; 0 disables the
+     * cache.
+     */
+    public static final String PARAM_CACHE_SIZE = "cacheSize";
+    @ConfigurationParameter(name = PARAM_CACHE_SIZE, mandatory = true, defaultValue = "10000")
+    private int cacheSize;
+
     public static final String RES_UBY = "uby";
     @ExternalResource(key = RES_UBY)
     private Uby uby;
 
     private BufferedWriter writer;
 
+    private LemmaCache<LemmaInformation> cache;
+
+    /** WordNet lexicon, whose senses are ordered by frequency; null if UBY does not contain it. */
+    private Lexicon wordNet;
+
     private static ArrayList<String> auxiliariesAndModals = new ArrayList<String>(
             Arrays.asList("be", "do", "have", "can", "will", "should", "must"));
 
@@ -81,6 +100,13 @@ public class SemanticTagWriter
         throws ResourceInitializationException
     {
         super.initialize(context);
+        cache = new LemmaCache<LemmaInformation>(cacheSize);
+        try {
+            wordNet = uby.getLexiconByName("WordNet");
+        }
+        catch (IllegalArgumentException e) {
+            getLogger().warn("UBY does not contain WordNet, using the first sense of any lexicon");
+        }
         try {
             writer = new BufferedWriter(new FileWriter(outputParam));
         }
@@ -99,21 +125,19 @@ public class SemanticTagWriter
             List<Token> sentenceTokens = JCasUtil.selectCovered(jcas, Token.class, sentence);
             for (int i = 0; i < sentenceTokens.size(); i++) {
                 Token token = sentenceTokens.get(i);
-                Sense mfs = null;
+                String lemma = token.getLemma().getValue();
+                String pos = token.getPos().getType().getShortName();
+                LemmaInformation lemmaInformation = null;
 
             	// Uby provides lexical information mainly for content words: nouns, main verbs, adjectives;
             	// auxiliary and modal verbs are contained in Uby, but in running text they are rarely used as main verbs,
             	// but mostly as function words (to form particular tense and voice constructions) or as modality markers
-                if ((token.getPos().getType().getShortName().equals("V") ||
-                		token.getPos().getType().getShortName().matches("N.*") ||
-                		token.getPos().getType().getShortName().equals("ADJ"))  &&
-                        !auxiliariesAndModals.contains(token.getLemma().getValue())) {
-                        mfs = getMostFrequentSense(uby.getLexicalEntries(token.getLemma().getValue(), null, null));
+                if ((pos.equals("V") || pos.matches("N.*") || pos.equals("ADJ"))  &&
+                        !auxiliariesAndModals.contains(lemma)) {
+                    lemmaInformation = getLemmaInformation(lemma, pos);
                 }
 
                 // write lemma, POS annotations and results of Uby lookup to the output file:
-                String syntacticBehaviour = getSyntacticBehaviour(token.getPos().getType().getShortName(),uby.getLexicalEntries(token.getLemma().getValue(),
-                		EPartOfSpeech.verb, null));
                 List<SemanticField> semanticFieldAnnotations = JCasUtil.selectCovering(jcas,
                         SemanticField.class, token.getBegin(), token.getEnd());
                 for (int j = 0; j < semanticFieldAnnotations.size(); j++) {
@@ -126,28 +150,27 @@ public class SemanticTagWriter
                     	semFieldValue = semanticField.getValue();
                     }
 
-                	if  (mfs != null && mfs.getSynset() != null
-                    			&& !auxiliariesAndModals.contains(token.getLemma().getValue())) {
+                	if  (lemmaInformation != null && lemmaInformation.synonyms != null) {
 
                         writeTokenAndSemanticField(token.getCoveredText() + "\t"
-                                + token.getLemma().getValue() + "\t"
-                                + token.getPos().getType().getShortName() + "\n"
-                                + "\t syntax: " +syntacticBehaviour + "\n"
+                                + lemma + "\t"
+                                + pos + "\n"
+                                + "\t syntax: " + lemmaInformation.syntacticBehaviour + "\n"
 
                                 // for retrieving semantic field, synonyms and semantically related words, the word is disambiguated
                                 // according to the MFS heuristic
                                 + "\t semantic field: " +semFieldValue + "\n"
-                                + "\t synonyms: " +getSynonymousWords(token.getLemma().getValue(), mfs.getSynset()) + "\n"
-                                + "\t related: " +getSemanticallyRelatedWords(mfs.getSynset()) + "\n"
+                                + "\t synonyms: " +lemmaInformation.synonyms + "\n"
+                                + "\t related: " +lemmaInformation.relatedWords + "\n"
 
                                 // "associated topics" means something like creatively associating topics with a given word
                                 // for constructing creative associations, disambiguation is not necessary (it actually limits association links)
-                                + "\t associated: " +getSemanticLabels(uby.getLexicalEntries(token.getLemma().getValue(), null, null)) + "\n"
+                                + "\t associated: " +lemmaInformation.semanticLabels + "\n"
                         		);
                     } else {
                         writeTokenAndSemanticField(token.getCoveredText() + "\t"
-                                + token.getLemma().getValue() + "\t"
-                                + token.getPos().getType().getShortName() + "\n"
+                                + lemma + "\t"
+                                + pos + "\n"
                                 );
                     }
                 }
@@ -155,6 +178,49 @@ public class SemanticTagWriter
         }
     }
 
+    @Override
+    public void collectionProcessComplete()
+        throws AnalysisEngineProcessException
+    {
+        getLogger().info("Lemma cache: " + cache);
+        super.collectionProcessComplete();
+    }
+
+    /**
+     * Returns the UBY information of the given lemma and POS from the cache or looks it up. The
+     * lexical entries of the lemma are fetched once and used for the syntactic behaviour of
+     * verbs and the associated labels, while the MFS is fetched directly from WordNet.
+     */
+    private LemmaInformation getLemmaInformation(String lemma, String pos)
+    {
+        String key = pos + "\t" + lemma;
+        LemmaInformation lemmaInformation = cache.get(key);
+        if (lemmaInformation == null) {
+            lemmaInformation = new LemmaInformation();
+            List<LexicalEntry> lexicalEntries = uby.getLexicalEntries(lemma, null, null);
+            List<LexicalEntry> verbEntries = new ArrayList<LexicalEntry>();
+            if (pos.equals("V")) {
+                for (LexicalEntry lexicalEntry : lexicalEntries) {
+                    if (EPartOfSpeech.verb.equals(lexicalEntry.getPartOfSpeech())) {
+                        verbEntries.add(lexicalEntry);
+                    }
+                }
+            }
+            lemmaInformation.syntacticBehaviour = getSyntacticBehaviour(pos, verbEntries);
+
+            EPartOfSpeech[] ubyPos = UbyResourceUtils.corePosToUbyPos(pos);
+            Sense mfs = uby.getMostFrequentSense(lemma, ubyPos.length > 0 ? ubyPos[0] : null,
+                    wordNet);
+            if (mfs != null && mfs.getSynset() != null) {
+                lemmaInformation.synonyms = getSynonymousWords(lemma, mfs.getSynset());
+                lemmaInformation.relatedWords = getSemanticallyRelatedWords(mfs.getSynset());
+                lemmaInformation.semanticLabels = getSemanticLabels(lexicalEntries);
+            }
+            cache.put(key, lemmaInformation);
+        }
+        return lemmaInformation;
+    }
+
     /*
      * This method groups the complex subcat frames into four classes:
      * transitive, intransitive, transitive with to-infinitive, intransitive
@@ -338,4 +404,16 @@ public class SemanticTagWriter
         return result;
     }
 
+    /**
+     * UBY information of a lemma. The synonyms, related words, and semantic labels are null
+     * if the lemma has no most frequent sense with a synset.
+     */
+    private static class LemmaInformation
+    {
+        private String syntacticBehaviour;
+        private String synonyms;
+        private String relatedWords;
+        private String semanticLabels;
+    }
+
 }
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests the eviction order and the hit counting of the {@link LemmaCache}.
+ *
+ */
+public class LemmaCacheTest
+{
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		LemmaCache<String> cache = new LemmaCache<String>(2);
+		cache.put("house", "N");
+		cache.put("run", "V");
+		assertEquals("N", cache.get("house"));
+
+		// "run" is the least recently used lemma now
+		cache.put("green", "ADJ");
+		assertEquals(2, cache.size());
+		assertNull(cache.get("run"));
+		assertEquals("N", cache.get("house"));
+		assertEquals("ADJ", cache.get("green"));
+
+		// putting an existing lemma counts as a use, too
+		cache.put("house", "NN");
+		cache.put("run", "V");
+		assertNull(cache.get("green"));
+		assertEquals("NN", cache.get("house"));
+		assertEquals("V", cache.get("run"));
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		LemmaCache<String> cache = new LemmaCache<String>(10);
+		assertEquals(0, cache.getHitRate(), 0);
+		assertNull(cache.get("house"));
+		cache.put("house", "N");
+		cache.put("run", null);
+		assertEquals("N", cache.get("house"));
+		assertEquals("N", cache.get("house"));
+		assertNull(cache.get("run"));
+
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0);
+		assertEquals(1, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void testDisabledCache() {
+		LemmaCache<String> cache = new LemmaCache<String>(0);
+		cache.put("house", "N");
+		assertNull(cache.get("house"));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeCapacity() {
+		new LemmaCache<String>(-1);
+	}
+
+}
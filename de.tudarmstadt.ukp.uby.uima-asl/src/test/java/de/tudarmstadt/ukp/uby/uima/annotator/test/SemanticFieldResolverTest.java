@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright 2017
+ * Ubiquitous Knowledge Processing (UKP) Lab
+ * Technische Universität Darmstadt
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package de.tudarmstadt.ukp.uby.uima.annotator.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.hibernate.UBYH2Dialect;
+import de.tudarmstadt.ukp.lmf.model.core.GlobalInformation;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalEntry;
+import de.tudarmstadt.ukp.lmf.model.core.LexicalResource;
+import de.tudarmstadt.ukp.lmf.model.core.Lexicon;
+import de.tudarmstadt.ukp.lmf.model.core.Sense;
+import de.tudarmstadt.ukp.lmf.model.enums.ELabelTypeSemantics;
+import de.tudarmstadt.ukp.lmf.model.enums.ELanguageIdentifier;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
+import de.tudarmstadt.ukp.lmf.model.meta.SemanticLabel;
+import de.tudarmstadt.ukp.lmf.model.morphology.FormRepresentation;
+import de.tudarmstadt.ukp.lmf.model.morphology.Lemma;
+import de.tudarmstadt.ukp.lmf.transform.DBConfig;
+import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
+import de.tudarmstadt.ukp.lmf.transform.LexicalResourceToDBTransformer;
+import de.tudarmstadt.ukp.uby.resource.SemanticFieldResolver;
+
+/**
+ * Checks that the {@link SemanticFieldResolver} resolves the semantic fields of
+ * many lemmas with as many statements as those of a few lemmas.
+ *
+ */
+public class SemanticFieldResolverTest
+{
+
+	private static final int LEMMAS = 60;
+
+	@Test
+	public void testStatementCount() throws FileNotFoundException {
+		Uby uby = createUby();
+		try {
+			SemanticFieldResolver resolver = new SemanticFieldResolver(uby);
+			resolver.setLexicon(uby.getLexiconByName("WordNet"));
+			Statistics statistics = uby.getStatistics();
+			statistics.setStatisticsEnabled(true);
+
+			long fewLemmasStatements = countStatements(resolver, 0, 10);
+			long manyLemmasStatements = countStatements(resolver, 10, LEMMAS);
+			assertEquals(fewLemmasStatements, manyLemmasStatements);
+		} finally {
+			uby.closeSession();
+		}
+	}
+
+	/** Resolves the lemmas with the given numbers and returns the number of
+	 *  prepared statements. */
+	private static long countStatements(SemanticFieldResolver resolver, int from, int to) {
+		List<String> lemmas = new ArrayList<String>();
+		for (int i = from; i < to; i++) {
+			lemmas.add("lemma" + i);
+		}
+		Uby uby = resolver.getUby();
+		uby.getSession().clear();
+		uby.getStatistics().clear();
+		Map<String, String> semanticFields = resolver.getSemanticFields(
+				Collections.singletonMap(EPartOfSpeech.noun, lemmas));
+		for (String lemma : lemmas) {
+			assertEquals("artifact", semanticFields.get(
+					SemanticFieldResolver.getKey(lemma, EPartOfSpeech.noun)));
+		}
+		return uby.getStatistics().getPrepareStatementCount();
+	}
+
+	/** Creates a WordNet lexicon whose lemmas each have a most frequent
+	 *  sense with a semantic field. */
+	private static Uby createUby() throws FileNotFoundException {
+		DBConfig dbConfig = new DBConfig("jdbc:h2:mem:semanticFieldResolver;DB_CLOSE_DELAY=-1",
+				"org.h2.Driver", UBYH2Dialect.class.getName(), "root", "pass", false);
+		LMFDBUtils.createTables(dbConfig);
+
+		LexicalResource lexicalResource = new LexicalResource();
+		lexicalResource.setName("SemanticFieldResource");
+		lexicalResource.setDtdVersion("0.3.0");
+		GlobalInformation globalInformation = new GlobalInformation();
+		globalInformation.setLabel("SemanticFieldResource");
+		lexicalResource.setGlobalInformation(globalInformation);
+		Lexicon lexicon = new Lexicon();
+		lexicon.setId("WN_Lexicon_0");
+		lexicon.setName("WordNet");
+		lexicon.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+		lexicalResource.addLexicon(lexicon);
+
+		for (int i = 0; i < LEMMAS; i++) {
+			LexicalEntry lexicalEntry = new LexicalEntry("WN_LexicalEntry_" + i);
+			lexicalEntry.setPartOfSpeech(EPartOfSpeech.noun);
+			lexicalEntry.setLexicon(lexicon);
+			FormRepresentation formRepresentation = new FormRepresentation();
+			formRepresentation.setLanguageIdentifier(ELanguageIdentifier.ENGLISH);
+			formRepresentation.setWrittenForm("lemma" + i);
+			List<FormRepresentation> formRepresentations = new ArrayList<FormRepresentation>();
+			formRepresentations.add(formRepresentation);
+			Lemma lemma = new Lemma();
+			lemma.setFormRepresentations(formRepresentations);
+			lexicalEntry.setLemma(lemma);
+
+			Sense sense = new Sense("WN_Sense_" + i);
+			sense.setIndex(1);
+			sense.setLexicalEntry(lexicalEntry);
+			SemanticLabel semanticLabel = new SemanticLabel();
+			semanticLabel.setLabel("noun.artifact");
+			semanticLabel.setType(ELabelTypeSemantics.semanticField);
+			List<SemanticLabel> semanticLabels = new ArrayList<SemanticLabel>();
+			semanticLabels.add(semanticLabel);
+			sense.setSemanticLabels(semanticLabels);
+			List<Sense> senses = new ArrayList<Sense>();
+			senses.add(sense);
+			lexicalEntry.setSenses(senses);
+			lexicon.addLexicalEntry(lexicalEntry);
+		}
+		new LexicalResourceToDBTransformer(dbConfig, lexicalResource).transform();
+		return new Uby(dbConfig);
+	}
+
+}
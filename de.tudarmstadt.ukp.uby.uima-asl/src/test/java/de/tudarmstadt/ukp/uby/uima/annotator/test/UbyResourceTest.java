@@ -21,12 +21,24 @@ import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
 import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
 import static org.apache.uima.fit.factory.ExternalResourceFactory.createExternalResourceDescription;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.FileNotFoundException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.uima.UIMAException;
+import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -34,8 +46,11 @@ import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.jcas.JCas;
 import org.dom4j.DocumentException;
+import org.hibernate.HibernateException;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import de.tudarmstadt.ukp.dkpro.core.api.resources.ResourceObjectProviderBase;
 import de.tudarmstadt.ukp.lmf.api.Uby;
@@ -53,6 +68,9 @@ import de.tudarmstadt.ukp.uby.resource.UbyResource;
 public class UbyResourceTest
 {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testUbyResourceOnInMemDb()
 		throws Exception
@@ -65,6 +83,57 @@ public class UbyResourceTest
                
 	}
 
+	@Test
+	public void testConcurrentUbyResourceOnInMemDb()
+		throws Exception
+	{
+	    
+        runAnnotatorTestOnInMemDb("en", ConcurrentTestAnnotator.class,
+        		UbyResource.PARAM_CONCURRENT, true,
+        		UbyResource.PARAM_MAX_POOL_SIZE, ConcurrentTestAnnotator.THREADS);
+               
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testEmbeddedDatabaseCache()
+		throws Exception
+	{
+		File model = createEmbeddedDatabase();
+		File cache = folder.newFolder("cache");
+
+		Uby uby = createEmbeddedUbyResource(model, cache).getResource();
+		assertFalse(uby.getLexiconNames().isEmpty());
+		File[] extracted = getExtractedDatabases(cache);
+		assertEquals(1, extracted.length);
+		try {
+			uby.getSession().createSQLQuery("CREATE TABLE test_write (id INT)").executeUpdate();
+			fail("The extracted database should be opened read-only");
+		}
+		catch (HibernateException e) {
+			// expected
+		}
+
+		// A second resource reuses the extracted database while the first one is still open.
+		File reusedMarker = new File(extracted[0], "reused");
+		assertTrue(reusedMarker.createNewFile());
+		Uby reusedUby = createEmbeddedUbyResource(model, cache).getResource();
+		assertEquals(uby.getLexiconNames(), reusedUby.getLexiconNames());
+		assertEquals(1, getExtractedDatabases(cache).length);
+		assertTrue(reusedMarker.exists());
+
+		// A modified model has a different checksum and is extracted again.
+		assertTrue(model.setLastModified(model.lastModified() + 60000));
+		Uby updatedUby = createEmbeddedUbyResource(model, cache).getResource();
+		assertEquals(uby.getLexiconNames(), updatedUby.getLexiconNames());
+		assertEquals(2, getExtractedDatabases(cache).length);
+		assertTrue(reusedMarker.exists());
+
+		uby.closeSession();
+		reusedUby.closeSession();
+		updatedUby.closeSession();
+	}
+
 	@Ignore
 	@Test
 	public void testUbyResourceOnMySqlDb()
@@ -82,6 +151,13 @@ public class UbyResourceTest
 	 */	 
     private void runAnnotatorTestOnInMemDb(String language)
         throws UIMAException, FileNotFoundException, DocumentException, IllegalArgumentException
+    {
+        runAnnotatorTestOnInMemDb(language, TestAnnotator.class);
+    }
+
+    private void runAnnotatorTestOnInMemDb(String language, 
+            Class<? extends JCasAnnotator_ImplBase> annotatorClass, Object... ubyResourceParams)
+        throws UIMAException, FileNotFoundException, DocumentException, IllegalArgumentException
     {
 	 	DBConfig dbConfig = new DBConfig("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1","org.h2.Driver","h2","root","pass",false);
 		
@@ -95,16 +171,10 @@ public class UbyResourceTest
 		AnalysisEngineDescription processor = createEngineDescription(
 
 				createEngineDescription(
-		                TestAnnotator.class,
+		                annotatorClass,
 		                TestAnnotator.RES_UBY,
 						createExternalResourceDescription(UbyResource.class,
-		                	UbyResource.PARAM_MODEL_LOCATION, ResourceObjectProviderBase.NOT_REQUIRED,								
-							UbyResource.PARAM_URL, "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
-							UbyResource.PARAM_DRIVER, "org.h2.Driver",
-							UbyResource.PARAM_DIALECT, "h2",
-							UbyResource.PARAM_USERNAME, "root",
-							UbyResource.PARAM_PASSWORD, "pass"
-									))
+								getUbyResourceParams(ubyResourceParams)))
 		);
 
 		AnalysisEngine engine = createEngine(processor);
@@ -116,6 +186,78 @@ public class UbyResourceTest
 	
 	}	
 
+    /**
+     * Creates an H2 file database with the test lexicon, which is used as the model of an
+     * embedded database.
+     *
+     * @return the database file
+     */
+    private File createEmbeddedDatabase()
+        throws Exception
+    {
+        File directory = folder.newFolder("model");
+        String url = "jdbc:h2:file:" + new File(directory, "database").getAbsolutePath();
+        DBConfig dbConfig = new DBConfig(url, "org.h2.Driver", "h2", "root", "pass", false);
+        LMFDBUtils.createTables(dbConfig);
+        new XMLToDBTransformer(dbConfig).transform(
+                new File("src/test/resources/UbyTestLexicon.xml"), "UbyTest");
+
+        // Close the database, so that its contents are written to the file.
+        Connection connection = DriverManager.getConnection(url, "root", "pass");
+        try {
+            connection.createStatement().execute("SHUTDOWN");
+        }
+        finally {
+            connection.close();
+        }
+        return new File(directory, "database.h2.db");
+    }
+
+    private static UbyResource createEmbeddedUbyResource(File model, File cache)
+        throws Exception
+    {
+        return (UbyResource) UIMAFramework.produceResource(UbyResource.class,
+                createExternalResourceDescription(UbyResource.class,
+                        UbyResource.PARAM_MODEL_LOCATION, model.getAbsolutePath(),
+                        UbyResource.PARAM_LANGUAGE, "en",
+                        UbyResource.PARAM_CACHE_DIRECTORY, cache.getAbsolutePath(),
+                        UbyResource.PARAM_DRIVER, "org.h2.Driver",
+                        UbyResource.PARAM_DIALECT, "h2",
+                        UbyResource.PARAM_USERNAME, "root",
+                        UbyResource.PARAM_PASSWORD, "pass").getResourceSpecifier(), null);
+    }
+
+    private static File[] getExtractedDatabases(File cache)
+    {
+        return cache.listFiles(new FileFilter()
+        {
+            @Override
+            public boolean accept(File file)
+            {
+                return file.isDirectory();
+            }
+        });
+    }
+
+    private static Object[] getUbyResourceParams(Object... additionalParams)
+    {
+    	List<Object> params = new ArrayList<Object>();
+    	Object[] inMemDbParams = new Object[] { 
+            	UbyResource.PARAM_MODEL_LOCATION, ResourceObjectProviderBase.NOT_REQUIRED,								
+				UbyResource.PARAM_URL, "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
+				UbyResource.PARAM_DRIVER, "org.h2.Driver",
+				UbyResource.PARAM_DIALECT, "h2",
+				UbyResource.PARAM_USERNAME, "root",
+				UbyResource.PARAM_PASSWORD, "pass" };
+    	for (Object param : inMemDbParams) {
+    		params.add(param);
+    	}
+    	for (Object param : additionalParams) {
+    		params.add(param);
+    	}
+    	return params.toArray();
+    }
+
     private void runAnnotatorTestOnMySqlDb(String language)
         throws UIMAException
     {
@@ -158,6 +300,48 @@ public class UbyResourceTest
                 
 }
 
+    /**
+     * Looks up the lexicons from several threads at once using the shared Uby instance.
+     */
+    public static class ConcurrentTestAnnotator
+        extends JCasAnnotator_ImplBase
+{
+
+    public static final int THREADS = 4;
+
+    @ExternalResource(key = TestAnnotator.RES_UBY)
+    private Uby uby;
+
+    @Override
+    public void process(JCas arg0) throws AnalysisEngineProcessException {
+    	final int expectedLexicons = uby.getLexiconNames().size();
+    	ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    	try {
+    		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+    		for (int t = 0; t < THREADS; t++) {
+    			results.add(executor.submit(new Callable<Integer>() {
+    				@Override
+    				public Integer call() {
+    					int lexicons = 0;
+    					for (int i = 0; i < 50; i++) {
+    						lexicons = uby.getLexicons().size();
+    						uby.releaseSession();
+    					}
+    					return lexicons;
+    				}
+    			}));
+    		}
+    		for (Future<Integer> result : results) {
+    			assertEquals(expectedLexicons, result.get().intValue());
+    		}
+    	} catch (Exception e) {
+    		throw new AnalysisEngineProcessException(e);
+    	} finally {
+    		executor.shutdown();
+    	}
+    }
+                
+}
      
     
 }
@@ -21,9 +21,17 @@ import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
 import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
 import static org.apache.uima.fit.factory.ExternalResourceFactory.createExternalResourceDescription;
 import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.uima.UIMAException;
 import org.apache.uima.analysis_engine.AnalysisEngine;
@@ -33,7 +41,9 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.dom4j.DocumentException;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.ADJ;
 import de.tudarmstadt.ukp.dkpro.core.api.lexmorph.type.pos.NN;
@@ -45,9 +55,14 @@ import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Sentence;
 import de.tudarmstadt.ukp.dkpro.core.api.segmentation.type.Token;
 import de.tudarmstadt.ukp.dkpro.core.api.semantics.type.SemanticField;
 import de.tudarmstadt.ukp.dkpro.core.testing.AssertAnnotations;
+import de.tudarmstadt.ukp.lmf.api.Uby;
+import de.tudarmstadt.ukp.lmf.model.enums.EPartOfSpeech;
 import de.tudarmstadt.ukp.lmf.transform.DBConfig;
 import de.tudarmstadt.ukp.lmf.transform.LMFDBUtils;
 import de.tudarmstadt.ukp.lmf.transform.XMLToDBTransformer;
+import de.tudarmstadt.ukp.uby.resource.SemanticFieldLookup;
+import de.tudarmstadt.ukp.uby.resource.SemanticFieldLookupBuilder;
+import de.tudarmstadt.ukp.uby.resource.SemanticFieldResolver;
 import de.tudarmstadt.ukp.uby.resource.UbyResource;
 import de.tudarmstadt.ukp.uby.resource.UbySemanticFieldResource;
 import de.tudarmstadt.ukp.uby.uima.annotator.UbySemanticFieldAnnotator;
@@ -56,6 +71,9 @@ import de.tudarmstadt.ukp.uby.uima.annotator.UbySemanticFieldAnnotator;
 public class UbySemanticFieldAnnotatorTest
 {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testUbySemanticFieldAnnotatorOnInMemDb()
 		throws Exception
@@ -78,6 +96,52 @@ public class UbySemanticFieldAnnotatorTest
         
 	}
 
+	@Test
+	public void testUbySemanticFieldAnnotatorWithLookupFile()
+		throws Exception
+	{
+        String[] semanticFields = new String[] { "communication", "communication", "UNKNOWN",
+                "communication", "UNKNOWN" };
+
+        File lookupFile = createLookupFile("WordNet");
+        runAnnotatorTestOnInMemDb("en", "Botnets question most questions .", 
+                new String[] { "botnet", "question", "most", "question", "." }, 
+                new String[] { "NN", "V", "NOT_RELEVANT", "NN", "$." }, 
+                semanticFields, 
+                UbySemanticFieldResource.PARAM_LOOKUP_FILE, lookupFile.getPath());
+
+        // lemmas missing in the lookup file are UNKNOWN unless the database is used as fallback
+        File emptyLookupFile = folder.newFile("empty.lookup");
+        SemanticFieldLookup.write(emptyLookupFile, "WordNet", new HashMap<String, String>());
+        runAnnotatorTestOnInMemDb("en", "Botnets question most questions .", 
+                new String[] { "botnet", "question", "most", "question", "." }, 
+                new String[] { "NN", "V", "NOT_RELEVANT", "NN", "$." }, 
+                new String[] { "UNKNOWN", "UNKNOWN", "UNKNOWN", "UNKNOWN", "UNKNOWN" }, 
+                UbySemanticFieldResource.PARAM_LOOKUP_FILE, emptyLookupFile.getPath());
+        runAnnotatorTestOnInMemDb("en", "Botnets question most questions .", 
+                new String[] { "botnet", "question", "most", "question", "." }, 
+                new String[] { "NN", "V", "NOT_RELEVANT", "NN", "$." }, 
+                semanticFields, 
+                UbySemanticFieldResource.PARAM_LOOKUP_FILE, emptyLookupFile.getPath(),
+                UbySemanticFieldResource.PARAM_FALLBACK_TO_DATABASE, true);
+
+        // lemmas stored as UNKNOWN in the lookup file are not looked up in the database
+        File unknownLookupFile = folder.newFile("unknown.lookup");
+        Map<String, String> unknownSemanticFields = new HashMap<String, String>();
+        unknownSemanticFields.put(SemanticFieldResolver.getKey("botnet", EPartOfSpeech.noun),
+                SemanticFieldResolver.UNKNOWN);
+        SemanticFieldLookup.write(unknownLookupFile, "WordNet", unknownSemanticFields);
+        assertEquals(SemanticFieldResolver.UNKNOWN, 
+                SemanticFieldLookup.open(unknownLookupFile).get("botnet", EPartOfSpeech.noun));
+        assertNull(SemanticFieldLookup.open(unknownLookupFile).get("question", EPartOfSpeech.noun));
+        runAnnotatorTestOnInMemDb("en", "Botnets question most questions .", 
+                new String[] { "botnet", "question", "most", "question", "." }, 
+                new String[] { "NN", "V", "NOT_RELEVANT", "NN", "$." }, 
+                new String[] { "UNKNOWN", "communication", "UNKNOWN", "communication", "UNKNOWN" }, 
+                UbySemanticFieldResource.PARAM_LOOKUP_FILE, unknownLookupFile.getPath(),
+                UbySemanticFieldResource.PARAM_FALLBACK_TO_DATABASE, true);
+	}
+
 	@Ignore
 	@Test
 	public void testUbySemanticFieldAnnotatorOnMySqlDb()
@@ -115,9 +179,19 @@ public class UbySemanticFieldAnnotatorTest
 	 * use of in-memory DB is commented out
 	 *
 	 */	 
-    private void runAnnotatorTestOnInMemDb(String language, String testDocument,
-            String[] documentLemmas, String[] documentPosTags, String[] documentUbySemanticFields)
-        throws UIMAException, FileNotFoundException, DocumentException, IllegalArgumentException
+    private File createLookupFile(String lexiconName)
+        throws FileNotFoundException, DocumentException, IOException
+    {
+        DBConfig dbConfig = createInMemDb();
+        Uby uby = new Uby(dbConfig);
+        File lookupFile = folder.newFile(lexiconName + ".lookup");
+        new SemanticFieldLookupBuilder(uby).build(lexiconName, lookupFile);
+        uby.closeSession();
+        return lookupFile;
+    }
+
+    private DBConfig createInMemDb()
+        throws FileNotFoundException, DocumentException
     {
 	 	DBConfig dbConfig = new DBConfig("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1","org.h2.Driver","h2","root","pass",false);
 		
@@ -126,22 +200,40 @@ public class UbySemanticFieldAnnotatorTest
 		XMLToDBTransformer transformer;
 		transformer = new XMLToDBTransformer(dbConfig);
 		transformer.transform(new File("src/test/resources/UbyTestLexicon.xml"),"UbyTest");
+		return dbConfig;
+    }
+
+	/**
+	 * This is the test case that uses an embedded DB
+	 * use of in-memory DB is commented out
+	 *
+	 * @param semanticFieldResourceParams
+	 * 		additional parameters of the UbySemanticFieldResource
+	 */	 
+    private void runAnnotatorTestOnInMemDb(String language, String testDocument,
+            String[] documentLemmas, String[] documentPosTags, String[] documentUbySemanticFields,
+            Object... semanticFieldResourceParams)
+        throws UIMAException, FileNotFoundException, DocumentException, IllegalArgumentException
+    {
+		createInMemDb();
 		
+		List<Object> resourceParams = new ArrayList<Object>();
+		resourceParams.add(UbySemanticFieldResource.RES_UBY);
+		resourceParams.add(createExternalResourceDescription(UbyResource.class,
+        		UbyResource.PARAM_MODEL_LOCATION, ResourceObjectProviderBase.NOT_REQUIRED,
+                UbyResource.PARAM_URL, "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
+                UbyResource.PARAM_DRIVER, "org.h2.Driver",
+                UbyResource.PARAM_DIALECT, "h2",
+                UbyResource.PARAM_USERNAME, "root",
+                UbyResource.PARAM_PASSWORD, "pass"));
+		resourceParams.addAll(Arrays.asList(semanticFieldResourceParams));
 		 
 		AnalysisEngineDescription processor = createEngineDescription(
 
 				createEngineDescription(UbySemanticFieldAnnotator.class,
 						UbySemanticFieldAnnotator.PARAM_UBY_SEMANTIC_FIELD_RESOURCE, 
 							createExternalResourceDescription(UbySemanticFieldResource.class,
-									UbySemanticFieldResource.RES_UBY,				                
-					                createExternalResourceDescription(UbyResource.class,
-					                		UbyResource.PARAM_MODEL_LOCATION, ResourceObjectProviderBase.NOT_REQUIRED,
-					                        UbyResource.PARAM_URL, "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1",
-					                        UbyResource.PARAM_DRIVER, "org.h2.Driver",
-					                        UbyResource.PARAM_DIALECT, "h2",
-					                        UbyResource.PARAM_USERNAME, "root",
-					                        UbyResource.PARAM_PASSWORD, "pass"
-									)))
+									resourceParams.toArray()))
 		);
 
 		AnalysisEngine engine = createEngine(processor);